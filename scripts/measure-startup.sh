@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Measures time to first request and resident memory of one way of starting the API.
+#
+#   scripts/measure-startup.sh jvm    [application arguments]   plain executable jar (./mvnw package)
+#   scripts/measure-startup.sh cds    [application arguments]   AOT-processed jar with CDS archive (./mvnw -Pcds package)
+#   scripts/measure-startup.sh native [application arguments]   native executable (./mvnw -Pnative native:compile)
+#
+# Time to first request runs from launching the process to the first 200 answer of GET /api/concerns?size=1.
+# RSS is read from /proc once that request has been answered, so Linux only. PORT (default 8080), RUNS (default 5)
+# and JAVA_OPTS are taken from the environment; the reported figures are the median of the runs.
+set -euo pipefail
+
+mode=${1:?usage: $0 jvm|cds|native [application arguments]}
+shift
+port=${PORT:-8080}
+runs=${RUNS:-5}
+target=$(cd "$(dirname "$0")/../target" && pwd)
+jar=$(basename "$(ls "$target"/safeguarding-api-*.jar | grep -v original | head -n 1)")
+
+case "$mode" in
+    jvm)    workdir=$target;     command=(java ${JAVA_OPTS:-} -jar "$jar") ;;
+    cds)    workdir=$target/cds; command=(java ${JAVA_OPTS:-} -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$jar") ;;
+    native) workdir=$target;     command=("./safeguarding-api") ;;
+    *)      echo "unknown mode: $mode" >&2; exit 2 ;;
+esac
+
+now_ms() { date +%s%3N; }
+
+times=()
+rss=()
+for run in $(seq 1 "$runs"); do
+    cd "$workdir"
+    start=$(now_ms)
+    "${command[@]}" --server.port="$port" "$@" > "$target/measure-startup-$mode.log" 2>&1 &
+    pid=$!
+    until curl -fs -o /dev/null "http://localhost:$port/api/concerns?size=1"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode exited before answering; see $target/measure-startup-$mode.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kb=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "run $run: first request after ${elapsed} ms, RSS $(( kb / 1024 )) MB"
+    times+=("$elapsed")
+    rss+=("$kb")
+done
+
+median() { printf '%s\n' "$@" | sort -n | awk '{v[NR]=$1} END {print v[int((NR+1)/2)]}'; }
+echo "$mode: median first request after $(median "${times[@]}") ms, RSS $(( $(median "${rss[@]}") / 1024 )) MB over $runs runs"
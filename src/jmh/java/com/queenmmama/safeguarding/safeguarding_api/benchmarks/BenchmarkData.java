@@ -0,0 +1,65 @@
+package com.queenmmama.safeguarding.safeguarding_api.benchmarks;
+
+import com.queenmmama.safeguarding.safeguarding_api.SafeguardingApiApplication;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Shared fixtures for the JMH benchmarks.
+ */
+final class BenchmarkData {
+
+    private static final String[] STATUSES = {"Open", "In Progress", "Resolved"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates concerns with realistic field lengths. Generation is seeded, so every run sees the same data.
+     *
+     * @param count the number of concerns to generate
+     * @param students the number of distinct students to spread them across
+     * @return the concerns, without IDs
+     */
+    static List<CONCERN> concerns(int count, int students) {
+        Random random = new Random(42);
+        Instant start = Instant.parse("2024-09-01T08:00:00Z");
+        List<CONCERN> concerns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            concerns.add(new CONCERN(null,
+                    studentName(random.nextInt(students)),
+                    "Staff member " + random.nextInt(200),
+                    "Observed during break time: " + "the student appeared withdrawn and said they had not eaten. ".repeat(1 + random.nextInt(3)),
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    start.plusSeconds(i * 60L)));
+        }
+        return concerns;
+    }
+
+    /**
+     * @param index the student number
+     * @return the name of that generated student
+     */
+    static String studentName(int index) {
+        return "Student " + index;
+    }
+
+    /**
+     * Starts the application without a web server against the embedded H2 database configured in
+     * {@code src/test/resources/application.properties}.
+     *
+     * @return the running application context
+     */
+    static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(SafeguardingApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+    }
+}
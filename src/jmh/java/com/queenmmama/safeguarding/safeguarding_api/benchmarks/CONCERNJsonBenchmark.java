@@ -0,0 +1,79 @@
+package com.queenmmama.safeguarding.safeguarding_api.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures Jackson serialization and deserialization of {@code List<CONCERN>} response bodies.
+ *
+ * <p>The mapper is built the way Spring Boot builds the application's, so the numbers reflect what
+ * {@code CONCERNController} pays per response.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class CONCERNJsonBenchmark {
+
+    private static final TypeReference<List<CONCERN>> CONCERN_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<CONCERN> concerns;
+    private byte[] json;
+
+    /**
+     * Builds the mapper and the list to serialize, and serializes it once for the deserialization benchmark.
+     *
+     * @throws IOException if serialization fails
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.concerns = BenchmarkData.concerns(this.size, Math.max(1, this.size / 10));
+        for (CONCERN concern : this.concerns) {
+            concern.id = UUID.randomUUID();
+        }
+        this.json = this.objectMapper.writeValueAsBytes(this.concerns);
+    }
+
+    /**
+     * @return the serialized list
+     * @throws IOException if serialization fails
+     */
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return this.objectMapper.writeValueAsBytes(this.concerns);
+    }
+
+    /**
+     * @return the deserialized list
+     * @throws IOException if deserialization fails
+     */
+    @Benchmark
+    public List<CONCERN> deserialize() throws IOException {
+        return this.objectMapper.readValue(this.json, CONCERN_LIST);
+    }
+}
@@ -0,0 +1,106 @@
+package com.queenmmama.safeguarding.safeguarding_api.benchmarks;
+
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNCacheCoordinator;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNService;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures the {@link CONCERNService} create, update and get paths through the full Spring stack
+ * (proxies, cache, events, Hibernate) against the embedded H2 database.
+ *
+ * <p>H2 is far faster than a networked MySQL, so these numbers isolate the application's own overhead;
+ * use them to compare commits, not to predict production latency.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class CONCERNServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CONCERNService concernService;
+    private CONCERNCacheCoordinator cacheCoordinator;
+    private List<CONCERN> templates;
+    private UUID existingId;
+    private int next;
+
+    /**
+     * Starts the application and saves one concern for the update and get benchmarks.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkData.startApplication();
+        this.concernService = this.context.getBean(CONCERNService.class);
+        this.cacheCoordinator = this.context.getBean(CONCERNCacheCoordinator.class);
+        this.templates = BenchmarkData.concerns(1000, 100);
+        this.existingId = this.concernService.createCONCERN(copy(this.templates.get(0))).getID();
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    /**
+     * @return the created concern
+     */
+    @Benchmark
+    public CONCERN create() {
+        return this.concernService.createCONCERN(copy(this.nextTemplate()));
+    }
+
+    /**
+     * @return the updated concern
+     */
+    @Benchmark
+    public CONCERN update() {
+        return this.concernService.updateCONCERN(this.existingId, this.nextTemplate());
+    }
+
+    /**
+     * @return the concern, served from the entity cache
+     */
+    @Benchmark
+    public CONCERN getCached() {
+        return this.concernService.getCONCERN(this.existingId);
+    }
+
+    /**
+     * @return the concern, read from the database after evicting it from the cache
+     */
+    @Benchmark
+    public CONCERN getUncached() {
+        this.cacheCoordinator.evict(this.existingId);
+        return this.concernService.getCONCERN(this.existingId);
+    }
+
+    private CONCERN nextTemplate() {
+        return this.templates.get(this.next++ % this.templates.size());
+    }
+
+    private static CONCERN copy(CONCERN template) {
+        return new CONCERN(null, template.getStudentName(), template.getReportedBy(), template.getDescription(),
+                template.getStatus(), template.getDateTime());
+    }
+}
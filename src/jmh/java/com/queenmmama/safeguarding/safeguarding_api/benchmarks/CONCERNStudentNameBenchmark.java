@@ -0,0 +1,75 @@
+package com.queenmmama.safeguarding.safeguarding_api.benchmarks;
+
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures {@link CONCERNService#getCONCERNsByStudentName(String)} as the table grows.
+ *
+ * <p>Each student has about ten concerns at every volume, so a flat curve means the lookup is an index seek and a
+ * rising one means it has regressed to a scan.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CONCERNStudentNameBenchmark {
+
+    private static final int CONCERNS_PER_STUDENT = 10;
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private CONCERNService concernService;
+    private int students;
+    private int next;
+
+    /**
+     * Starts the application and seeds {@link #rows} concerns through the batch path.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkData.startApplication();
+        this.concernService = this.context.getBean(CONCERNService.class);
+        this.students = this.rows / CONCERNS_PER_STUDENT;
+        List<CONCERN> concerns = BenchmarkData.concerns(this.rows, this.students);
+        for (int from = 0; from < concerns.size(); from += 5000) {
+            this.concernService.createCONCERNs(concerns.subList(from, Math.min(from + 5000, concerns.size())));
+        }
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    /**
+     * @return the concerns of the next student in turn
+     */
+    @Benchmark
+    public List<CONCERN> findByStudentName() {
+        return this.concernService.getCONCERNsByStudentName(BenchmarkData.studentName(this.next++ % this.students));
+    }
+}
@@ -0,0 +1,169 @@
+package com.queenmmama.safeguarding.safeguarding_api.benchmarks;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.decoder.BrotliInputStream;
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures the CPU cost of encoding and decoding {@code List<CONCERN>} bodies in each wire format and content
+ * coding the API offers.
+ *
+ * <p>{@code encode} is what the server pays per response (serialize, then compress) and {@code decode} what a
+ * client pays (decompress, then deserialize). Compression uses the same settings as
+ * {@code ResponseEncodingFilter}: gzip at the default level and brotli at quality 4. Payload sizes do not need
+ * a benchmark; {@link WireFormatSizeReport} prints them.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class CONCERNWireFormatBenchmark {
+
+    static final List<String> FORMATS = List.of("json", "cbor", "smile");
+    static final List<String> COMPRESSIONS = List.of("none", "gzip", "br");
+
+    private static final TypeReference<List<CONCERN>> CONCERN_LIST = new TypeReference<>() {
+    };
+    private static final Encoder.Parameters BROTLI = new Encoder.Parameters().setQuality(4);
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"none", "gzip", "br"})
+    private String compression;
+
+    @Param({"20", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<CONCERN> concerns;
+    private byte[] payload;
+
+    /**
+     * Builds the mapper and the list to encode, and encodes it once for the decoding benchmark.
+     *
+     * @throws IOException if encoding fails
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.objectMapper = mapper(this.format);
+        this.concerns = concerns(this.size);
+        this.payload = encode(this.objectMapper, this.compression, this.concerns);
+    }
+
+    /**
+     * @return the encoded list
+     * @throws IOException if encoding fails
+     */
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return encode(this.objectMapper, this.compression, this.concerns);
+    }
+
+    /**
+     * @return the decoded list
+     * @throws IOException if decoding fails
+     */
+    @Benchmark
+    public List<CONCERN> decode() throws IOException {
+        try (InputStream in = decompress(this.compression, new ByteArrayInputStream(this.payload))) {
+            return this.objectMapper.readValue(in, CONCERN_LIST);
+        }
+    }
+
+    /**
+     * Builds a mapper for a wire format the way Spring Boot configures the application's.
+     *
+     * @param format "json", "cbor" or "smile"
+     * @return the mapper
+     */
+    static ObjectMapper mapper(String format) {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    /**
+     * @param count the number of concerns
+     * @return generated concerns with IDs and versions, as the API returns them
+     */
+    static List<CONCERN> concerns(int count) {
+        List<CONCERN> concerns = BenchmarkData.concerns(count, Math.max(1, count / 10));
+        for (CONCERN concern : concerns) {
+            concern.id = UUID.randomUUID();
+            concern.setVersion(0L);
+        }
+        return concerns;
+    }
+
+    /**
+     * Serializes a value and compresses the result.
+     *
+     * @param objectMapper the mapper of the wire format
+     * @param compression "none", "gzip" or "br"
+     * @param value the value to encode
+     * @return the encoded bytes
+     * @throws IOException if encoding fails
+     */
+    static byte[] encode(ObjectMapper objectMapper, String compression, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = compress(compression, bytes)) {
+            objectMapper.writeValue(out, value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static OutputStream compress(String compression, OutputStream out) throws IOException {
+        return switch (compression) {
+            case "none" -> out;
+            case "gzip" -> new GZIPOutputStream(out, 8192);
+            case "br" -> {
+                Brotli4jLoader.ensureAvailability();
+                yield new BrotliOutputStream(out, BROTLI);
+            }
+            default -> throw new IllegalArgumentException("Unknown compression: " + compression);
+        };
+    }
+
+    private static InputStream decompress(String compression, InputStream in) throws IOException {
+        return switch (compression) {
+            case "none" -> in;
+            case "gzip" -> new GZIPInputStream(in, 8192);
+            case "br" -> new BrotliInputStream(in);
+            default -> throw new IllegalArgumentException("Unknown compression: " + compression);
+        };
+    }
+}
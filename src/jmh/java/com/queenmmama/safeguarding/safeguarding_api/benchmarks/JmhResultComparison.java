@@ -0,0 +1,60 @@
+package com.queenmmama.safeguarding.safeguarding_api.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files, e.g. from a base commit and a change, and prints the score delta
+ * of every benchmark present in both.
+ *
+ * <pre>
+ * ./mvnw -Pjmh test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.queenmmama.safeguarding.safeguarding_api.benchmarks.JmhResultComparison \
+ *     -Dexec.args="base.json target/jmh-result.json"
+ * </pre>
+ */
+public final class JmhResultComparison {
+
+    private JmhResultComparison() {
+    }
+
+    /**
+     * @param args the base result file and the new result file
+     * @throws IOException if either file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: JmhResultComparison <base.json> <new.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> base = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+        System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Base", "New", "Change");
+        current.forEach((key, result) -> {
+            JsonNode before = base.get(key);
+            if (before == null) {
+                return;
+            }
+            double was = before.path("primaryMetric").path("score").asDouble();
+            double now = result.path("primaryMetric").path("score").asDouble();
+            String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            System.out.printf("%-80s %10.3f %-3s %10.3f %-3s %+8.1f%%%n", key, was, unit, now, unit, (now - was) / was * 100);
+        });
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            for (Map.Entry<String, JsonNode> param : result.path("params").properties()) {
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,43 @@
+package com.queenmmama.safeguarding.safeguarding_api.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Prints the encoded size of {@code List<CONCERN>} bodies in every wire format and content coding, next to the
+ * CPU cost measured by {@link CONCERNWireFormatBenchmark}.
+ *
+ * <pre>
+ * ./mvnw -Pjmh test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.queenmmama.safeguarding.safeguarding_api.benchmarks.WireFormatSizeReport \
+ *     -Dexec.args="20 100 1000"
+ * </pre>
+ */
+public final class WireFormatSizeReport {
+
+    private WireFormatSizeReport() {
+    }
+
+    /**
+     * @param args the list sizes to report; 20, 100 and 1000 if none are given
+     * @throws IOException if encoding fails
+     */
+    public static void main(String[] args) throws IOException {
+        String[] sizes = args.length == 0 ? new String[] {"20", "100", "1000"} : args;
+        System.out.printf("%8s %-6s %-5s %12s %8s%n", "Concerns", "Format", "Codec", "Bytes", "vs JSON");
+        for (String size : sizes) {
+            List<CONCERN> concerns = CONCERNWireFormatBenchmark.concerns(Integer.parseInt(size));
+            long json = 0;
+            for (String format : CONCERNWireFormatBenchmark.FORMATS) {
+                ObjectMapper objectMapper = CONCERNWireFormatBenchmark.mapper(format);
+                for (String compression : CONCERNWireFormatBenchmark.COMPRESSIONS) {
+                    long bytes = CONCERNWireFormatBenchmark.encode(objectMapper, compression, concerns).length;
+                    json = json == 0 ? bytes : json;
+                    System.out.printf("%8s %-6s %-5s %12d %7.1f%%%n", size, format, compression, bytes, bytes * 100.0 / json);
+                }
+            }
+        }
+    }
+}
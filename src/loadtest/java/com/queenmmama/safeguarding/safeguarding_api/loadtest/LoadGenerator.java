@@ -0,0 +1,343 @@
+package com.queenmmama.safeguarding.safeguarding_api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Drives a mixed create/get/list/update workload against a running API at a fixed arrival rate and reports
+ * latency percentiles and throughput per endpoint.
+ *
+ * <p>The generator is open-loop: request {@code i} is due at {@code start + i / rate} whether or not earlier
+ * requests have completed, and each is sent on its own virtual thread. Latency is measured from the time a request
+ * was due, not from when it was sent, so a server that stalls is charged for the requests that would have arrived
+ * during the stall. This avoids coordinated omission, where a closed-loop client stops sending while it waits and
+ * the stall disappears from the percentiles. The time from sending to response is reported alongside for
+ * comparison; a large gap between the two means the client itself fell behind.</p>
+ *
+ * <p>Run it against the {@code loadtest} profile:</p>
+ * <pre>
+ * ./mvnw spring-boot:run -Ploadtest
+ * ./mvnw -Ploadtest test-compile exec:java -Dexec.args="--rate=200 --duration=60s --mix=create:10,get:50,list:30,update:10"
+ * </pre>
+ *
+ * <p>Options, all optional: {@code --url} (default {@code http://localhost:8080}), {@code --rate} in requests per
+ * second (100), {@code --duration} (60s), {@code --warmup} (10s, not recorded), {@code --mix} (weights per
+ * operation), {@code --seed} (the seed of the operation sequence) and {@code --out} (the directory for the full
+ * percentile distributions, {@code target/loadtest}).</p>
+ */
+public final class LoadGenerator {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PRELOADED_PAGES = 50;
+    private static final String[] STATUSES = {"Open", "In Progress", "Resolved"};
+
+    /**
+     * The operations in the mix and the endpoint each exercises.
+     */
+    enum Operation {
+        CREATE("POST /api/concerns"),
+        GET("GET /api/concerns/{id}"),
+        LIST("GET /api/concerns?studentName"),
+        UPDATE("GET+PATCH /api/concerns/{id}");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    /**
+     * Latency and outcome counts of one operation.
+     */
+    private static final class Stats {
+        private final Histogram corrected = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        private final Histogram service = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI baseUri;
+    private final List<String> ids = new ArrayList<>();
+    private final List<String> studentNames = new ArrayList<>();
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    private LoadGenerator(URI baseUri) {
+        this.baseUri = baseUri;
+        for (Operation operation : Operation.values()) {
+            this.stats.put(operation, new Stats());
+        }
+    }
+
+    /**
+     * Runs the load test described by the command-line options and prints the report.
+     *
+     * @param args the options, each as {@code --name=value}
+     * @throws Exception if the API cannot be reached or the report cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        double[] mix = parseMix(options.getOrDefault("mix", "create:10,get:50,list:30,update:10"));
+        Random sequence = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+
+        LoadGenerator generator = new LoadGenerator(URI.create(options.getOrDefault("url", "http://localhost:8080")));
+        generator.preload();
+        System.out.printf("Running %.0f requests/s for %s after %s of warm-up against %s with %d concerns and %d students known%n",
+                rate, duration, warmup, generator.baseUri, generator.ids.size(), generator.studentNames.size());
+        double seconds = generator.run(rate, warmup, duration, mix, sequence);
+        generator.report(System.out, seconds);
+        generator.writeDistributions(Path.of(options.getOrDefault("out", "target/loadtest")));
+    }
+
+    /**
+     * Reads the first pages of concern summaries, so gets, lists and updates have existing IDs and students to use.
+     */
+    private void preload() throws IOException, InterruptedException {
+        String cursor = null;
+        for (int page = 0; page < PRELOADED_PAGES; page++) {
+            String query = "/api/concerns?view=summary&size=100" + (cursor == null ? "" : "&cursor=" + encode(cursor));
+            HttpResponse<String> response = this.client.send(HttpRequest.newBuilder(this.baseUri.resolve(query)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Could not list concerns: HTTP " + response.statusCode());
+            }
+            JsonNode body = this.objectMapper.readTree(response.body());
+            for (JsonNode summary : body.path("items")) {
+                this.ids.add(summary.path("id").asText());
+                this.studentNames.add(summary.path("studentName").asText());
+            }
+            cursor = body.path("nextCursor").isTextual() ? body.path("nextCursor").asText() : null;
+            if (cursor == null) {
+                break;
+            }
+        }
+        if (this.ids.isEmpty()) {
+            throw new IOException("No concerns to read; start the API with the loadtest profile so it is seeded");
+        }
+    }
+
+    /**
+     * Sends requests at the given rate and returns the length of the recorded period in seconds.
+     */
+    private double run(double rate, Duration warmup, Duration duration, double[] mix, Random sequence) throws InterruptedException {
+        long interval = (long)(TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long due = start + i * interval;
+                if (due >= end) {
+                    break;
+                }
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick(mix, sequence);
+                boolean recorded = due >= recordFrom;
+                executor.execute(() -> this.send(operation, due, recorded));
+            }
+        }
+        return duration.toNanos() / 1e9;
+    }
+
+    /**
+     * Sends one request and records its outcome; a request that fails or times out is recorded as an error with
+     * the time it took to fail.
+     */
+    private void send(Operation operation, long due, boolean recorded) {
+        long sent = System.nanoTime();
+        int status = -1;
+        try {
+            status = this.exchange(operation);
+        } catch (IOException e) {
+            // Recorded below as an error.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long done = System.nanoTime();
+        if (recorded) {
+            Stats stats = this.stats.get(operation);
+            stats.corrected.recordValue(Math.min(HIGHEST_LATENCY_MICROS, (done - due) / 1000));
+            stats.service.recordValue(Math.min(HIGHEST_LATENCY_MICROS, (done - sent) / 1000));
+            if (status == 503) {
+                stats.rejected.increment();
+            } else if (status < 200 || status >= 400) {
+                stats.errors.increment();
+            }
+        }
+    }
+
+    /**
+     * Performs one operation and returns the status of its last response. An update reads the concern first and
+     * sends its ETag in {@code If-Match}, as a client editing a concern would.
+     */
+    private int exchange(Operation operation) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(REQUEST_TIMEOUT);
+        switch (operation) {
+            case CREATE -> {
+                String body = this.objectMapper.createObjectNode()
+                        .put("studentName", this.randomStudentName())
+                        .put("reportedBy", "Load Test")
+                        .put("description", "Generated by the load test at " + Instant.now())
+                        .put("status", "Open")
+                        .toString();
+                HttpResponse<String> response = this.send(builder.uri(this.baseUri.resolve("/api/concerns"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)));
+                if (response.statusCode() == 201) {
+                    this.remember(this.objectMapper.readTree(response.body()).path("id").asText());
+                }
+                return response.statusCode();
+            }
+            case GET -> {
+                return this.send(builder.uri(this.baseUri.resolve("/api/concerns/" + this.randomId())).GET()).statusCode();
+            }
+            case LIST -> {
+                return this.send(builder.uri(this.baseUri.resolve("/api/concerns?size=20&studentName=" + encode(this.randomStudentName())))
+                        .GET()).statusCode();
+            }
+            default -> {
+                URI uri = this.baseUri.resolve("/api/concerns/" + this.randomId());
+                HttpResponse<String> current = this.send(HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET());
+                Optional<String> etag = current.headers().firstValue("ETag");
+                if (current.statusCode() != 200 || etag.isEmpty()) {
+                    return current.statusCode();
+                }
+                return this.send(builder.uri(uri)
+                        .header("Content-Type", "application/merge-patch+json")
+                        .header("If-Match", etag.get())
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                "{\"status\":\"" + STATUSES[random.nextInt(STATUSES.length)] + "\"}"))).statusCode();
+            }
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return this.client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private synchronized void remember(String id) {
+        this.ids.add(id);
+    }
+
+    private synchronized String randomId() {
+        return this.ids.get(ThreadLocalRandom.current().nextInt(this.ids.size()));
+    }
+
+    /**
+     * Picks a student from the preloaded summaries, so students with more concerns are picked more often.
+     */
+    private String randomStudentName() {
+        return this.studentNames.get(ThreadLocalRandom.current().nextInt(this.studentNames.size()));
+    }
+
+    private void report(PrintStream out, double seconds) {
+        out.printf("%n%-30s %9s %8s %8s %9s %9s %9s %9s %9s %9s %12s%n", "Endpoint", "Requests", "Errors", "503s",
+                "Req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+        for (Operation operation : Operation.values()) {
+            Stats stats = this.stats.get(operation);
+            Histogram corrected = stats.corrected;
+            out.printf("%-30s %9d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f%n", operation.endpoint,
+                    corrected.getTotalCount(), stats.errors.sum(), stats.rejected.sum(), corrected.getTotalCount() / seconds,
+                    millis(corrected, 50), millis(corrected, 90), millis(corrected, 99), millis(corrected, 99.9),
+                    corrected.getMaxValue() / 1000.0, millis(stats.service, 99));
+        }
+        out.println("Latency is measured from when each request was due (corrected for coordinated omission);"
+                + " \"svc p99\" is measured from when it was sent.");
+    }
+
+    /**
+     * Writes each endpoint's corrected latency distribution in HdrHistogram's percentile format, in milliseconds.
+     */
+    private void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Operation operation : Operation.values()) {
+            Path file = directory.resolve(operation.name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+                this.stats.get(operation).corrected.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("Percentile distributions written to " + directory.toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static Operation pick(double[] cumulative, Random random) {
+        double value = random.nextDouble() * cumulative[cumulative.length - 1];
+        for (int i = 0; i < cumulative.length; i++) {
+            if (value < cumulative[i]) {
+                return Operation.values()[i];
+            }
+        }
+        return Operation.values()[cumulative.length - 1];
+    }
+
+    /**
+     * Parses weights such as {@code create:10,get:50} into cumulative weights in {@link Operation} order.
+     */
+    private static double[] parseMix(String mix) {
+        double[] weights = new double[Operation.values().length];
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights[Operation.valueOf(parts[0].toUpperCase()).ordinal()] = Double.parseDouble(parts[1]);
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        if (weights[weights.length - 1] <= 0) {
+            throw new IllegalArgumentException("The mix must give at least one operation a positive weight");
+        }
+        return weights;
+    }
+
+    private static Duration parseDuration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -1,12 +1,18 @@
 package com.queenmmama.safeguarding.safeguarding_api.concerns;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Id;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Version;
 import java.time.Instant;
 import java.util.UUID;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
 
 /**
  * Entity representing a safeguarding concern reported for a student.
@@ -15,26 +21,63 @@ import java.util.UUID;
  * It includes fields for the concern's ID, student name, reporter, description, status, and the timestamp of when the concern was created.</p>
  * 
  * <p>The status field defaults to "Open" if not provided. The dateTime field captures when the concern was reported.<p>
+ * 
+ * <p>The version field is incremented on every write and is used to reject writes based on a stale copy.</p>
+ * 
+ * <p>The student name is also stored case- and accent-folded (see {@link CONCERNStudentNames}) in an indexed
+ * column that is not part of the JSON representation.</p>
+ *
+ * <p>Each concern belongs to the institution that reported it (see {@link CONCERNInstitutions}). The institution
+ * is filled in when the concern is first saved, is never changed, and is not part of the JSON representation
+ * either.</p>
  */
 @Entity
-@Table(name = "concerns")
+@Table(name = "concerns", indexes = {
+    @Index(name = "idx_concerns_date_time_id", columnList = "dateTime, id"),
+    @Index(name = "idx_concerns_student_name_date_time", columnList = "studentName, dateTime"),
+    @Index(name = "idx_concerns_student_name_key_date_time", columnList = "studentNameKey, dateTime"),
+    @Index(name = "idx_concerns_status_date_time", columnList = "status, dateTime"),
+    @Index(name = "idx_concerns_reported_by_date_time", columnList = "reportedBy, dateTime"),
+    @Index(name = "idx_concerns_institution_date_time_id", columnList = "institutionId, dateTime, id")
+})
 
 
 public class CONCERN {
 
     /**
-     * The unique identifier for the concern (generated as a UUID).
+     * The most characters the student name, its folded form, the reporter, the description and the status may
+     * have, the length of their columns.
+     */
+    public static final int MAX_TEXT_LENGTH = 255;
+
+    /**
+     * The unique identifier for the concern (generated as a random UUID unless already assigned).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @CONCERNIdGenerator.Generated
 
     public UUID id;
 
+    /**
+     * The institution the concern belongs to, set from {@link CONCERNInstitutions#current()} when it is first saved.
+     */
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    @ColumnDefault("'" + CONCERNInstitutions.DEFAULT + "'")
+    private String institutionId;
+
     /**
      * The name of the student the concern is about.
      */
     public String studentName;
 
+    /**
+     * The student's name folded by {@link CONCERNStudentNames#normalize(String)}, kept in step with
+     * {@link #studentName} whenever the concern is saved.
+     */
+    private String studentNameKey;
+
     /**
      * The name of the person who reported the concern.
      */
@@ -53,9 +96,19 @@ public class CONCERN {
 
     /**
      * The date and time when the concern was reported/created.
+     * Stamped with the time it is saved if not specified, and never cleared.
      */
+    @Column(nullable = false)
     public Instant dateTime;
 
+    /**
+     * The optimistic-locking version, incremented on every update.
+     * {@code null} until the concern is first saved.
+     */
+    @Version
+    @Column(nullable = false)
+    public Long version;
+
     /**
      * Constructs a new CONCERN with the specified details.
      * 
@@ -88,6 +141,16 @@ public class CONCERN {
         return this.id;
     }
 
+    /** @return the institution the concern belongs to, or {@code null} if it has not been saved yet */
+    public String getInstitutionId() {
+        return this.institutionId;
+    }
+
+    /** @param institutionId sets the institution of a concern read from somewhere other than the "concerns" table */
+    void setInstitutionId(String institutionId) {
+        this.institutionId = institutionId;
+    }
+
     /** @return the student's name */
     public String getStudentName() {
         return this.studentName;
@@ -138,5 +201,35 @@ public class CONCERN {
         this.dateTime = dateTime;
     }
 
+    /** @return the concern's version, or {@code null} if it has not been saved yet */
+    public Long getVersion() {
+        return this.version;
+    }
+
+    /** @param version sets the version the caller last read, used to detect stale writes */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return a new concern, not managed by any persistence context, with the same fields, institution and version
+     */
+    CONCERN copy() {
+        CONCERN copy = new CONCERN(this.id, this.studentName, this.reportedBy, this.description, this.status, this.dateTime);
+        copy.institutionId = this.institutionId;
+        copy.studentNameKey = this.studentNameKey;
+        copy.version = this.version;
+        return copy;
+    }
+
+    /**
+     * Folds the student name into {@code studentNameKey} before the concern is written.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizeStudentName() {
+        this.studentNameKey = CONCERNStudentNames.normalize(this.studentName);
+    }
+
 
 }
@@ -0,0 +1,213 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains and reads the per-student and per-status concern counts in the {@code concern_counts} table.
+ *
+ * <p>{@link CONCERNService} reports every change of a concern's student or status here, inside the
+ * transaction that makes the change, so the counts commit or roll back with it. Reads touch one row per
+ * status, no matter how many concerns exist. A scheduled reconciliation rebuilds the counts from
+ * {@code concerns} to repair any drift, for example after rows are edited directly in the database.</p>
+ *
+ * <p>Counts are kept per institution and stored with the institution's concerns. Reads and adjustments concern
+ * the {@link CONCERNInstitutions#current() current} institution; reconciliation rebuilds every institution's
+ * counts, one shard per transaction.</p>
+ *
+ * <p>Changes to each student's total are published as a {@link CONCERNStudentCountsChangedEvent}.</p>
+ *
+ */
+@Service
+public class CONCERNAggregateService {
+    private static final Logger log = LoggerFactory.getLogger(CONCERNAggregateService.class);
+
+    private final CONCERNCountRepository countRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readTransaction;
+    private final CONCERNShards shards;
+
+    /**
+     * Constructs a new {@code CONCERNAggregateService}.
+     *
+     * @param countRepository the repository of the {@code concern_counts} table
+     * @param eventPublisher the publisher used to announce changes to students' totals
+     * @param transactionManager the transaction manager used to rebuild and read each shard's counts
+     * @param shards the databases concerns are stored in, if there is more than one
+     *
+     */
+
+    public CONCERNAggregateService(CONCERNCountRepository countRepository, ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager, Optional<CONCERNShards> shards) {
+        this.countRepository = countRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.shards = shards.orElse(CONCERNShards.SINGLE);
+    }
+
+    /**
+     * Counts newly created concerns.
+     *
+     * @param created the concerns as saved
+     *
+     */
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Collection<CONCERN> created) {
+        Map<CONCERNCountKey, Long> deltas = new LinkedHashMap<>();
+        for (CONCERN concern : created) {
+            add(deltas, CONCERNStudentStatus.of(concern), 1);
+        }
+        this.apply(deltas);
+    }
+
+    /**
+     * Moves one concern between counts.
+     *
+     * @param before the concern's student and status before the change, or {@code null} if it was created
+     * @param after the concern's student and status after the change, or {@code null} if it was deleted
+     *
+     */
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(CONCERNStudentStatus before, CONCERNStudentStatus after) {
+        Map<CONCERNCountKey, Long> deltas = new LinkedHashMap<>();
+        if (before != null) {
+            add(deltas, before, -1);
+        }
+        if (after != null) {
+            add(deltas, after, 1);
+        }
+        this.apply(deltas);
+    }
+
+    /**
+     * Reads the number of concerns of the current institution per status.
+     *
+     * @param studentName the student to count, or {@code null} for all of the institution's students
+     * @return the counts per status and their total
+     *
+     */
+
+    @Transactional(readOnly = true)
+    public CONCERNAggregates getAggregates(String studentName) {
+        String scope = studentName == null ? CONCERNCountKey.ALL : CONCERNCountKey.studentScope(studentName);
+        Map<String, Long> byStatus = new TreeMap<>();
+        long total = 0;
+        for (CONCERNCount count : this.countRepository.findByScope(CONCERNInstitutions.current(), scope)) {
+            if (count.getTotal() != 0) {
+                byStatus.put(count.getKey().status(), count.getTotal());
+                total += count.getTotal();
+            }
+        }
+        return new CONCERNAggregates(studentName, byStatus, total);
+    }
+
+    /**
+     * Rebuilds every count from the {@code concerns} and {@code concerns_archive} tables, in one transaction per shard.
+     *
+     */
+
+    @Scheduled(cron = "${safeguarding.concerns.aggregates.reconcile-cron:0 30 2 * * *}")
+    public void reconcile() {
+        long start = System.nanoTime();
+        int[] rows = new int[1];
+        this.shards.forEachShard(shard -> this.transaction.executeWithoutResult(status -> {
+            this.countRepository.deleteAllCounts();
+            rows[0] += this.countRepository.insertStudentCounts() + this.countRepository.insertTotalCounts();
+        }));
+        this.eventPublisher.publishEvent(CONCERNStudentCountsChangedEvent.rebuilt());
+        log.info("Reconciled concern counts: {} rows in {} ms", rows[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads every student's total number of concerns in the current institution.
+     *
+     * @return the totals by student name
+     *
+     */
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> getStudentTotals() {
+        Map<String, Long> totals = new HashMap<>();
+        for (CONCERNCount count : this.countRepository.findStudentCounts(CONCERNInstitutions.current())) {
+            totals.merge(count.getKey().scope().substring(CONCERNCountKey.STUDENT_PREFIX.length()), count.getTotal(), Long::sum);
+        }
+        return totals;
+    }
+
+    /**
+     * Reads every student's total number of concerns in every institution, one shard at a time.
+     *
+     * @return the totals by institution, then by student name
+     *
+     */
+
+    public Map<String, Map<String, Long>> getStudentTotalsByInstitution() {
+        Map<String, Map<String, Long>> totals = new HashMap<>();
+        this.shards.forEachShard(shard -> this.readTransaction.executeWithoutResult(status -> {
+            for (CONCERNCount count : this.countRepository.findAllStudentCounts()) {
+                totals.computeIfAbsent(count.getKey().institutionId(), institution -> new HashMap<>())
+                        .merge(count.getKey().scope().substring(CONCERNCountKey.STUDENT_PREFIX.length()), count.getTotal(), Long::sum);
+            }
+        }));
+        return totals;
+    }
+
+    /**
+     * Builds the counts at startup if the table is empty on any shard, for example on the first deployment with
+     * counters.
+     *
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileIfEmpty() {
+        boolean[] empty = new boolean[1];
+        this.shards.forEachShard(shard -> empty[0] |= this.readTransaction.execute(status -> this.countRepository.countRows() == 0));
+        if (empty[0]) {
+            this.reconcile();
+        }
+    }
+
+    private static void add(Map<CONCERNCountKey, Long> deltas, CONCERNStudentStatus concern, long delta) {
+        String institution = CONCERNInstitutions.current();
+        deltas.merge(new CONCERNCountKey(institution, CONCERNCountKey.studentScope(concern.studentName()), concern.status()), delta, Long::sum);
+        deltas.merge(new CONCERNCountKey(institution, CONCERNCountKey.ALL, concern.status()), delta, Long::sum);
+    }
+
+    private void apply(Map<CONCERNCountKey, Long> deltas) {
+        Map<String, Long> studentDeltas = new HashMap<>();
+        deltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                this.countRepository.adjust(key.institutionId(), key.scope(), key.status(), delta);
+                if (key.scope().startsWith(CONCERNCountKey.STUDENT_PREFIX)) {
+                    studentDeltas.merge(key.scope().substring(CONCERNCountKey.STUDENT_PREFIX.length()), delta, Long::sum);
+                }
+            }
+        });
+        // A change of status alone leaves the student's total as it was.
+        studentDeltas.values().removeIf(delta -> delta == 0);
+        if (!studentDeltas.isEmpty()) {
+            this.eventPublisher.publishEvent(CONCERNStudentCountsChangedEvent.of(CONCERNInstitutions.current(), studentDeltas));
+        }
+    }
+}
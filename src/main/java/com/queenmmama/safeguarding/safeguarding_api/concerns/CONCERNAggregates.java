@@ -0,0 +1,13 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.Map;
+
+/**
+ * The number of concerns per status, for one student or for all students.
+ *
+ * @param studentName the student counted, or {@code null} for all students
+ * @param byStatus the number of concerns with each status; statuses without concerns are omitted
+ * @param total the number of concerns across all statuses
+ */
+public record CONCERNAggregates(String studentName, Map<String, Long> byStatus, long total) {
+}
@@ -0,0 +1,103 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.TenantId;
+
+/**
+ * Entity representing a resolved safeguarding concern that has been moved out of the "concerns" table.
+ *
+ * <p>This class is mapped to the "concerns_archive" table, which has the same columns as "concerns" plus the
+ * time the concern was archived, and the same indexes, so filtered pages that include archived concerns are index
+ * range scans on both tables. {@link CONCERNArchiveService} moves resolved concerns here once they are old
+ * enough, so the "concerns" table and its indexes only hold the concerns that are still worked on.</p>
+ *
+ * <p>Archived concerns are read-only. They are read through {@link CONCERNService} as {@link CONCERN}s.</p>
+ */
+@Entity
+@Immutable
+@Table(name = "concerns_archive", indexes = {
+    @Index(name = "idx_concerns_archive_date_time_id", columnList = "dateTime, id"),
+    @Index(name = "idx_concerns_archive_student_name_date_time", columnList = "studentName, dateTime"),
+    @Index(name = "idx_concerns_archive_student_name_key_date_time", columnList = "studentNameKey, dateTime"),
+    @Index(name = "idx_concerns_archive_status_date_time", columnList = "status, dateTime"),
+    @Index(name = "idx_concerns_archive_reported_by_date_time", columnList = "reportedBy, dateTime"),
+    @Index(name = "idx_concerns_archive_institution_date_time_id", columnList = "institutionId, dateTime, id")
+})
+public class CONCERNArchive {
+
+    /**
+     * The concern's ID, unchanged by archiving.
+     */
+    @Id
+    private UUID id;
+
+    /**
+     * The institution the concern belongs to, unchanged by archiving.
+     */
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    @ColumnDefault("'" + CONCERNInstitutions.DEFAULT + "'")
+    private String institutionId;
+
+    private String studentName;
+
+    /**
+     * The student's name folded by {@link CONCERNStudentNames#normalize(String)}, copied from {@code concerns}.
+     */
+    private String studentNameKey;
+
+    private String reportedBy;
+
+    private String description;
+
+    private String status;
+
+    @Column(nullable = false)
+    private Instant dateTime;
+
+    /**
+     * The concern's version when it was archived.
+     */
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * When the concern was moved to the archive.
+     */
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    /**
+     * Required by JPA.
+     */
+    protected CONCERNArchive() {
+    }
+
+    /** @return the concern's unique ID */
+    public UUID getId() {
+        return this.id;
+    }
+
+    /** @return the time the concern was archived */
+    public Instant getArchivedAt() {
+        return this.archivedAt;
+    }
+
+    /**
+     * @return the archived concern as a detached {@link CONCERN}
+     */
+    public CONCERN toCONCERN() {
+        CONCERN concern = new CONCERN(this.id, this.studentName, this.reportedBy, this.description, this.status, this.dateTime);
+        concern.setVersion(this.version);
+        concern.setInstitutionId(this.institutionId);
+        return concern;
+    }
+}
@@ -0,0 +1,174 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository interface for archived concerns in the {@code concerns_archive} table.
+ *
+ * <p>Provides the same keyset page queries as {@link CONCERNRepository}, built from the same
+ * {@link CONCERNSpecifications}, so a page can be read from both tables and merged. Archived concerns are
+ * returned as {@link CONCERN}s.</p>
+ *
+ * @see CONCERNArchive
+ *
+ */
+public interface CONCERNArchiveRepository extends ListCrudRepository<CONCERNArchive, UUID>, JpaSpecificationExecutor<CONCERNArchive> {
+
+    /**
+     * Finds one page of archived concerns matching the given specification.
+     *
+     * @param spec the filter and keyset predicate to apply
+     * @param sort the page order
+     * @param limit the maximum number of concerns to return
+     * @return the matching concerns in the requested order
+     *
+     */
+
+    default List<CONCERN> findPage(Specification<CONCERNArchive> spec, Sort sort, int limit) {
+        return this.findBy(spec, query -> query.sortBy(sort).limit(limit).all()).stream().map(CONCERNArchive::toCONCERN).toList();
+    }
+
+    /**
+     * Finds one page of archived concern summaries matching the given specification.
+     *
+     * @param spec the filter and keyset predicate to apply
+     * @param sort the page order
+     * @param limit the maximum number of summaries to return
+     * @return the matching concern summaries in the requested order
+     *
+     */
+
+    default List<CONCERNSummary> findSummaryPage(Specification<CONCERNArchive> spec, Sort sort, int limit) {
+        return this.findBy(spec, query -> query.as(CONCERNSummary.class).sortBy(sort).limit(limit).all());
+    }
+
+    /**
+     * Finds one page of archived concern keys and versions matching the given specification.
+     *
+     * @param spec the filter and keyset predicate to apply
+     * @param sort the page order
+     * @param limit the maximum number of versions to return
+     * @return the matching concern keys and versions in the requested order
+     *
+     */
+
+    default List<CONCERNVersion> findVersionPage(Specification<CONCERNArchive> spec, Sort sort, int limit) {
+        return this.findBy(spec, query -> query.as(CONCERNVersion.class).sortBy(sort).limit(limit).all());
+    }
+
+    /**
+     * Streams every archived concern in ({@code dateTime}, {@code id}) order without materialising the full result.
+     *
+     * <p>Rows are fetched {@link CONCERNRepository#STREAM_FETCH_SIZE} at a time and loaded read-only. The stream
+     * must be consumed and closed inside a transaction.</p>
+     *
+     * @return a stream of all archived concerns, oldest first
+     *
+     */
+
+    @Query("select a from CONCERNArchive a order by a.dateTime asc, a.id asc")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + CONCERNRepository.STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CONCERNArchive> streamAll();
+
+    /**
+     * Reads only the version of an archived concern.
+     *
+     * @param id the ID of the concern
+     * @return the concern's version, or empty if it is not archived
+     *
+     */
+
+    @Query("select a.version from CONCERNArchive a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Reads which of the given IDs belong to archived concerns, and their institutions.
+     *
+     * @param ids the IDs to look for
+     * @return those of the IDs that are archived, with their institutions
+     *
+     */
+
+    @Query("select new com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNOwner(a.id, a.institutionId) from CONCERNArchive a "
+            + "where a.id in :ids")
+    List<CONCERNOwner> findArchived(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Finds student names archived before the folded key column existed, for backfilling it.
+     *
+     * @param limit the maximum number of names to return
+     * @return distinct student names of archived concerns without a key
+     *
+     */
+
+    @Query(nativeQuery = true, value = "select distinct student_name from concerns_archive "
+            + "where student_name_key is null and student_name is not null limit :limit")
+    List<String> findStudentNamesWithoutKey(@Param("limit") int limit);
+
+    /**
+     * Sets the folded key of every archived concern about a student that does not have one yet. The archive is
+     * immutable to Hibernate, so this is native SQL.
+     *
+     * @param studentName the student's name
+     * @param studentNameKey the name folded by {@link CONCERNStudentNames#normalize(String)}
+     * @return the number of archived concerns updated
+     *
+     */
+
+    @Modifying
+    @Query(nativeQuery = true, value = "update concerns_archive set student_name_key = :studentNameKey "
+            + "where student_name = :studentName and student_name_key is null")
+    int setStudentNameKey(@Param("studentName") String studentName, @Param("studentNameKey") String studentNameKey);
+
+    /**
+     * Stamps archived concerns saved without a report time with the given time. The archive is immutable to
+     * Hibernate, so this is native SQL.
+     *
+     * @param dateTime the time to record
+     * @return the number of archived concerns updated
+     *
+     */
+
+    @Modifying
+    @Query(nativeQuery = true, value = "update concerns_archive set date_time = :dateTime where date_time is null")
+    int fillMissingDateTimes(@Param("dateTime") Instant dateTime);
+
+    /**
+     * Copies concerns from {@code concerns} into the archive with a single {@code INSERT ... SELECT}, if they are
+     * still in the given status and older than the cut-off.
+     *
+     * @param ids the IDs of the concerns to copy
+     * @param status the status the concerns must still have
+     * @param before the time the concerns must have been reported before
+     * @param archivedAt the archive time to record
+     * @return the number of concerns copied
+     *
+     */
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into concerns_archive "
+            + "(id, institution_id, student_name, student_name_key, reported_by, description, status, date_time, version, archived_at) "
+            + "select id, institution_id, student_name, student_name_key, reported_by, description, status, date_time, version, :archivedAt "
+            + "from concerns "
+            + "where id in :ids and status = :status and date_time < :before")
+    int copyFromConcerns(@Param("ids") Collection<UUID> ids, @Param("status") String status, @Param("before") Instant before,
+            @Param("archivedAt") Instant archivedAt);
+}
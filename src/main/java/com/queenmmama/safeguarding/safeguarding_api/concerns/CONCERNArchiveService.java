@@ -0,0 +1,196 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves old resolved concerns from the {@code concerns} table to {@code concerns_archive}.
+ *
+ * <p>Almost every request touches concerns that are open or recently resolved, so keeping the rest out of
+ * {@code concerns} keeps that table and its indexes small enough to stay in the database's buffer pool. On a
+ * schedule ({@code safeguarding.concerns.archive.cron}) concerns with status {@value #RESOLVED} reported more than
+ * {@code resolved-age} ago are moved, {@code chunk-size} at a time. Each chunk is one short transaction with one
+ * {@code INSERT ... SELECT} and one {@code DELETE}, both restricted to rows that still qualify, so a concern that is
+ * reopened meanwhile stays where it is. Chunks are separated by {@code chunk-pause}.</p>
+ *
+ * <p>Archived concerns can still be read through {@link CONCERNService}. Each one moved publishes a
+ * {@link CONCERNChangedEvent.Type#ARCHIVED} event. The {@code concerns.table.rows} gauge reports the size of both
+ * tables as of the last run.</p>
+ *
+ * <p>Every institution's concerns are archived; with sharding, each shard is visited in turn.</p>
+ *
+ * <p>At startup, concerns saved before {@code date_time} was required, which would otherwise never be archived or
+ * reached by a page cursor, are stamped with the current time in both tables.</p>
+ *
+ */
+@Service
+public class CONCERNArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(CONCERNArchiveService.class);
+
+    /**
+     * The status of concerns that are archived.
+     */
+    public static final String RESOLVED = "Resolved";
+
+    private final CONCERNRepository concernRepository;
+    private final CONCERNArchiveRepository archiveRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final CONCERNShards shards;
+    private final CONCERNProperties.Archive settings;
+    private final AtomicLong hotRows = new AtomicLong();
+    private final AtomicLong archivedRows = new AtomicLong();
+    private final Counter moved;
+
+    /**
+     * Result of moving one chunk.
+     */
+    private record Chunk(int selected, int moved) {
+    }
+
+    /**
+     * Constructs a new {@code CONCERNArchiveService}.
+     *
+     * @param concernRepository the repository of current concerns
+     * @param archiveRepository the repository of archived concerns
+     * @param eventPublisher the publisher used to announce archived concerns
+     * @param transactionManager the transaction manager used to run each chunk in its own transaction
+     * @param shards the databases concerns are stored in, if there is more than one
+     * @param properties the configured age, chunk size and pause
+     * @param meterRegistry the registry the table sizes and moved count are published to
+     *
+     */
+
+    public CONCERNArchiveService(CONCERNRepository concernRepository, CONCERNArchiveRepository archiveRepository,
+            ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+            Optional<CONCERNShards> shards, CONCERNProperties properties, MeterRegistry meterRegistry) {
+        this.concernRepository = concernRepository;
+        this.archiveRepository = archiveRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.shards = shards.orElse(CONCERNShards.SINGLE);
+        this.settings = properties.archive();
+        Gauge.builder("concerns.table.rows", this.hotRows, AtomicLong::get)
+                .description("Rows in the concern tables as of the last archive run")
+                .tag("table", "concerns")
+                .register(meterRegistry);
+        Gauge.builder("concerns.table.rows", this.archivedRows, AtomicLong::get)
+                .description("Rows in the concern tables as of the last archive run")
+                .tag("table", "concerns_archive")
+                .register(meterRegistry);
+        this.moved = Counter.builder("concerns.archive.moved")
+                .description("Resolved concerns moved to the archive table")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Moves every resolved concern older than the configured age to the archive, one chunk per transaction.
+     *
+     * <p>A chunk that fails, for example because another node is archiving the same concerns, is rolled back
+     * and ends the run; the next run picks up where it stopped.</p>
+     *
+     * @return the number of concerns moved
+     *
+     */
+
+    @Scheduled(cron = "${safeguarding.concerns.archive.cron:0 15 * * * *}")
+    public int archiveResolved() {
+        long start = System.nanoTime();
+        Instant before = Instant.now().minus(this.settings.resolvedAge());
+        int[] total = new int[1];
+        this.shards.forEachShard(shard -> total[0] += this.archiveShard(shard, before));
+        this.refreshTableSizes();
+        log.info("Archived {} resolved concerns in {} ms", total[0], (System.nanoTime() - start) / 1_000_000);
+        return total[0];
+    }
+
+    /**
+     * Reads the size of both tables, summed over every shard, for the {@code concerns.table.rows} gauge.
+     *
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshTableSizes() {
+        long[] sizes = new long[2];
+        this.shards.forEachShard(shard -> {
+            sizes[0] += this.concernRepository.count();
+            sizes[1] += this.archiveRepository.count();
+        });
+        this.hotRows.set(sizes[0]);
+        this.archivedRows.set(sizes[1]);
+    }
+
+    /**
+     * Stamps concerns without a report time with the current time, on every shard, once the application is ready.
+     *
+     * @return the number of concerns stamped
+     *
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public int fillMissingDateTimes() {
+        Instant now = Instant.now();
+        int[] total = new int[1];
+        this.shards.forEachShard(shard -> total[0] += this.transaction.execute(status ->
+                this.concernRepository.fillMissingDateTimes(now) + this.archiveRepository.fillMissingDateTimes(now)));
+        if (total[0] > 0) {
+            log.info("Stamped {} concerns that had no report time with {}", total[0], now);
+        }
+        return total[0];
+    }
+
+    private int archiveShard(int shard, Instant before) {
+        int total = 0;
+        try {
+            while (true) {
+                Chunk chunk = this.transaction.execute(status -> this.moveChunk(before));
+                total += chunk.moved();
+                if (chunk.selected() < this.settings.chunkSize()) {
+                    break;
+                }
+                Thread.sleep(this.settings.chunkPause().toMillis());
+            }
+        } catch (DataAccessException | IllegalStateException e) {
+            log.warn("Archiving shard {} stopped after {} concerns; the rest will be moved on the next run", shard, total, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return total;
+    }
+
+    private Chunk moveChunk(Instant before) {
+        List<CONCERNOwner> candidates = this.concernRepository.findArchivable(RESOLVED, before, Limit.of(this.settings.chunkSize()));
+        if (candidates.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+        List<UUID> ids = candidates.stream().map(CONCERNOwner::id).toList();
+        int copied = this.archiveRepository.copyFromConcerns(ids, RESOLVED, before, Instant.now());
+        int deleted = this.concernRepository.deleteArchived(ids, RESOLVED, before);
+        if (copied != deleted) {
+            throw new IllegalStateException("Copied " + copied + " concerns to the archive but deleted " + deleted);
+        }
+        if (copied > 0) {
+            List<CONCERNOwner> archived = copied == ids.size() ? candidates : this.archiveRepository.findArchived(ids);
+            archived.forEach(concern -> this.eventPublisher.publishEvent(CONCERNChangedEvent.archived(concern.institutionId(), concern.id())));
+            this.moved.increment(copied);
+        }
+        return new Chunk(ids.size(), copied);
+    }
+}
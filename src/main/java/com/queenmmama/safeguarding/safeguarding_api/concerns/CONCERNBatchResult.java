@@ -0,0 +1,27 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk concern creation request.
+ *
+ * <p>{@code items} holds one entry per submitted concern, in submission order, so a client can match
+ * every error back to the record that caused it.</p>
+ *
+ * @param created the number of concerns saved
+ * @param failed the number of concerns rejected
+ * @param items the per-item outcomes
+ */
+public record CONCERNBatchResult(int created, int failed, List<Item> items) {
+
+    /**
+     * Outcome for a single submitted concern.
+     *
+     * @param index the position of the concern in the request body
+     * @param id the ID assigned to the saved concern, or {@code null} if it was rejected
+     * @param error the reason the concern was rejected, or {@code null} if it was saved
+     */
+    public record Item(int index, UUID id, String error) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.List;
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the {@value #CACHE_NAME} entity cache coherent across API nodes.
+ *
+ * <p>{@link CONCERNService} maintains the local cache itself through Spring's caching annotations. Once a
+ * change has been committed, this class passes the concern's ID to every {@link CONCERNCacheInvalidationHook}
+ * bean so that other nodes can be told, and offers {@link #evict(String, UUID)} for the receiving side.</p>
+ *
+ * <p>Entries are keyed by institution as well as ID (see {@link #key(UUID)}), so a concern cached for one
+ * institution is never served to another.</p>
+ *
+ * <p>The cache manager replaces the auto-configured one. Puts and evictions made inside a transaction only reach
+ * the cache once it commits, and not at all if it rolls back, so the cache never holds an uncommitted write.
+ * Concerns are cached as copies, so later changes to an entity a persistence context still manages do not leak
+ * into the cache.</p>
+ *
+ * <p>Cache names, size, TTL and statistics are configured through {@code spring.cache.cache-names} and
+ * {@code spring.cache.caffeine.spec}; hit, miss and eviction counts are published as {@code cache.*} metrics.</p>
+ *
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CONCERNCacheCoordinator {
+
+    /**
+     * Name of the cache holding CONCERN entities keyed by institution and ID.
+     */
+    public static final String CACHE_NAME = "concerns";
+
+    /**
+     * Cache key expression for methods with the concern's ID as the {@code id} parameter.
+     */
+    static final String KEY_OF_ID = "T(com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNCacheCoordinator).key(#id)";
+
+    /**
+     * Cache key expression for methods returning the concern.
+     */
+    static final String KEY_OF_RESULT = "T(com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNCacheCoordinator).key(#result.ID)";
+
+    private final CacheManager cacheManager;
+    private final List<CONCERNCacheInvalidationHook> hooks;
+
+    /**
+     * Constructs a new {@code CONCERNCacheCoordinator}.
+     *
+     * @param cacheManager the cache manager holding the {@value #CACHE_NAME} cache
+     * @param hooks the hooks to notify after each committed change; may be empty
+     *
+     */
+
+    public CONCERNCacheCoordinator(CacheManager cacheManager, List<CONCERNCacheInvalidationHook> hooks) {
+        this.cacheManager = cacheManager;
+        this.hooks = hooks;
+    }
+
+    /**
+     * Creates the application's cache manager: Caffeine caches that store copies of concerns, behind a proxy that
+     * defers puts and evictions until the current transaction commits.
+     *
+     * @param properties the {@code spring.cache.*} settings
+     * @return the cache manager
+     *
+     */
+
+    @Bean
+    static CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager caffeine = new CopyingCaffeineCacheManager();
+        if (!properties.getCacheNames().isEmpty()) {
+            caffeine.setCacheNames(properties.getCacheNames());
+        }
+        if (properties.getCaffeine().getSpec() != null) {
+            caffeine.setCacheSpecification(properties.getCaffeine().getSpec());
+        }
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+
+    /**
+     * Notifies the invalidation hooks once a change to a concern has been committed.
+     *
+     * @param event the change
+     *
+     */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCONCERNChanged(CONCERNChangedEvent event) {
+        for (CONCERNCacheInvalidationHook hook : this.hooks) {
+            hook.invalidated(event.institutionId(), event.id());
+        }
+    }
+
+    /**
+     * Evicts a concern of the current institution from this node's cache.
+     *
+     * @param id the ID of the concern to evict
+     *
+     */
+
+    public void evict(UUID id) {
+        this.evict(CONCERNInstitutions.current(), id);
+    }
+
+    /**
+     * Evicts a concern from this node's cache, typically because another node reported a change to it.
+     *
+     * @param institutionId the institution the concern belongs to
+     * @param id the ID of the concern to evict
+     *
+     */
+
+    public void evict(String institutionId, UUID id) {
+        Cache cache = this.cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.evict(new Key(institutionId, id));
+        }
+    }
+
+    /**
+     * @param id a concern's ID
+     * @return the key the concern is cached under for the current institution
+     */
+    public static Key key(UUID id) {
+        return new Key(CONCERNInstitutions.current(), id);
+    }
+
+    /**
+     * Key of one cached concern.
+     *
+     * @param institutionId the institution the concern was read for
+     * @param id the concern's ID
+     */
+    public record Key(String institutionId, UUID id) {
+    }
+
+    /**
+     * Caffeine cache manager whose caches store a {@link CONCERN#copy() copy} of each concern put in them.
+     */
+    private static final class CopyingCaffeineCacheManager extends CaffeineCacheManager {
+
+        @Override
+        protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            return new CaffeineCache(name, cache, this.isAllowNullValues()) {
+                @Override
+                protected Object toStoreValue(Object userValue) {
+                    return super.toStoreValue(userValue instanceof CONCERN concern ? concern.copy() : userValue);
+                }
+            };
+        }
+    }
+}
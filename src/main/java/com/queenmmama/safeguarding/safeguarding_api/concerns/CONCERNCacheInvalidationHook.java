@@ -0,0 +1,34 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.UUID;
+
+/**
+ * Extension point notified after a concern has changed on this node, so that other API nodes can evict
+ * their cached copy.
+ *
+ * <p>Register an implementation as a Spring bean, for example one that publishes the ID to a message
+ * broker. Receivers on the other nodes should call {@link CONCERNCacheCoordinator#evict(String, UUID)}.</p>
+ *
+ */
+@FunctionalInterface
+public interface CONCERNCacheInvalidationHook {
+
+    /**
+     * Called once the change to the concern has been committed.
+     *
+     * @param id the ID of the concern whose cached copy is now stale elsewhere
+     */
+    void invalidated(UUID id);
+
+    /**
+     * Called once the change to the concern has been committed, with the institution the concern belongs to.
+     *
+     * <p>Hooks that tell other nodes should pass the institution on; by default only the ID is reported.</p>
+     *
+     * @param institutionId the institution the concern belongs to
+     * @param id the ID of the concern whose cached copy is now stale elsewhere
+     */
+    default void invalidated(String institutionId, UUID id) {
+        this.invalidated(id);
+    }
+}
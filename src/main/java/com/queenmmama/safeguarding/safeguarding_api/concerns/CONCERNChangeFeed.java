@@ -0,0 +1,278 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes committed changes to concerns to Server-Sent Events subscribers.
+ *
+ * <p>Every {@link CONCERNChangedEvent} is encoded once, after its transaction commits, into a ring buffer of the
+ * last {@code safeguarding.concerns.feed.buffer-size} changes under a monotonically increasing sequence number.
+ * Each subscriber has its own virtual thread that sends whatever lies between its position and the head of the
+ * buffer, so one change reaches any number of subscribers without a database query or a second encoding, and a
+ * slow subscriber only delays itself.</p>
+ *
+ * <p>Event IDs have the form {@code <epoch>-<sequence>}, where the epoch identifies this run of the application.
+ * A client that reconnects with {@code Last-Event-ID} receives everything after that event if it is still
+ * buffered. Otherwise, including after a restart, it receives a {@value #RESYNC} event and should reload the
+ * concerns it shows; the feed then continues from the current head.</p>
+ *
+ * <p>Subscribers only receive changes to concerns of the institution they subscribed as; the others are skipped.</p>
+ *
+ */
+@Service
+public class CONCERNChangeFeed implements DisposableBean {
+
+    /**
+     * Name of the event telling a subscriber that it missed changes and must reload.
+     */
+    public static final String RESYNC = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final long heartbeatNanos;
+    private final long timeoutMillis;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicReferenceArray<Frame> ring;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = this.appendLock.newCondition();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Counter resyncs;
+
+    /**
+     * Sequence number of the newest buffered change; 0 before the first change.
+     */
+    private volatile long head;
+
+    /**
+     * An encoded event, the institution it concerns and the sequence number it was stored under.
+     */
+    private record Frame(long sequence, String institutionId, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+    }
+
+    /**
+     * Constructs a new {@code CONCERNChangeFeed}.
+     *
+     * @param objectMapper the mapper used to encode each change once
+     * @param properties the buffer size, heartbeat interval and subscription timeout
+     * @param meterRegistry the registry the subscriber count and resync count are published to
+     *
+     */
+
+    public CONCERNChangeFeed(ObjectMapper objectMapper, CONCERNProperties properties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.capacity = properties.feed().bufferSize();
+        this.heartbeatNanos = properties.feed().heartbeat().toNanos();
+        this.timeoutMillis = properties.feed().timeout().toMillis();
+        this.ring = new AtomicReferenceArray<>(this.capacity);
+        Gauge.builder("concerns.feed.subscribers", this.subscriptions, Set::size)
+                .description("Open change feed subscriptions")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("concerns.feed.resyncs")
+                .description("Change feed subscribers told to reload because the changes they missed were no longer buffered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers a committed change and wakes the subscribers.
+     *
+     * @param event the change
+     *
+     */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCONCERNChanged(CONCERNChangedEvent event) {
+        String data;
+        try {
+            data = this.objectMapper.writeValueAsString(CONCERNFeedEvent.of(event));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        String name = event.type().name().toLowerCase(Locale.ROOT);
+        this.appendLock.lock();
+        try {
+            long sequence = this.head + 1;
+            this.ring.set(this.slot(sequence), new Frame(sequence, event.institutionId(),
+                    SseEmitter.event().id(this.eventId(sequence)).name(name).data(data, MediaType.APPLICATION_JSON).build()));
+            this.head = sequence;
+            this.appended.signalAll();
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    /**
+     * Opens a subscription to changes to the current institution's concerns.
+     *
+     * @param lastEventId the ID of the last event the client received, or {@code null} for only new changes
+     * @return the emitter to return from the controller
+     *
+     */
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(this.timeoutMillis);
+        long current = this.head;
+        long position = lastEventId == null ? current : this.sequenceOf(lastEventId);
+        boolean resync = position < 0 || position > current || position < current - this.capacity;
+        Subscription subscription = new Subscription(emitter, CONCERNInstitutions.current());
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscription.close());
+        this.subscriptions.add(subscription);
+        subscription.thread = Thread.ofVirtual()
+                .name("concern-feed-" + Integer.toHexString(System.identityHashCode(subscription)))
+                .start(() -> this.stream(subscription, resync ? current : position, resync));
+        return emitter;
+    }
+
+    /**
+     * @return the number of open subscriptions
+     *
+     */
+
+    public int getSubscriberCount() {
+        return this.subscriptions.size();
+    }
+
+    /**
+     * Sends buffered changes to one subscriber until it disconnects.
+     */
+    private void stream(Subscription subscription, long position, boolean resync) {
+        try {
+            if (resync) {
+                this.resync(subscription, position);
+            } else {
+                subscription.emitter.send(SseEmitter.event().comment("subscribed"));
+            }
+            while (subscription.open) {
+                long target = this.awaitAfter(position);
+                if (target == position) {
+                    subscription.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                for (long sequence = position + 1; sequence <= target; sequence++) {
+                    Frame frame = this.ring.get(this.slot(sequence));
+                    if (frame == null || frame.sequence() != sequence) {
+                        sequence = target = this.head;
+                        this.resync(subscription, target);
+                    } else if (frame.institutionId().equals(subscription.institutionId)) {
+                        subscription.emitter.send(frame.event());
+                    }
+                }
+                position = target;
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscription.emitter.completeWithError(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.close();
+        }
+    }
+
+    private void resync(Subscription subscription, long position) throws IOException {
+        this.resyncs.increment();
+        subscription.emitter.send(SseEmitter.event().id(this.eventId(position)).name(RESYNC)
+                .data(Map.of("reason", "missed changes are no longer buffered"), MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * Waits until a change after the given position is buffered, or the heartbeat interval passes.
+     *
+     * @return the new head, equal to {@code position} if nothing was buffered in time
+     */
+    private long awaitAfter(long position) throws InterruptedException {
+        if (this.head != position) {
+            return this.head;
+        }
+        this.appendLock.lock();
+        try {
+            long nanos = this.heartbeatNanos;
+            while (this.head == position && nanos > 0) {
+                nanos = this.appended.awaitNanos(nanos);
+            }
+            return this.head;
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % this.capacity);
+    }
+
+    private String eventId(long sequence) {
+        return this.epoch + "-" + sequence;
+    }
+
+    /**
+     * @return the sequence number of an event ID from this run, or -1 if it is malformed or from an earlier run
+     */
+    private long sequenceOf(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(this.epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Completes every open subscription so clients reconnect to another node.
+     *
+     */
+
+    @Override
+    public void destroy() {
+        for (Subscription subscription : this.subscriptions) {
+            subscription.emitter.complete();
+            subscription.close();
+        }
+    }
+
+    /**
+     * One connected client.
+     */
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final String institutionId;
+        private volatile boolean open = true;
+        private volatile Thread thread;
+
+        Subscription(SseEmitter emitter, String institutionId) {
+            this.emitter = emitter;
+            this.institutionId = institutionId;
+        }
+
+        void close() {
+            this.open = false;
+            CONCERNChangeFeed.this.subscriptions.remove(this);
+            Thread streaming = this.thread;
+            if (streaming != null && streaming != Thread.currentThread()) {
+                streaming.interrupt();
+            }
+        }
+    }
+}
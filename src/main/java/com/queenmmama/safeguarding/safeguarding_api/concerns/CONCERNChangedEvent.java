@@ -0,0 +1,75 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.UUID;
+
+/**
+ * Application event published by {@link CONCERNService} whenever a concern is created, updated or deleted, and
+ * by {@link CONCERNArchiveService} when a concern is moved to the archive.
+ *
+ * <p>Components that keep derived state about concerns (such as the entity cache) listen for this event
+ * instead of being called directly by the service.</p>
+ *
+ * <p>Events published by {@link CONCERNService} carry the institution it was working on; listeners that keep state
+ * per institution, or pass events on to clients, must not mix them up.</p>
+ *
+ * @param type what happened to the concern
+ * @param institutionId the institution the concern belongs to
+ * @param id the ID of the concern that changed
+ * @param concern the concern as saved, or {@code null} if it was deleted, archived or patched
+ * @param patch the fields a patch changed, or {@code null} unless the concern was patched
+ */
+public record CONCERNChangedEvent(Type type, String institutionId, UUID id, CONCERN concern, CONCERNPatch patch) {
+
+    /**
+     * Creates an event for a concern of the current institution that was created or updated.
+     *
+     * @param type {@link Type#CREATED} or {@link Type#UPDATED}
+     * @param concern the concern as saved
+     * @return the event
+     */
+    public static CONCERNChangedEvent saved(Type type, CONCERN concern) {
+        return new CONCERNChangedEvent(type, CONCERNInstitutions.current(), concern.getID(), concern, null);
+    }
+
+    /**
+     * Creates an event for a concern of the current institution that was partially updated without being loaded.
+     *
+     * @param id the ID of the patched concern
+     * @param patch the fields that were changed
+     * @return the event
+     */
+    public static CONCERNChangedEvent patched(UUID id, CONCERNPatch patch) {
+        return new CONCERNChangedEvent(Type.UPDATED, CONCERNInstitutions.current(), id, null, patch);
+    }
+
+    /**
+     * Creates an event for a concern of the current institution that was deleted.
+     *
+     * @param id the ID of the deleted concern
+     * @return the event
+     */
+    public static CONCERNChangedEvent deleted(UUID id) {
+        return new CONCERNChangedEvent(Type.DELETED, CONCERNInstitutions.current(), id, null, null);
+    }
+
+    /**
+     * Creates an event for a concern that was moved to the archive, where it can still be read but not changed.
+     *
+     * @param institutionId the institution the concern belongs to
+     * @param id the ID of the archived concern
+     * @return the event
+     */
+    public static CONCERNChangedEvent archived(String institutionId, UUID id) {
+        return new CONCERNChangedEvent(Type.ARCHIVED, institutionId, id, null, null);
+    }
+
+    /**
+     * The kind of change.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        ARCHIVED
+    }
+}
@@ -1,19 +1,30 @@
 package com.queenmmama.safeguarding.safeguarding_api.concerns;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import java.net.URI;
+import java.time.Instant;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.UUID;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -23,56 +34,253 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
  * 
  * <p>Supports the following operations:</p>
  * <ul>
- *   <li>Get all concerns or filter concerns by student name</li>
- *   <li>Get a specific concern by ID</li>
+ *   <li>Get concerns one keyset page at a time, filtered by student name, status, reporter or date range</li>
+ *   <li>Get a specific concern by ID, including archived concerns</li>
+ *   <li>Export every concern as NDJSON or CSV</li>
+ *   <li>Follow changes to concerns as Server-Sent Events</li>
+ *   <li>Search concern descriptions by keyword</li>
+ *   <li>Count concerns per status, for one student or for all students</li>
+ *   <li>Suggest student names as they are typed</li>
  *   <li>Create a new concern</li>
+ *   <li>Create many concerns in one request</li>
  *   <li>Update an existing concern</li>
+ *   <li>Change some fields of a concern with a JSON merge patch</li>
  *   <li>Delete a concern</li>
  * </ul>
+ * 
+ * <p>Single concerns and pages carry strong ETags derived from the concerns' versions (see {@link CONCERNETags}).
+ * A GET with a matching {@code If-None-Match} is answered with 304 after reading versions only, and writes accept
+ * {@code If-Match} to reject changes based on a stale copy with 412.</p>
  */
 @RestController
 @RequestMapping({"/api/concerns"})
 
 public class CONCERNController {
     private final CONCERNService concernService;
+    private final CONCERNExportService concernExportService;
+    private final CONCERNSearchService concernSearchService;
+    private final CONCERNAggregateService concernAggregateService;
+    private final CONCERNChangeFeed concernChangeFeed;
+    private final Optional<CONCERNIngestService> concernIngestService;
+    private final CONCERNStudentIndex concernStudentIndex;
 
     /**
      * Constructs a new CONCERNController with the specified CONCERNService.
      * 
      * @param concernService the service used to handle concern operations
+     * @param concernExportService the service used to stream concern exports
+     * @param concernSearchService the service used to search concern descriptions
+     * @param concernAggregateService the service used to read the per-status counts
+     * @param concernChangeFeed the feed of committed changes
+     * @param concernIngestService the write-behind ingestion service, present only when it is enabled
+     * @param concernStudentIndex the index used to suggest student names
      */
 
-    public CONCERNController(CONCERNService concernService) {
+    public CONCERNController(CONCERNService concernService, CONCERNExportService concernExportService,
+            CONCERNSearchService concernSearchService, CONCERNAggregateService concernAggregateService,
+            CONCERNChangeFeed concernChangeFeed, Optional<CONCERNIngestService> concernIngestService,
+            CONCERNStudentIndex concernStudentIndex) {
         this.concernService = concernService;
+        this.concernExportService = concernExportService;
+        this.concernSearchService = concernSearchService;
+        this.concernAggregateService = concernAggregateService;
+        this.concernChangeFeed = concernChangeFeed;
+        this.concernIngestService = concernIngestService;
+        this.concernStudentIndex = concernStudentIndex;
     }
     
     /**
-     * Retrieves a list of all concerns or filters concerns by student name if provided.
+     * Retrieves one page of concerns, optionally filtered by student name, status, reporter and date range.
      * @param studentName (optional) the name of the student to filter concerns
-     * @return a list of CONCERN (all concerns or filtered by student name)
-     * SpringDataJPA query method findByStudentName
+     * @param status (optional) the status to filter concerns, e.g. "Open"
+     * @param reportedBy (optional) the reporter to filter concerns
+     * @param from (optional) only concerns reported at or after this ISO-8601 instant
+     * @param to (optional) only concerns reported before this ISO-8601 instant
+     * @param cursor (optional) the opaque cursor returned with a previous page
+     * @param size (optional) the number of concerns per page, capped at the configured maximum
+     * @param view (optional) "full" (default) for every column, or "summary" for only id, studentName, status, dateTime and version
+     * @param includeArchived (optional) whether to include resolved concerns moved to the archive; false by default
+     * @param ifNoneMatch (optional) the ETag of the client's copy of this page
+     * @return a CONCERNPage of matching concerns with its ETag, a 304 Not Modified status if the client's copy is current,
+     *         or a 400 Bad Request status if the cursor, size, range or view is invalid
+     * SpringDataJPA Specifications built by CONCERNSpecifications
      */
     
     @GetMapping
-    @Operation(summary = "Get all concerns or filter by student name", description = "Retrieves all concerns or filters concerns by the specified student name if provided.")   
-    public List<CONCERN> getCONCERNs(@RequestParam(required = false) String studentName) {
-        return studentName != null && !studentName.isBlank() ? this.concernService.getCONCERNsByStudentName(studentName) : this.concernService.getAllCONCERNs();
+    @Operation(summary = "Get a page of concerns, optionally filtered", description = "Retrieves concerns one keyset page at a time ordered by date and ID, optionally filtered by student name, status, reporter and date range. Use view=summary to omit the description and includeArchived=true to include archived concerns.")   
+    public ResponseEntity<CONCERNPage<?>> getCONCERNs(@RequestParam(required = false) String studentName,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String reportedBy,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            CONCERNFilter filter = new CONCERNFilter(studentName, status, reportedBy, from, to, includeArchived);
+            CONCERNView pageView = CONCERNView.from(view);
+            if (ifNoneMatch != null) {
+                String current = CONCERNETags.ofPage(pageView, this.concernService.getCONCERNVersionPage(filter, cursor, size),
+                        CONCERNVersion::id, CONCERNVersion::version);
+                if (CONCERNETags.matches(ifNoneMatch, current)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+                }
+            }
+            if (pageView == CONCERNView.SUMMARY) {
+                CONCERNPage<CONCERNSummary> page = this.concernService.getCONCERNSummaryPage(filter, cursor, size);
+                return ResponseEntity.ok().eTag(CONCERNETags.ofPage(pageView, page, CONCERNSummary::id, CONCERNSummary::version)).body(page);
+            }
+            CONCERNPage<CONCERN> page = this.concernService.getCONCERNPage(filter, cursor, size);
+            return ResponseEntity.ok().eTag(CONCERNETags.ofPage(pageView, page, CONCERN::getID, CONCERN::getVersion)).body(page);
+        } catch (IllegalArgumentException var11) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Streams every concern as a downloadable file, oldest first.
+     * 
+     * <p>Rows are written as they are read from the database, so the response starts immediately and
+     * server memory use does not depend on how many concerns exist.</p>
+     * 
+     * @param format (optional) "ndjson" (default) or "csv"
+     * @param includeArchived (optional) whether to include resolved concerns moved to the archive; false by default
+     * @return a ResponseEntity streaming the export, or a 400 Bad Request status if the format is not supported
+     * 
+     */
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all concerns", description = "Streams every concern as newline-delimited JSON or CSV. Use includeArchived=true to include archived concerns.")
+    public ResponseEntity<StreamingResponseBody> exportCONCERNs(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        CONCERNExportFormat exportFormat;
+        try {
+            exportFormat = CONCERNExportFormat.from(format);
+        } catch (IllegalArgumentException var3) {
+            return ResponseEntity.badRequest().build();
+        }
+        // The body is written on another thread, which must work on the same institution.
+        String institution = CONCERNInstitutions.current();
+        StreamingResponseBody body = out -> {
+            try (CONCERNInstitutions.Binding binding = CONCERNInstitutions.bind(institution)) {
+                this.concernExportService.exportCONCERNs(exportFormat, includeArchived, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"concerns." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Streams committed changes to concerns as Server-Sent Events, for dashboards that would otherwise poll.
+     * 
+     * <p>Each event is named "created", "updated" or "deleted" and carries a {@link CONCERNFeedEvent}. Browsers
+     * reconnect with {@code Last-Event-ID} automatically and receive the changes they missed; if those are no
+     * longer buffered a "resync" event tells the client to reload.</p>
+     * 
+     * @param lastEventId (optional) the ID of the last event the client received
+     * @return an SseEmitter that stays open until the client disconnects or the subscription times out
+     * 
+     */
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow changes to concerns", description = "Server-Sent Events stream of created, updated and deleted concerns, resumable with Last-Event-ID.")
+    public SseEmitter streamCONCERNChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return this.concernChangeFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * Searches concern descriptions by keyword, most relevant first.
+     * 
+     * <p>While the search index is still being rebuilt after startup the response carries
+     * {@code X-Search-Index-Complete: false} and may miss some concerns.</p>
+     * 
+     * @param q the words to search for; each must match a description word exactly or as a prefix
+     * @param size (optional) the maximum number of results, capped at the configured maximum
+     * @return a ResponseEntity containing the matching concerns and their scores, or a 400 Bad Request status if the query is empty
+     * 
+     */
+
+    @GetMapping("/search")
+    @Operation(summary = "Search concerns", description = "Full-text search over concern descriptions, ranked by relevance, with prefix matching.")
+    public ResponseEntity<List<CONCERNSearchHit>> searchCONCERNs(@RequestParam String q, @RequestParam(defaultValue = "20") int size) {
+        try {
+            List<CONCERNSearchHit> hits = this.concernSearchService.search(q, size);
+            return ResponseEntity.ok()
+                    .header("X-Search-Index-Complete", String.valueOf(this.concernSearchService.isReady()))
+                    .body(hits);
+        } catch (IllegalArgumentException var4) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Counts concerns per status, for the overview screens.
+     * 
+     * <p>The counts are maintained as concerns are written, so this reads one row per status however many
+     * concerns exist.</p>
+     * 
+     * @param studentName (optional) the student to count; all students if omitted
+     * @return a ResponseEntity containing the number of concerns with each status and their total
+     * 
+     */
+
+    @GetMapping("/aggregates")
+    @Operation(summary = "Count concerns per status", description = "Returns the number of concerns with each status, for one student or for all students.")
+    public ResponseEntity<CONCERNAggregates> getCONCERNAggregates(@RequestParam(required = false) String studentName) {
+        return ResponseEntity.ok(this.concernAggregateService.getAggregates(studentName));
+    }
+
+    /**
+     * Suggests students whose name has a word starting with what has been typed, for search boxes.
+     * 
+     * <p>Suggestions are served from memory without touching the database, and ignore case, accents and extra spaces.</p>
+     * 
+     * @param prefix the start of a word in the student's name
+     * @param size (optional) the maximum number of students, capped at the configured maximum
+     * @return a ResponseEntity containing the matching student names and their number of concerns, or a 400 Bad Request
+     *         status if the prefix is blank or the size is not positive
+     * 
+     */
+
+    @GetMapping("/students")
+    @Operation(summary = "Suggest student names", description = "Returns students with a word in their name starting with the prefix, ignoring case and accents, with their number of concerns.")
+    public ResponseEntity<List<CONCERNStudentMatch>> suggestStudents(@RequestParam String prefix,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(this.concernStudentIndex.suggest(prefix, size));
+        } catch (IllegalArgumentException var3) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
      * Retrieves a specific concern by its unique ID.
      * 
      * @param id the UUID of the concern to retrieve
-     * @return a ResponseEntity containing the CONCERN if found, or a 404 Not Found status if not found
+     * @param ifNoneMatch (optional) the ETag of the client's copy of the concern
+     * @return a ResponseEntity containing the CONCERN and its ETag if found, a 304 Not Modified status if the client's copy
+     *         is current, or a 404 Not Found status if not found
      * @throws NoSuchElementException if no concern with the specified ID exists
      * 
      */
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a concern by ID", description = "Retrieves the concern with the specified ID.")
-    public ResponseEntity<CONCERN> getCONCERN(@PathVariable UUID id) {
+    public ResponseEntity<CONCERN> getCONCERN(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            return ResponseEntity.ok(this.concernService.getCONCERN(id));
+            if (ifNoneMatch != null) {
+                String current = CONCERNETags.of(this.concernService.getCONCERNVersion(id));
+                if (CONCERNETags.matches(ifNoneMatch, current)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+                }
+            }
+            CONCERN concern = this.concernService.getCONCERN(id);
+            return ResponseEntity.ok().eTag(CONCERNETags.of(concern.getVersion())).body(concern);
         } catch (NoSuchElementException var3) {
             return ResponseEntity.notFound().build();
         }   
@@ -81,8 +289,14 @@ public class CONCERNController {
     /**
      * Creates a new safeguarding concern with the provided details.
      * 
+     * <p>IDs are always assigned by the server; any ID in the body is ignored. With write-behind ingestion enabled
+     * the concern is accepted once it is synced to the local ingest log and stored shortly afterwards, so the
+     * response is 202 Accepted with the assigned ID and the concern's location instead of 201 Created.</p>
+     * 
      * @param concern the CONCERN object containing the details of the concern to create
-     * @return a ResponseEntity containing the created CONCERN and a 201 Created status
+     * @return a ResponseEntity containing the created CONCERN and a 201 Created status, the accepted CONCERN and a
+     *         202 Accepted status, a 400 Bad Request status if the details are invalid, or a 503 Service Unavailable
+     *         status if the ingest log cannot accept it
      * @throws IllegalArgumentException if the provided concern details are invalid
      * 
      */
@@ -91,12 +305,48 @@ public class CONCERNController {
     @Operation(summary = "Create a new concern", description = "Creates a new safeguarding concern with the provided details.") 
     @ApiResponses({
         @ApiResponse(responseCode = "201", description = "Concern created successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid concern details provided")     
+        @ApiResponse(responseCode = "202", description = "Concern logged durably and will be stored shortly (write-behind ingestion)"),
+        @ApiResponse(responseCode = "400", description = "Invalid concern details provided"),
+        @ApiResponse(responseCode = "503", description = "Ingest log cannot accept concerns")
     })
     public ResponseEntity<CONCERN> createCONCERN(@RequestBody CONCERN concern) {
         try {
+            if (concern != null) {
+                concern.id = null;
+            }
+            if (this.concernIngestService.isPresent()) {
+                CONCERN accepted = this.concernIngestService.get().ingest(concern);
+                return ResponseEntity.accepted().location(URI.create("/api/concerns/" + accepted.getID())).body(accepted);
+            }
             CONCERN Saved = this.concernService.createCONCERN(concern);
-            return ResponseEntity.status(HttpStatus.CREATED).body(Saved);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(CONCERNETags.of(Saved.getVersion())).body(Saved);
+        } catch (IllegalArgumentException var3) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException var4) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Creates many safeguarding concerns in one request, for example when importing historic records.
+     * 
+     * @param concerns the CONCERN objects to create
+     * @return a ResponseEntity containing the outcome of every submitted concern, or a 400 Bad Request status if the batch is empty or too large
+     * 
+     */
+
+    @PostMapping("/batch")
+    @Operation(summary = "Create many concerns", description = "Creates many safeguarding concerns in JDBC batches and reports validation errors for each item.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Batch processed; see each item for its outcome"),
+        @ApiResponse(responseCode = "400", description = "Batch is empty or larger than the configured maximum")
+    })
+    public ResponseEntity<CONCERNBatchResult> createCONCERNs(@RequestBody List<CONCERN> concerns) {
+        try {
+            if (concerns != null) {
+                concerns.stream().filter(concern -> concern != null).forEach(concern -> concern.id = null);
+            }
+            return ResponseEntity.ok(this.concernService.createCONCERNs(concerns));
         } catch (IllegalArgumentException var3) {
             return ResponseEntity.badRequest().build();
         }
@@ -107,39 +357,96 @@ public class CONCERNController {
      * 
      * @param id the UUID of the concern to update
      * @param updatedCONCERN the updated CONCERN details
-     * @return a ResponseEntity containing the updated CONCERN if successful, or a 404 Not Found status if the concern does not exist
+     * @param ifMatch (optional) the ETag of the copy the update is based on
+     * @return a ResponseEntity containing the updated CONCERN and its ETag if successful, a 400 Bad Request status if
+     *         If-Match is malformed, a 404 Not Found status if the concern does not exist, or a 412 Precondition Failed
+     *         (If-Match) or 409 Conflict (body version) status if the copy is stale
      * @throws NoSuchElementException if no concern with the specified ID exists
      * 
      */
 
     @PutMapping({"/{id}"})
     @Operation(summary = "Update a concern by ID", description = "Updates the concern with the specified ID using the provided details.")   
-   public ResponseEntity<CONCERN> updateCONCERN(@PathVariable UUID id, @RequestBody CONCERN updatedCONCERN) {
+   public ResponseEntity<CONCERN> updateCONCERN(@PathVariable UUID id, @RequestBody CONCERN updatedCONCERN,
+         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
       try {
+         Long expectedVersion = CONCERNETags.version(ifMatch);
+         if (expectedVersion != null) {
+            updatedCONCERN.setVersion(expectedVersion);
+         }
          CONCERN updated = this.concernService.updateCONCERN(id, updatedCONCERN);
-         return ResponseEntity.ok(updated);
-      } catch (NoSuchElementException var4) {
+         return ResponseEntity.ok().eTag(CONCERNETags.of(updated.getVersion())).body(updated);
+      } catch (IllegalArgumentException var5) {
+         return ResponseEntity.badRequest().build();
+      } catch (NoSuchElementException var6) {
          return ResponseEntity.notFound().build();
+      } catch (OptimisticLockingFailureException var7) {
+         return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
       }
    }
 
+    /**
+     * Changes only the fields supplied in a JSON merge patch (RFC 7396), for example just the status.
+     * 
+     * <p>The body must include the {@code version} the client last read, or the request must send its ETag in
+     * {@code If-Match}. The new ETag is returned so that further patches can be sent without reading the concern again.</p>
+     * 
+     * @param id the UUID of the concern to patch
+     * @param patch the fields to change and the version they were based on
+     * @param ifMatch (optional) the ETag of the copy the patch is based on
+     * @return a ResponseEntity with a 204 No Content status if the patch was applied, a 400 Bad Request status if the
+     *         patch is invalid, a 404 Not Found status if the concern does not exist, or a 412 Precondition Failed
+     *         (If-Match) or 409 Conflict (body version) status if the version is stale
+     * 
+     */
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Patch a concern by ID", description = "Changes only the supplied fields of the concern with a single versioned update.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Patch applied; the new version is in the ETag header"),
+        @ApiResponse(responseCode = "400", description = "Invalid patch or missing version"),
+        @ApiResponse(responseCode = "404", description = "Concern not found"),
+        @ApiResponse(responseCode = "409", description = "Concern was changed since the version in the body"),
+        @ApiResponse(responseCode = "412", description = "Concern was changed since the version in If-Match")
+    })
+    public ResponseEntity<Void> patchCONCERN(@PathVariable UUID id, @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            long version = this.concernService.patchCONCERN(id, CONCERNPatch.from(patch, CONCERNETags.version(ifMatch)));
+            return ResponseEntity.noContent().eTag(CONCERNETags.of(version)).build();
+        } catch (IllegalArgumentException var5) {
+            return ResponseEntity.badRequest().build();
+        } catch (NoSuchElementException var6) {
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException var7) {
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
+        }
+    }
+
    /**
     * Deletes a safeguarding concern identified by its ID.
 
     * @param id the UUID of the concern to delete
-    * @return a ResponseEntity with a 204 No Content status if deletion is successful, or a 404 Not Found status if the concern does not exist
+    * @param ifMatch (optional) the ETag of the copy the deletion is based on
+    * @return a ResponseEntity with a 204 No Content status if deletion is successful, a 400 Bad Request status if If-Match is malformed,
+    *         a 404 Not Found status if the concern does not exist, or a 412 Precondition Failed status if the copy is stale
     * @throws NoSuchElementException if no concern with the specified ID exists
 
     */
 
     @DeleteMapping({"/{id}"})
     @Operation(summary = "Delete a concern by ID", description = "Deletes the concern with the specified ID.")
-     public ResponseEntity<Void> deleteCONCERN(@PathVariable UUID id) {
+     public ResponseEntity<Void> deleteCONCERN(@PathVariable UUID id,
+           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
       try {
-         this.concernService.deleteCONCERN(id);
+         this.concernService.deleteCONCERN(id, CONCERNETags.version(ifMatch));
          return ResponseEntity.noContent().build();
-      } catch (NoSuchElementException var3) {
+      } catch (IllegalArgumentException var4) {
+         return ResponseEntity.badRequest().build();
+      } catch (NoSuchElementException var5) {
          return ResponseEntity.notFound().build();
+      } catch (OptimisticLockingFailureException var6) {
+         return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
       }
     }
 }
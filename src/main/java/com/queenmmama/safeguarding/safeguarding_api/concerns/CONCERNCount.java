@@ -0,0 +1,57 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * Entity representing the number of concerns with one status, for one student or for all students.
+ *
+ * <p>Rows of the {@code concern_counts} table are adjusted by {@link CONCERNAggregateService} in the same
+ * transaction as the concern writes they reflect, so the overview screens read a handful of rows instead of
+ * counting the {@code concerns} table.</p>
+ *
+ */
+@Entity
+@Table(name = "concern_counts")
+public class CONCERNCount {
+
+    /**
+     * The scope and status being counted.
+     */
+    @EmbeddedId
+    public CONCERNCountKey key;
+
+    /**
+     * The number of concerns in the scope with the status.
+     */
+    public long total;
+
+    /**
+     * Default no args constructor.
+     * Required by JPA.
+     */
+    public CONCERNCount() {
+    }
+
+    /**
+     * Constructs a new CONCERNCount with the specified key and total.
+     *
+     * @param key the scope and status being counted
+     * @param total the number of concerns in the scope with the status
+     */
+    public CONCERNCount(CONCERNCountKey key, long total) {
+        this.key = key;
+        this.total = total;
+    }
+
+    /** @return the scope and status being counted */
+    public CONCERNCountKey getKey() {
+        return this.key;
+    }
+
+    /** @return the number of concerns in the scope with the status */
+    public long getTotal() {
+        return this.total;
+    }
+}
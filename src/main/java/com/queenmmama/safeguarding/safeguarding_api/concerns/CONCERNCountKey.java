@@ -0,0 +1,39 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+
+/**
+ * Key of one row of the {@code concern_counts} summary table.
+ *
+ * <p>The scope is either {@value #ALL} for the counts across every student, or {@code "student:"} followed
+ * by a student's name. The prefix keeps a student that happens to be called "all" apart from the totals.
+ * Every institution has counts of its own.</p>
+ *
+ * @param institutionId the institution whose concerns are counted
+ * @param scope {@value #ALL} or {@code "student:<name>"}
+ * @param status the concern status being counted
+ */
+@Embeddable
+public record CONCERNCountKey(@Column(length = 64) String institutionId,
+        @Column(length = 300) String scope, String status) implements Serializable {
+
+    /**
+     * Scope of the counts across every student.
+     */
+    public static final String ALL = "all";
+
+    /**
+     * Prefix of the scope of one student's counts.
+     */
+    public static final String STUDENT_PREFIX = "student:";
+
+    /**
+     * @param studentName the student's name
+     * @return the scope of that student's counts
+     */
+    public static String studentScope(String studentName) {
+        return STUDENT_PREFIX + studentName;
+    }
+}
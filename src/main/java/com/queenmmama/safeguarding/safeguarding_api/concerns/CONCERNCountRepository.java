@@ -0,0 +1,126 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository interface for the {@code concern_counts} summary table.
+ *
+ * <p>Counts are only ever changed by relative adjustments or rebuilt wholesale from {@code concerns} and
+ * {@code concerns_archive}; they are never read, modified and written back, so concurrent writers cannot lose
+ * each other's updates. Archiving a concern does not change its student or status, so it leaves the counts alone.</p>
+ *
+ * @see CONCERNCount
+ *
+ */
+public interface CONCERNCountRepository extends Repository<CONCERNCount, CONCERNCountKey> {
+
+    /**
+     * The institution, student and status of every concern, current or archived, for the rebuild queries.
+     */
+    String ALL_CONCERNS = "(select institution_id, student_name, status from concerns "
+            + "union all select institution_id, student_name, status from concerns_archive) c";
+
+    /**
+     * Finds the per-status counts of one scope of an institution.
+     *
+     * <p>The rows are returned as unmanaged copies, so a read later in the same persistence context still
+     * sees adjustments made by {@link #adjust(String, String, String, long)}, which bypasses it.</p>
+     *
+     * @param institutionId the institution whose concerns are counted
+     * @param scope {@value CONCERNCountKey#ALL} or a {@link CONCERNCountKey#studentScope(String) student scope}
+     * @return one row per status that has ever been counted in the scope
+     *
+     */
+
+    @Query("select new com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNCount(c.key, c.total) from CONCERNCount c "
+            + "where c.key.institutionId = :institutionId and c.key.scope = :scope")
+    List<CONCERNCount> findByScope(@Param("institutionId") String institutionId, @Param("scope") String scope);
+
+    /**
+     * Finds the per-status counts of every student of an institution.
+     *
+     * @param institutionId the institution whose concerns are counted
+     * @return one row per student and status that has ever been counted
+     *
+     */
+
+    @Query("select new com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNCount(c.key, c.total) from CONCERNCount c "
+            + "where c.key.institutionId = :institutionId and c.key.scope like '" + CONCERNCountKey.STUDENT_PREFIX + "%'")
+    List<CONCERNCount> findStudentCounts(@Param("institutionId") String institutionId);
+
+    /**
+     * Finds the per-status counts of every student of every institution in the database.
+     *
+     * @return one row per institution, student and status that has ever been counted
+     *
+     */
+
+    @Query("select new com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNCount(c.key, c.total) from CONCERNCount c "
+            + "where c.key.scope like '" + CONCERNCountKey.STUDENT_PREFIX + "%'")
+    List<CONCERNCount> findAllStudentCounts();
+
+    /**
+     * Counts the rows of the table.
+     *
+     * @return the number of counts stored
+     *
+     */
+
+    @Query("select count(c) from CONCERNCount c")
+    long countRows();
+
+    /**
+     * Adds {@code delta} to one count, creating the row if it does not exist yet.
+     *
+     * @param institutionId the institution whose concerns are counted
+     * @param scope the scope of the count
+     * @param status the status being counted
+     * @param delta the change to apply; negative when concerns leave the status
+     *
+     */
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into concern_counts (institution_id, scope, status, total) "
+            + "values (:institutionId, :scope, :status, :delta) on duplicate key update total = total + :delta")
+    void adjust(@Param("institutionId") String institutionId, @Param("scope") String scope, @Param("status") String status,
+            @Param("delta") long delta);
+
+    /**
+     * Deletes every count, ahead of {@link #insertStudentCounts()} and {@link #insertTotalCounts()}.
+     *
+     */
+
+    @Modifying
+    @Query("delete from CONCERNCount")
+    void deleteAllCounts();
+
+    /**
+     * Recounts every student's concerns per institution and status from the {@code concerns} and
+     * {@code concerns_archive} tables.
+     *
+     * @return the number of count rows written
+     *
+     */
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into concern_counts (institution_id, scope, status, total) "
+            + "select institution_id, concat('" + CONCERNCountKey.STUDENT_PREFIX + "', student_name), status, count(*) from " + ALL_CONCERNS
+            + " group by institution_id, student_name, status")
+    int insertStudentCounts();
+
+    /**
+     * Recounts all concerns per institution and status from the {@code concerns} and {@code concerns_archive} tables.
+     *
+     * @return the number of count rows written
+     *
+     */
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into concern_counts (institution_id, scope, status, total) "
+            + "select institution_id, '" + CONCERNCountKey.ALL + "', status, count(*) from " + ALL_CONCERNS + " group by institution_id, status")
+    int insertTotalCounts();
+}
@@ -0,0 +1,60 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor used to page through safeguarding concerns.
+ *
+ * <p>A cursor records the ({@code dateTime}, {@code id}) key of the concern at the edge of a page and
+ * the direction to continue in. Because the next page is read with a range predicate on that key rather
+ * than an OFFSET, every page costs the same index seek no matter how deep into the table it is.</p>
+ *
+ * <p>Clients must treat the encoded value as opaque and only echo back what the API returned.</p>
+ *
+ * @param dateTime the dateTime of the concern at the edge of the page
+ * @param id the ID of the concern at the edge of the page
+ * @param forward {@code true} to read the concerns after the key, {@code false} to read the ones before it
+ */
+public record CONCERNCursor(Instant dateTime, UUID id, boolean forward) {
+
+    private static final String FORWARD = "n";
+    private static final String BACKWARD = "p";
+
+    /**
+     * Encodes this cursor as an opaque, URL-safe string.
+     *
+     * @return the encoded cursor
+     *
+     */
+
+    public String encode() {
+        String raw = (this.forward ? FORWARD : BACKWARD) + "|" + this.dateTime + "|" + this.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor the encoded cursor
+     * @return the decoded CONCERNCursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     *
+     */
+
+    public static CONCERNCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !(FORWARD.equals(parts[0]) || BACKWARD.equals(parts[0]))) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new CONCERNCursor(Instant.parse(parts[1]), UUID.fromString(parts[2]), FORWARD.equals(parts[0]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
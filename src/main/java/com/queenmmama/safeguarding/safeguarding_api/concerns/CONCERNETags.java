@@ -0,0 +1,102 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.queenmmama.safeguarding.safeguarding_api.config.ResponseEncodingFilter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Strong entity tags for concerns and concern pages, derived from the {@code version} column rather than from
+ * the serialized body.
+ *
+ * <p>A single concern's tag is its version. A page's tag is a digest of the view, the ID and version of every
+ * concern on it and its cursors, so it changes whenever a concern on the page changes, one enters or leaves the
+ * page, or a neighbouring page appears or disappears. Either tag can therefore be checked by reading versions
+ * only, before any concern is loaded or serialized.</p>
+ *
+ * <p>Tags reach clients with the wire format and content coding appended by {@link ResponseEncodingFilter};
+ * both methods that read request headers compare the tag without them.</p>
+ *
+ */
+public final class CONCERNETags {
+
+    private CONCERNETags() {
+    }
+
+    /**
+     * @param version a concern's version
+     * @return the concern's quoted entity tag
+     */
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Computes the entity tag of a page.
+     *
+     * @param <T> the type of the page's items
+     * @param view the view the page is rendered in
+     * @param page the page
+     * @param id extracts an item's ID
+     * @param version extracts an item's version
+     * @return the page's quoted entity tag
+     */
+    public static <T> String ofPage(CONCERNView view, CONCERNPage<T> page, Function<T, Object> id, Function<T, Long> version) {
+        StringBuilder key = new StringBuilder(view.name()).append('|').append(page.nextCursor()).append('|').append(page.prevCursor());
+        for (T item : page.items()) {
+            key.append('|').append(id.apply(item)).append(':').append(version.apply(item));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"p-" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Tests an {@code If-None-Match} header against a current tag, using weak comparison as RFC 9110 requires.
+     *
+     * @param ifNoneMatch the header value, or {@code null}
+     * @param current the current quoted entity tag
+     * @return {@code true} if the client's copy is current and a 304 should be sent
+     */
+    public static boolean matches(String ifNoneMatch, String current) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = ResponseEncodingFilter.baseTag(candidate);
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the version a write is conditional on from an {@code If-Match} header.
+     *
+     * @param ifMatch the header value, or {@code null}
+     * @return the expected version, or {@code null} if the header is absent or {@code *}
+     * @throws IllegalArgumentException if the header is not a single strong tag produced by {@link #of(long)}
+     */
+    public static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<String> tags = List.of(ifMatch.split(","));
+        String tag = ResponseEncodingFilter.baseTag(tags.get(0));
+        if (tags.size() != 1 || tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be a single strong concern ETag: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must be a single strong concern ETag: " + ifMatch, e);
+        }
+    }
+}
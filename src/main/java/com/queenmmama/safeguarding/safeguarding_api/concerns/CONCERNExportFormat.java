@@ -0,0 +1,57 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.Locale;
+
+/**
+ * Wire formats supported by the concern export endpoint.
+ *
+ * <p>Both formats are line oriented so that a concern can be written as soon as it is read.</p>
+ */
+public enum CONCERNExportFormat {
+
+    /**
+     * Newline-delimited JSON, one CONCERN object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Comma-separated values with a header row.
+     */
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    CONCERNExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /** @return the Content-Type written for this format */
+    public String getMediaType() {
+        return this.mediaType;
+    }
+
+    /** @return the file extension used in the suggested download name */
+    public String getExtension() {
+        return this.extension;
+    }
+
+    /**
+     * Resolves a format from its request parameter value, ignoring case.
+     *
+     * @param format the requested format, e.g. "ndjson" or "csv"
+     * @return the matching CONCERNExportFormat
+     * @throws IllegalArgumentException if the format is not supported
+     *
+     */
+
+    public static CONCERNExportFormat from(String format) {
+        for (CONCERNExportFormat candidate : values()) {
+            if (candidate.extension.equals(format.toLowerCase(Locale.ROOT))) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+}
@@ -0,0 +1,35 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The data of one change feed event, as sent to subscribers of {@code GET /api/concerns/changes}.
+ *
+ * <p>A created or updated concern is sent whole. A patch sends only the fields it changed and the version it
+ * produced, and a deletion or archiving only the ID, so subscribers never have to read the concern back.</p>
+ *
+ * @param type what happened to the concern
+ * @param id the ID of the concern that changed
+ * @param version the concern's version after the change, or {@code null} if it was deleted or archived
+ * @param concern the concern as saved, or {@code null} if it was patched, deleted or archived
+ * @param changes the fields a patch changed, or {@code null} unless the concern was patched
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CONCERNFeedEvent(CONCERNChangedEvent.Type type, UUID id, Long version, CONCERN concern, Map<String, Object> changes) {
+
+    /**
+     * @param event a committed change
+     * @return the feed event describing it
+     */
+    public static CONCERNFeedEvent of(CONCERNChangedEvent event) {
+        if (event.concern() != null) {
+            return new CONCERNFeedEvent(event.type(), event.id(), event.concern().getVersion(), event.concern(), null);
+        }
+        if (event.patch() != null) {
+            return new CONCERNFeedEvent(event.type(), event.id(), event.patch().version() + 1, null, event.patch().changes());
+        }
+        return new CONCERNFeedEvent(event.type(), event.id(), null, null, null);
+    }
+}
@@ -0,0 +1,45 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.time.Instant;
+
+/**
+ * Optional criteria for listing safeguarding concerns. A {@code null} or blank criterion is not applied.
+ *
+ * @param studentName only concerns about this student
+ * @param status only concerns in this status, e.g. "Open"
+ * @param reportedBy only concerns reported by this person
+ * @param from only concerns reported at or after this instant
+ * @param to only concerns reported before this instant
+ * @param includeArchived whether to include concerns moved to the archive table as well as current ones
+ */
+public record CONCERNFilter(String studentName, String status, String reportedBy, Instant from, Instant to, boolean includeArchived) {
+
+    /**
+     * A filter that matches every concern.
+     */
+    public static final CONCERNFilter NONE = new CONCERNFilter(null, null, null, null, null);
+
+    /**
+     * Creates a filter over current concerns only.
+     *
+     * @param studentName only concerns about this student
+     * @param status only concerns in this status, e.g. "Open"
+     * @param reportedBy only concerns reported by this person
+     * @param from only concerns reported at or after this instant
+     * @param to only concerns reported before this instant
+     */
+    public CONCERNFilter(String studentName, String status, String reportedBy, Instant from, Instant to) {
+        this(studentName, status, reportedBy, from, to, false);
+    }
+
+    /**
+     * Validates the date range.
+     *
+     * @throws IllegalArgumentException if {@code from} is after {@code to}
+     */
+    public CONCERNFilter {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.EnumSet;
+import java.util.UUID;
+import org.hibernate.annotations.IdGeneratorType;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Generates a random UUID for a new concern unless one was already assigned.
+ *
+ * <p>Concerns accepted by {@link CONCERNIngestService} are given their ID when they are written to the ingest
+ * log, so that the client can be told it straight away; they keep that ID when they are inserted later. The
+ * controller clears any ID a client sends with a new concern, so only the server assigns them.</p>
+ *
+ */
+public class CONCERNIdGenerator implements BeforeExecutionGenerator {
+
+    /**
+     * Marks the ID attribute generated by {@link CONCERNIdGenerator}.
+     */
+    @IdGeneratorType(CONCERNIdGenerator.class)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.FIELD, ElementType.METHOD})
+    public @interface Generated {
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return currentValue != null ? currentValue : UUID.randomUUID();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
@@ -0,0 +1,387 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable, append-only log of accepted concerns, written with NIO {@link FileChannel}s.
+ *
+ * <p>Each record is framed as {@code [int length][int CRC32C][payload]} and addressed by its byte offset in the
+ * log as a whole. The log is split into segment files named after the offset they start at. {@link #append(byte[])}
+ * queues a record for a single writer thread. That thread writes everything queued since its last {@code fsync}
+ * with one gathering write and one {@link FileChannel#force(boolean)} (group commit), so the cost of a sync is
+ * shared by every concurrent request.</p>
+ *
+ * <p>The reader acknowledges the offset up to which records have been stored elsewhere. The acknowledged offset
+ * is kept in a checkpoint file, and segments wholly before it are deleted. On open, records after the checkpoint
+ * are checked and a torn record left by a crash is cut off, so {@link #read(long, int, long)} can resume from
+ * {@link #getAcknowledgedOffset()}.</p>
+ *
+ */
+class CONCERNIngestLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(CONCERNIngestLog.class);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_BYTES = 8;
+    private static final int CHECKPOINT_BYTES = 12;
+    private static final int MAX_GROUP = 1024;
+
+    /**
+     * A record read back from the log.
+     *
+     * @param offset the offset the record starts at
+     * @param nextOffset the offset of the following record
+     * @param payload the bytes that were appended
+     */
+    record Entry(long offset, long nextOffset, byte[] payload) {
+    }
+
+    private record Pending(ByteBuffer record, CompletableFuture<Long> synced) {
+    }
+
+    /**
+     * One segment file; {@code size} is only changed by the writer thread.
+     */
+    private static final class Segment {
+        private final long base;
+        private final Path path;
+        private final FileChannel channel;
+        private long size;
+
+        Segment(long base, Path path, FileChannel channel, long size) {
+            this.base = base;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final FileChannel checkpointChannel;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = this.syncLock.newCondition();
+    private final Thread writer;
+    private volatile long syncedOffset;
+    private volatile long acknowledgedOffset;
+    private volatile boolean open = true;
+    private volatile IOException failure;
+
+    /**
+     * Opens the log in a directory, recovering it if it already exists, and starts the writer thread.
+     *
+     * @param directory the directory holding the segments and the checkpoint
+     * @param segmentBytes the size after which a new segment is started
+     * @throws IOException if the log cannot be opened
+     */
+    CONCERNIngestLog(Path directory, long segmentBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.acknowledgedOffset = this.readCheckpoint();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = path.getFileName().toString();
+                long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                this.segments.put(base, new Segment(base, path, channel, channel.size()));
+            }
+        }
+        this.recover();
+        this.writer = Thread.ofPlatform().name("concern-ingest-log").daemon().start(this::writeLoop);
+    }
+
+    /**
+     * Queues a record to be written and synced with the next group.
+     *
+     * @param payload the record
+     * @return a future completed with the offset after the record once it is on disk
+     * @throws IllegalStateException if the log is closed or a previous write failed
+     */
+    CompletableFuture<Long> append(byte[] payload) {
+        if (!this.open || this.failure != null) {
+            throw new IllegalStateException("Ingest log is not accepting writes", this.failure);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        CompletableFuture<Long> synced = new CompletableFuture<>();
+        this.queue.add(new Pending(record, synced));
+        return synced;
+    }
+
+    /**
+     * Reads synced records, waiting for one if there are none yet.
+     *
+     * @param from the offset to read from; a {@code nextOffset} or the acknowledged offset
+     * @param maxRecords the largest number of records to return
+     * @param waitNanos how long to wait for a record
+     * @return the records from {@code from}, empty if none were synced in time
+     * @throws IOException if the log cannot be read
+     * @throws InterruptedException if interrupted while waiting
+     */
+    List<Entry> read(long from, int maxRecords, long waitNanos) throws IOException, InterruptedException {
+        if (this.syncedOffset <= from) {
+            this.syncLock.lock();
+            try {
+                long nanos = waitNanos;
+                while (this.syncedOffset <= from && nanos > 0) {
+                    nanos = this.synced.awaitNanos(nanos);
+                }
+            } finally {
+                this.syncLock.unlock();
+            }
+        }
+        long end = this.syncedOffset;
+        List<Entry> entries = new ArrayList<>();
+        long offset = from;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (offset < end && entries.size() < maxRecords) {
+            // Segments only roll between groups, so a record never spans two of them.
+            Segment segment = this.segments.floorEntry(offset).getValue();
+            long position = offset - segment.base;
+            header.clear();
+            readFully(segment.channel, header, position);
+            int length = header.getInt(0);
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(segment.channel, payload, position + HEADER_BYTES);
+            long nextOffset = offset + HEADER_BYTES + length;
+            entries.add(new Entry(offset, nextOffset, payload.array()));
+            offset = nextOffset;
+        }
+        return entries;
+    }
+
+    /**
+     * Records that everything before an offset has been stored elsewhere, and deletes the segments that held it.
+     *
+     * @param offset the {@code nextOffset} of the last record stored
+     * @throws IOException if the checkpoint cannot be written
+     */
+    synchronized void acknowledge(long offset) throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(CHECKPOINT_BYTES).putLong(offset);
+        CRC32C crc = new CRC32C();
+        crc.update(checkpoint.array(), 0, Long.BYTES);
+        checkpoint.putInt((int) crc.getValue()).flip();
+        while (checkpoint.hasRemaining()) {
+            this.checkpointChannel.write(checkpoint, checkpoint.position());
+        }
+        this.checkpointChannel.force(false);
+        this.acknowledgedOffset = offset;
+        for (Map.Entry<Long, Segment> entry : this.segments.headMap(offset, false).entrySet()) {
+            Long next = this.segments.higherKey(entry.getKey());
+            if (next != null && next <= offset) {
+                this.segments.remove(entry.getKey());
+                entry.getValue().channel.close();
+                Files.deleteIfExists(entry.getValue().path);
+            }
+        }
+    }
+
+    /**
+     * @return the offset up to which records have been acknowledged
+     */
+    long getAcknowledgedOffset() {
+        return this.acknowledgedOffset;
+    }
+
+    /**
+     * @return the number of synced bytes not yet acknowledged
+     */
+    long getBacklogBytes() {
+        return this.syncedOffset - this.acknowledgedOffset;
+    }
+
+    /**
+     * Stops accepting records, writes and syncs those already queued, and closes the files.
+     *
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.open = false;
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Segment segment : this.segments.values()) {
+            segment.channel.close();
+        }
+        this.checkpointChannel.close();
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>();
+        while (this.open || !this.queue.isEmpty()) {
+            try {
+                Pending first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                this.queue.drainTo(group, MAX_GROUP - 1);
+                this.writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.error("Ingest log write failed; no further concerns will be accepted", e);
+                this.failure = e;
+                group.forEach(pending -> pending.synced().completeExceptionally(e));
+                this.queue.forEach(pending -> pending.synced().completeExceptionally(e));
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a group of records with one gathering write and makes them durable with one sync.
+     */
+    private void writeGroup(List<Pending> group) throws IOException {
+        Segment segment = this.segments.lastEntry().getValue();
+        if (segment.size >= this.segmentBytes) {
+            segment = this.startSegment(this.syncedOffset);
+        }
+        ByteBuffer[] records = new ByteBuffer[group.size()];
+        long[] ends = new long[group.size()];
+        long offset = this.syncedOffset;
+        for (int i = 0; i < records.length; i++) {
+            records[i] = group.get(i).record();
+            offset += records[i].remaining();
+            ends[i] = offset;
+        }
+        long bytes = offset - this.syncedOffset;
+        segment.channel.position(segment.size);
+        for (long written = 0; written < bytes; ) {
+            written += segment.channel.write(records);
+        }
+        segment.channel.force(false);
+        segment.size += bytes;
+        this.syncLock.lock();
+        try {
+            this.syncedOffset = offset;
+            this.synced.signalAll();
+        } finally {
+            this.syncLock.unlock();
+        }
+        for (int i = 0; i < records.length; i++) {
+            group.get(i).synced().complete(ends[i]);
+        }
+    }
+
+    private Segment startSegment(long base) throws IOException {
+        Path path = this.directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Make the new file's directory entry durable before records in it are acknowledged to clients.
+        try (FileChannel directoryChannel = FileChannel.open(this.directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            log.debug("Directory sync is not supported here", e);
+        }
+        Segment segment = new Segment(base, path, channel, 0);
+        this.segments.put(base, segment);
+        return segment;
+    }
+
+    /**
+     * Finds the end of the last complete record after the checkpoint and cuts off anything after it.
+     */
+    private void recover() throws IOException {
+        if (this.segments.isEmpty()) {
+            this.startSegment(this.acknowledgedOffset);
+            this.syncedOffset = this.acknowledgedOffset;
+            return;
+        }
+        long start = Math.max(this.acknowledgedOffset, this.segments.firstKey());
+        long offset = start;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        for (Segment segment : List.copyOf(this.segments.tailMap(this.segments.floorKey(start)).values())) {
+            long position = Math.max(0, start - segment.base);
+            while (position < segment.size) {
+                header.clear();
+                if (!readFully(segment.channel, header, position) || header.getInt(0) < 0
+                        || position + HEADER_BYTES + header.getInt(0) > segment.size) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+                readFully(segment.channel, payload, position + HEADER_BYTES);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != header.getInt(4)) {
+                    break;
+                }
+                position += HEADER_BYTES + header.getInt(0);
+            }
+            offset = segment.base + position;
+            if (position < segment.size) {
+                log.warn("Cutting off {} bytes of an incomplete record at offset {} of the ingest log",
+                        segment.size - position, offset);
+                segment.channel.truncate(position);
+                segment.channel.force(true);
+                segment.size = position;
+                for (Segment later : this.segments.tailMap(segment.base, false).values()) {
+                    this.segments.remove(later.base);
+                    later.channel.close();
+                    Files.delete(later.path);
+                }
+                break;
+            }
+        }
+        this.syncedOffset = offset;
+        if (this.acknowledgedOffset > offset) {
+            log.warn("Ingest log checkpoint {} is past the end of the log {}; resuming from the end", this.acknowledgedOffset, offset);
+            this.acknowledgedOffset = offset;
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(CHECKPOINT_BYTES);
+        if (!readFully(this.checkpointChannel, checkpoint, 0)) {
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(checkpoint.array(), 0, Long.BYTES);
+        // A torn checkpoint only means records are replayed; the drain skips concerns that were already stored.
+        return (int) crc.getValue() == checkpoint.getInt(Long.BYTES) ? checkpoint.getLong(0) : 0;
+    }
+
+    /**
+     * @return {@code false} if the file ended before the buffer was filled
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,310 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Accepts new concerns by writing them to a durable local log and stores them in the database in the background.
+ *
+ * <p>Enabled with {@code safeguarding.concerns.ingest.mode=write-behind}. {@link #ingest(CONCERN)} validates a
+ * concern, gives it its ID and returns once the {@link CONCERNIngestLog} has synced it to disk, so a POST can be
+ * answered with 202 without waiting for the database. Concurrent requests share each sync.</p>
+ *
+ * <p>A background thread reads the log from the last acknowledged offset and stores the concerns with
+ * {@link CONCERNService#createIngestedCONCERNs(List)} in batches of up to {@code batch-size}, acknowledging each
+ * batch once its transaction commits. After a restart it resumes from the acknowledged offset; concerns stored
+ * just before a crash are replayed and skipped by ID.</p>
+ *
+ * <p>A concern is checked against the column lengths before it is logged, so one that cannot be stored is answered
+ * with 400. If the database still rejects a batch with a data or integrity constraint error (SQLSTATE class 22 or
+ * 23), its concerns are stored one at a time. A concern that cannot be read back or is rejected by the database
+ * is appended to the {@value #DEAD_LETTER_FILE} file next to the log segments, with an error logged, and the rest
+ * carry on. Other failures, such as the database being unreachable, are retried from the same offset after
+ * {@code retry-delay}, which may append concerns already in the dead-letter file again.</p>
+ *
+ * <p>Each logged concern records the institution that submitted it, and is stored on behalf of that institution;
+ * entries logged before institutions existed belong to {@value CONCERNInstitutions#DEFAULT}.</p>
+ *
+ * <p>An accepted concern can be read back only once it has been stored, typically within milliseconds; the
+ * {@code concerns.ingest.backlog} gauge shows how many bytes are waiting.</p>
+ *
+ */
+@Service
+@ConditionalOnProperty(name = "safeguarding.concerns.ingest.mode", havingValue = "write-behind")
+public class CONCERNIngestService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(CONCERNIngestService.class);
+
+    /**
+     * The field of a logged concern holding its institution.
+     */
+    private static final String INSTITUTION_FIELD = "institutionId";
+
+    /**
+     * The file, in the log directory, holding the logged concerns that could not be stored, one JSON entry per line.
+     */
+    static final String DEAD_LETTER_FILE = "dead-letter.jsonl";
+
+    private final CONCERNService concernService;
+    private final ObjectMapper objectMapper;
+    private final CONCERNIngestLog ingestLog;
+    private final Path deadLetterPath;
+    private final int batchSize;
+    private final long syncTimeoutNanos;
+    private final long retryDelayMillis;
+    private volatile Thread drainer;
+
+    /**
+     * A concern read back from the log, with its institution and the entry it was read from.
+     */
+    private record Logged(String institution, CONCERN concern, CONCERNIngestLog.Entry entry) {
+    }
+
+    /**
+     * Constructs a new {@code CONCERNIngestService} and opens the log, recovering it after a crash.
+     *
+     * @param concernService the service used to store the logged concerns
+     * @param objectMapper the mapper used to encode concerns in the log
+     * @param properties the log location and the batch, sync and retry settings
+     * @param meterRegistry the registry the backlog gauge is published to
+     * @throws IllegalStateException if no log path is configured, or its parent directory does not exist
+     * @throws IOException if the log cannot be opened
+     *
+     */
+
+    public CONCERNIngestService(CONCERNService concernService, ObjectMapper objectMapper, CONCERNProperties properties,
+            MeterRegistry meterRegistry) throws IOException {
+        CONCERNProperties.Ingest ingest = properties.ingest();
+        Path logPath = logDirectory(ingest);
+        this.concernService = concernService;
+        this.objectMapper = objectMapper;
+        this.ingestLog = new CONCERNIngestLog(logPath, ingest.segmentSize().toBytes());
+        this.deadLetterPath = logPath.resolve(DEAD_LETTER_FILE);
+        this.batchSize = ingest.batchSize();
+        this.syncTimeoutNanos = ingest.syncTimeout().toNanos();
+        this.retryDelayMillis = ingest.retryDelay().toMillis();
+        Gauge.builder("concerns.ingest.backlog", this.ingestLog, CONCERNIngestLog::getBacklogBytes)
+                .description("Bytes of accepted concerns synced to the ingest log but not yet stored")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accepts a new concern of the current institution once it is durably logged.
+     *
+     * @param concern the new concern; any ID it carries is replaced
+     * @return the concern with its assigned ID
+     * @throws IllegalArgumentException if the concern or any required field is null, or a field is longer than its
+     *         column
+     * @throws IllegalStateException if the log failed, or did not sync the concern within the sync timeout
+     *
+     */
+
+    public CONCERN ingest(CONCERN concern) {
+        CONCERNService.validateNewCONCERN(concern);
+        concern.id = UUID.randomUUID();
+        concern.setVersion(null);
+        try {
+            ObjectNode entry = this.objectMapper.valueToTree(concern);
+            entry.put(INSTITUTION_FIELD, CONCERNInstitutions.current());
+            this.ingestLog.append(this.objectMapper.writeValueAsBytes(entry)).get(this.syncTimeoutNanos, TimeUnit.NANOSECONDS);
+            return concern;
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("CONCERN cannot be encoded", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("CONCERN could not be logged", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while logging CONCERN", e);
+        }
+    }
+
+    /**
+     * @return the number of bytes synced to the log but not yet stored
+     *
+     */
+
+    public long getBacklogBytes() {
+        return this.ingestLog.getBacklogBytes();
+    }
+
+    /**
+     * Starts storing logged concerns once the application is ready, beginning with any left from a previous run.
+     *
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDraining() {
+        if (this.drainer == null) {
+            this.drainer = Thread.ofPlatform().name("concern-ingest-drain").daemon().start(this::drain);
+        }
+    }
+
+    private void drain() {
+        long offset = this.ingestLog.getAcknowledgedOffset();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<CONCERNIngestLog.Entry> entries = this.ingestLog.read(offset, this.batchSize, TimeUnit.SECONDS.toNanos(1));
+                if (entries.isEmpty()) {
+                    continue;
+                }
+                Map<String, List<Logged>> concerns = new LinkedHashMap<>();
+                for (CONCERNIngestLog.Entry entry : entries) {
+                    try {
+                        Logged logged = this.read(entry);
+                        concerns.computeIfAbsent(logged.institution(), key -> new ArrayList<>()).add(logged);
+                    } catch (IOException | ClassCastException | IllegalArgumentException e) {
+                        this.deadLetter(entry, e);
+                    }
+                }
+                for (Map.Entry<String, List<Logged>> batch : concerns.entrySet()) {
+                    this.store(batch.getKey(), batch.getValue());
+                }
+                offset = entries.get(entries.size() - 1).nextOffset();
+                this.ingestLog.acknowledge(offset);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException | IOException e) {
+                log.warn("Storing ingested concerns failed; retrying from offset {}", offset, e);
+                try {
+                    Thread.sleep(this.retryDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes and checks a logged concern.
+     *
+     * @throws IOException if the entry is not valid JSON
+     * @throws ClassCastException if the entry is not a JSON object
+     * @throws IllegalArgumentException if the entry is not a valid new concern
+     */
+    private Logged read(CONCERNIngestLog.Entry entry) throws IOException {
+        ObjectNode payload = (ObjectNode)this.objectMapper.readTree(entry.payload());
+        String institution = payload.has(INSTITUTION_FIELD) ? payload.remove(INSTITUTION_FIELD).asText() : CONCERNInstitutions.DEFAULT;
+        CONCERN concern = this.objectMapper.treeToValue(payload, CONCERN.class);
+        CONCERNService.validateNewCONCERN(concern);
+        return new Logged(institution, concern, entry);
+    }
+
+    /**
+     * Stores one institution's concerns in one transaction or, if the database rejects that, one at a time, moving
+     * those it rejects to the dead-letter file.
+     *
+     * @throws IOException if a rejected concern cannot be written to the dead-letter file
+     */
+    private void store(String institution, List<Logged> batch) throws IOException {
+        try {
+            CONCERNInstitutions.run(institution, () -> this.concernService.createIngestedCONCERNs(batch.stream().map(Logged::concern).toList()));
+            return;
+        } catch (RuntimeException e) {
+            if (!isRejectedByDatabase(e)) {
+                throw e;
+            }
+            log.warn("The database rejected {} ingested concerns of {}; storing them one at a time", batch.size(), institution, e);
+        }
+        for (Logged logged : batch) {
+            // The failed transaction may have left the decoded concern with a version, so it is decoded afresh
+            CONCERN concern = this.read(logged.entry()).concern();
+            try {
+                CONCERNInstitutions.run(institution, () -> this.concernService.createIngestedCONCERNs(List.of(concern)));
+            } catch (RuntimeException e) {
+                if (!isRejectedByDatabase(e)) {
+                    throw e;
+                }
+                this.deadLetter(logged.entry(), e);
+            }
+        }
+    }
+
+    /**
+     * Resolves the configured log directory. Only the directory itself is created, so a path on a volume that is not
+     * mounted fails here instead of logging accepted concerns to a disk that does not survive a restart.
+     *
+     * @throws IllegalStateException if no log path is configured, or its parent directory does not exist
+     */
+    private static Path logDirectory(CONCERNProperties.Ingest ingest) {
+        if (ingest.logPath() == null || ingest.logPath().isBlank()) {
+            throw new IllegalStateException("safeguarding.concerns.ingest.log-path must be set when the ingest mode is write-behind");
+        }
+        Path directory = Path.of(ingest.logPath()).toAbsolutePath();
+        if (directory.getParent() != null && !Files.isDirectory(directory.getParent())) {
+            throw new IllegalStateException("The parent directory of safeguarding.concerns.ingest.log-path does not exist: " + directory);
+        }
+        return directory;
+    }
+
+    /**
+     * @return whether the failure was caused by a data exception or integrity constraint violation, which retrying
+     *         the same concerns cannot fix
+     */
+    private static boolean isRejectedByDatabase(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends a logged concern that cannot be stored to the dead-letter file, so that it no longer holds up the
+     * concerns after it.
+     *
+     * @throws IOException if the dead-letter file cannot be written
+     */
+    private void deadLetter(CONCERNIngestLog.Entry entry, Exception cause) throws IOException {
+        byte[] line = new byte[entry.payload().length + 1];
+        System.arraycopy(entry.payload(), 0, line, 0, entry.payload().length);
+        line[line.length - 1] = '\n';
+        Files.write(this.deadLetterPath, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        log.error("Moved the concern at offset {} of the ingest log to {}", entry.offset(), this.deadLetterPath, cause);
+    }
+
+    /**
+     * Stops the background writer and closes the log; concerns not yet stored are stored after the next start.
+     *
+     * @throws IOException if the log cannot be closed
+     *
+     */
+
+    @Override
+    public void destroy() throws IOException {
+        Thread draining = this.drainer;
+        if (draining != null) {
+            draining.interrupt();
+            try {
+                draining.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.ingestLog.close();
+    }
+}
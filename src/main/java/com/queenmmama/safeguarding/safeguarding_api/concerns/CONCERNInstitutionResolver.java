@@ -0,0 +1,33 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Tells Hibernate which institution a session works on, so that it fills in and filters by the
+ * {@link org.hibernate.annotations.TenantId} columns of {@link CONCERN} and {@link CONCERNArchive}.
+ *
+ * <p>The institution is read from {@link CONCERNInstitutions} when a session opens, i.e. when a transaction starts.
+ * Hibernate then restricts loads by ID, queries and bulk updates and deletes of those entities to that institution.
+ * {@value CONCERNInstitutions#ALL} is the root tenant, whose sessions see every institution. Native SQL, such as the
+ * {@code concern_counts} upserts, is not restricted and names the institution itself.</p>
+ *
+ * <p>Registered with {@code spring.jpa.properties.hibernate.tenant_identifier_resolver}.</p>
+ *
+ */
+public class CONCERNInstitutionResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return CONCERNInstitutions.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(String tenantId) {
+        return CONCERNInstitutions.ALL.equals(tenantId);
+    }
+}
@@ -0,0 +1,126 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The institution (school, hospital, church, youth club...) whose concerns the current thread works on.
+ *
+ * <p>Every concern belongs to one institution, and everything {@link CONCERNService} and the services around it
+ * read or write is limited to the current institution: Hibernate adds it to every query on {@link CONCERN} and
+ * {@link CONCERNArchive} (see {@link CONCERNInstitutionResolver}), and with sharding enabled it decides which
+ * database the work runs against. Requests choose it with the {@value #HEADER} header; threads that have not chosen
+ * one work on {@value #DEFAULT}, so single-institution deployments need no configuration.</p>
+ *
+ * <p>Background work that spans institutions, such as archiving or rebuilding indexes, runs as {@value #ALL}, which
+ * Hibernate does not filter by, one shard at a time through {@link CONCERNShards}.</p>
+ *
+ */
+public final class CONCERNInstitutions {
+
+    /**
+     * The request header naming the institution a request works on.
+     */
+    public static final String HEADER = "X-Institution-Id";
+
+    /**
+     * The institution of requests without the header, and of concerns stored before institutions existed.
+     */
+    public static final String DEFAULT = "default";
+
+    /**
+     * Stands for every institution, for background work that is not limited to one.
+     */
+    public static final String ALL = "*";
+
+    /**
+     * Institution identifiers: letters, digits, '.', '_' and '-', starting with a letter or digit, at most 64 long.
+     */
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,63}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private CONCERNInstitutions() {
+    }
+
+    /**
+     * @return the institution the current thread works on, {@value #DEFAULT} unless one was chosen
+     */
+    public static String current() {
+        String institution = CURRENT.get();
+        return institution == null ? DEFAULT : institution;
+    }
+
+    /**
+     * Makes the current thread work on behalf of an institution, or of {@value #ALL}, until the returned binding is
+     * closed, which restores the previous one. For use in try-with-resources.
+     *
+     * @param institution the institution to work on
+     * @return the binding to close
+     */
+    public static Binding bind(String institution) {
+        String previous = CURRENT.get();
+        CURRENT.set(institution);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Runs work on behalf of an institution, or of {@value #ALL}, and restores the previous one afterwards.
+     *
+     * @param <T> the type of the work's result
+     * @param institution the institution to work on
+     * @param work the work
+     * @return the work's result
+     */
+    public static <T> T call(String institution, Supplier<T> work) {
+        try (Binding binding = bind(institution)) {
+            return work.get();
+        }
+    }
+
+    /**
+     * Runs work on behalf of an institution, or of {@value #ALL}, and restores the previous one afterwards.
+     *
+     * @param institution the institution to work on
+     * @param work the work
+     */
+    public static void run(String institution, Runnable work) {
+        call(institution, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Checks an institution identifier supplied by a client.
+     *
+     * @param institution the identifier
+     * @return the identifier
+     * @throws IllegalArgumentException if it is missing or not a valid identifier
+     */
+    public static String validate(String institution) {
+        if (institution == null || !VALID.matcher(institution).matches()) {
+            throw new IllegalArgumentException("Institution ID must be 1 to 64 letters, digits, '.', '_' or '-'");
+        }
+        return institution;
+    }
+
+    /**
+     * The institution a thread works on for the duration of a try-with-resources block.
+     */
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+
+        /**
+         * Restores the institution the thread worked on before.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,15 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.UUID;
+
+/**
+ * The ID of a concern and the institution it belongs to.
+ *
+ * <p>Used as a projection by work that spans institutions, such as archiving, to announce each change to the
+ * right institution without loading the concerns.</p>
+ *
+ * @param id the concern's ID
+ * @param institutionId the institution the concern belongs to
+ */
+public record CONCERNOwner(UUID id, String institutionId) {
+}
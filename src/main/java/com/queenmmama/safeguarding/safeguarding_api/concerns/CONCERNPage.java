@@ -0,0 +1,18 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.List;
+
+/**
+ * A single page of safeguarding concerns, or of their {@link CONCERNSummary summaries}, ordered by
+ * ({@code dateTime}, {@code id}).
+ *
+ * <p>{@code nextCursor} and {@code prevCursor} are opaque {@link CONCERNCursor} values to pass back as the
+ * {@code cursor} request parameter. Either is {@code null} when there is no page in that direction.</p>
+ *
+ * @param <T> {@link CONCERN} or {@link CONCERNSummary}
+ * @param items the concerns on this page, oldest first
+ * @param nextCursor the cursor of the following page, or {@code null} if this is the last page
+ * @param prevCursor the cursor of the preceding page, or {@code null} if this is the first page
+ */
+public record CONCERNPage<T>(List<T> items, String nextCursor, String prevCursor) {
+}
@@ -0,0 +1,113 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A JSON merge patch (RFC 7396) of a safeguarding concern.
+ *
+ * <p>Only the members present in the document are changed. {@code "status": null} resets the status to
+ * "Open"; the other fields cannot be removed. The document must carry the {@code version} the client last
+ * read, or the client must send it as an {@code If-Match} tag; it is checked by the same statement that applies
+ * the change.</p>
+ *
+ * @param changes the new value of each supplied field, keyed by CONCERN attribute name
+ * @param version the version the patch was based on
+ */
+public record CONCERNPatch(Map<String, Object> changes, long version) {
+
+    private static final Set<String> TEXT_FIELDS = Set.of("studentName", "reportedBy", "description");
+
+    /**
+     * Creates a patch with an unmodifiable copy of the changes.
+     *
+     * @param changes the new value of each supplied field, keyed by CONCERN attribute name
+     * @param version the version the patch was based on
+     */
+    public CONCERNPatch {
+        changes = Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+    }
+
+    /**
+     * Parses a merge patch document.
+     *
+     * @param document the request body
+     * @return the parsed patch
+     * @throws IllegalArgumentException if the document is not an object, has no numeric {@code version},
+     *         names an unknown or read-only field, or sets a field to an invalid value
+     *
+     */
+
+    public static CONCERNPatch from(JsonNode document) {
+        return from(document, null);
+    }
+
+    /**
+     * Parses a merge patch document whose version may instead come from an {@code If-Match} header.
+     *
+     * @param document the request body
+     * @param expectedVersion the version from the {@code If-Match} header, or {@code null} to use the document's
+     * @return the parsed patch
+     * @throws IllegalArgumentException if the document is not an object, neither the header nor the document
+     *         gives a version, they give different versions, or the document names an unknown or read-only field
+     *         or sets a field to an invalid value
+     *
+     */
+
+    public static CONCERNPatch from(JsonNode document, Long expectedVersion) {
+        if (document == null || !document.isObject()) {
+            throw new IllegalArgumentException("CONCERN patch must be a JSON object");
+        }
+        JsonNode version = document.get("version");
+        if (version != null && !version.canConvertToLong()) {
+            throw new IllegalArgumentException("CONCERN patch version must be a number");
+        }
+        if (version == null && expectedVersion == null) {
+            throw new IllegalArgumentException("CONCERN patch must include the version it is based on");
+        }
+        if (version != null && expectedVersion != null && version.longValue() != expectedVersion) {
+            throw new IllegalArgumentException("CONCERN patch version does not match If-Match");
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> member : document.properties()) {
+            String field = member.getKey();
+            JsonNode value = member.getValue();
+            if ("version".equals(field)) {
+                continue;
+            }
+            if (TEXT_FIELDS.contains(field)) {
+                if (!value.isTextual()) {
+                    throw new IllegalArgumentException("CONCERN " + field + " must be a string");
+                }
+                changes.put(field, value.textValue());
+            } else if ("status".equals(field)) {
+                if (!value.isNull() && !value.isTextual()) {
+                    throw new IllegalArgumentException("CONCERN status must be a string or null");
+                }
+                changes.put(field, value.isNull() || value.textValue().isBlank() ? "Open" : value.textValue());
+            } else if ("dateTime".equals(field)) {
+                try {
+                    changes.put(field, Instant.parse(value.asText()));
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("CONCERN dateTime must be an ISO-8601 instant", e);
+                }
+            } else {
+                throw new IllegalArgumentException("CONCERN field cannot be patched: " + field);
+            }
+        }
+        return new CONCERNPatch(changes, expectedVersion != null ? expectedVersion : version.longValue());
+    }
+
+    /**
+     * @param field a CONCERN attribute name
+     * @return {@code true} if this patch changes the field
+     */
+    public boolean changes(String field) {
+        return this.changes.containsKey(field);
+    }
+}
@@ -0,0 +1,24 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.UUID;
+
+/**
+ * Repository fragment that applies a {@link CONCERNPatch} without loading the concern first.
+ *
+ * @see CONCERNPatchRepositoryImpl
+ *
+ */
+public interface CONCERNPatchRepository {
+
+    /**
+     * Applies the patch and increments the version in a single
+     * {@code UPDATE concerns SET ... WHERE id = ? AND version = ?} statement.
+     *
+     * @param id the ID of the concern to change
+     * @param patch the fields to change and the version they were based on
+     * @return 1 if the concern was changed, 0 if it does not exist or its version has moved on
+     *
+     */
+
+    int applyPatch(UUID id, CONCERNPatch patch);
+}
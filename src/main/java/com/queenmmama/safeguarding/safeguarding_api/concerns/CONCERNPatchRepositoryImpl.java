@@ -0,0 +1,49 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import java.util.UUID;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Criteria API implementation of {@link CONCERNPatchRepository}.
+ *
+ * <p>The SET clause lists only the patched columns plus {@code version}, so an update that changes the
+ * status does not rewrite the description. A patch of the student name also sets its folded key.</p>
+ *
+ */
+public class CONCERNPatchRepositoryImpl implements CONCERNPatchRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Constructs a new {@code CONCERNPatchRepositoryImpl}.
+     *
+     * @param entityManager the entity manager used to run the update
+     *
+     */
+
+    public CONCERNPatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int applyPatch(UUID id, CONCERNPatch patch) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaUpdate<CONCERN> update = builder.createCriteriaUpdate(CONCERN.class);
+        Root<CONCERN> concern = update.from(CONCERN.class);
+        patch.changes().forEach(update::set);
+        if (patch.changes("studentName")) {
+            update.set("studentNameKey", CONCERNStudentNames.normalize((String)patch.changes().get("studentName")));
+        }
+        update.set("version", patch.version() + 1);
+        update.where(builder.equal(concern.get("id"), id), builder.equal(concern.get("version"), patch.version()));
+        int updated = this.entityManager.createQuery(update).executeUpdate();
+        // A bulk update bypasses the persistence context; drop any copy of the concern loaded earlier.
+        this.entityManager.clear();
+        return updated;
+    }
+}
@@ -0,0 +1,98 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.time.Duration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tunable limits for the concern API, bound from the {@code safeguarding.concerns.*} properties.
+ *
+ * @param page limits for keyset page reads
+ * @param batch limits for bulk creation
+ * @param search settings for the full-text search index
+ * @param feed settings for the change feed
+ * @param ingest settings for write-behind ingestion
+ * @param archive settings for moving resolved concerns to the archive table
+ * @param typeahead limits for student name suggestions
+ */
+@ConfigurationProperties(prefix = "safeguarding.concerns")
+public record CONCERNProperties(@DefaultValue Page page, @DefaultValue Batch batch, @DefaultValue Search search,
+        @DefaultValue Feed feed, @DefaultValue Ingest ingest,
+        @DefaultValue Archive archive, @DefaultValue Typeahead typeahead) {
+
+    /**
+     * Limits for keyset page reads.
+     *
+     * @param defaultSize the page size used when a client does not ask for one
+     * @param maxSize the largest page size a client may ask for
+     */
+    public record Page(@DefaultValue("20") int defaultSize, @DefaultValue("100") int maxSize) {
+    }
+
+    /**
+     * Limits for bulk creation.
+     *
+     * @param chunkSize the number of concerns flushed and cleared from the persistence context at a time
+     * @param maxItems the largest number of concerns accepted in one request
+     */
+    public record Batch(@DefaultValue("500") int chunkSize, @DefaultValue("10000") int maxItems) {
+    }
+
+    /**
+     * Settings for the full-text search index.
+     *
+     * @param indexPath the directory holding the index, or blank to keep it in memory; it is rebuilt at startup either way
+     * @param maxResults the largest number of results a client may ask for
+     */
+    public record Search(@DefaultValue("") String indexPath, @DefaultValue("100") int maxResults) {
+    }
+
+    /**
+     * Settings for the change feed.
+     *
+     * @param bufferSize the number of recent changes kept for clients that reconnect
+     * @param heartbeat how long a subscription may stay silent before a comment is sent to keep it open
+     * @param timeout how long a subscription lasts before the client has to reconnect
+     */
+    public record Feed(@DefaultValue("10000") int bufferSize, @DefaultValue("15s") Duration heartbeat,
+            @DefaultValue("30m") Duration timeout) {
+    }
+
+    /**
+     * Settings for write-behind ingestion.
+     *
+     * @param mode {@code direct} to store concerns as they are posted, or {@code write-behind} to accept them once
+     *     they are synced to the local log and store them in the background
+     * @param logPath the directory holding the log, on a disk that survives restarts; required in write-behind mode,
+     *     and its parent directory must already exist
+     * @param segmentSize the size after which the log starts a new file
+     * @param batchSize the largest number of concerns stored in one transaction by the background writer
+     * @param syncTimeout how long a request waits for its concern to be synced before it fails
+     * @param retryDelay how long the background writer waits before retrying a batch that failed
+     */
+    public record Ingest(@DefaultValue("direct") String mode, String logPath,
+            @DefaultValue("64MB") DataSize segmentSize, @DefaultValue("500") int batchSize,
+            @DefaultValue("5s") Duration syncTimeout, @DefaultValue("1s") Duration retryDelay) {
+    }
+
+    /**
+     * Settings for moving resolved concerns to the archive table.
+     *
+     * @param resolvedAge how long ago a resolved concern must have been reported before it is archived
+     * @param chunkSize the number of concerns moved in each transaction
+     * @param chunkPause how long to wait between chunks, so archiving does not crowd out requests
+     */
+    public record Archive(@DefaultValue("365d") Duration resolvedAge, @DefaultValue("500") int chunkSize,
+            @DefaultValue("100ms") Duration chunkPause) {
+    }
+
+    /**
+     * Limits for student name suggestions.
+     *
+     * @param defaultSize the number of suggestions returned when a client does not ask for a number
+     * @param maxSize the largest number of suggestions a client may ask for
+     */
+    public record Typeahead(@DefaultValue("10") int defaultSize, @DefaultValue("50") int maxSize) {
+    }
+}
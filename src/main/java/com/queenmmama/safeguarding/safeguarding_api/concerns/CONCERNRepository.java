@@ -1,8 +1,23 @@
 package com.queenmmama.safeguarding.safeguarding_api.concerns;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing CONCERN entities.
@@ -12,14 +27,34 @@ import java.util.UUID;
  * 
  * <p>Custom query methods for the CONCERN entity.</p>
  * 
- * <p>Includes a method to find concerns by student name.</p>
+ * <p>Includes a method to find concerns by student name, and keyset (cursor) page queries ordered by
+ * ({@code dateTime}, {@code id}) that accept the filters built by {@link CONCERNSpecifications}.</p>
+ * 
+ * <p>Partial updates and deletes are single statements whose affected row count tells the caller
+ * whether the concern existed, see {@link CONCERNPatchRepository} and {@link #deleteAndCount(UUID)}.</p>
  * @see CONCERN
  * 
  */
 
-public interface CONCERNRepository extends ListCrudRepository<CONCERN, UUID> {
+public interface CONCERNRepository extends ListCrudRepository<CONCERN, UUID>, JpaSpecificationExecutor<CONCERN>, CONCERNPatchRepository {
+
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming concerns.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
     List<CONCERN> findByStudentName(String studentName);
 
+    /**
+     * Finds the concerns about a student by folded name, with a seek on the {@code (studentNameKey, dateTime)} index.
+     * 
+     * @param studentNameKey the name folded by {@link CONCERNStudentNames#normalize(String)}
+     * @return the concerns about every student whose name folds to the key
+     * 
+     */
+
+    List<CONCERN> findByStudentNameKey(String studentNameKey);
+
     /**
      * Finds a list of CONCERN entities associated with the specified student name.
      * 
@@ -28,4 +63,199 @@ public interface CONCERNRepository extends ListCrudRepository<CONCERN, UUID> {
      * 
      */
 
+    /**
+     * Finds one page of concerns matching the given specification.
+     * 
+     * <p>Callers combine their filter with a keyset predicate from {@link CONCERNSpecifications} and sort by
+     * ({@code dateTime}, {@code id}), so the read is a bounded range scan of one of the entity's composite indexes.</p>
+     * 
+     * @param spec the filter and keyset predicate to apply
+     * @param sort the page order
+     * @param limit the maximum number of concerns to return
+     * @return the matching concerns in the requested order
+     * 
+     */
+
+    default List<CONCERN> findPage(Specification<CONCERN> spec, Sort sort, int limit) {
+        return this.findBy(spec, query -> query.sortBy(sort).limit(limit).all());
+    }
+
+    /**
+     * Finds one page of concern summaries matching the given specification.
+     * 
+     * <p>Works like {@link #findPage(Specification, Sort, int)} but selects only the {@link CONCERNSummary}
+     * columns, so the description is neither read nor materialised.</p>
+     * 
+     * @param spec the filter and keyset predicate to apply
+     * @param sort the page order
+     * @param limit the maximum number of summaries to return
+     * @return the matching concern summaries in the requested order
+     * 
+     */
+
+    default List<CONCERNSummary> findSummaryPage(Specification<CONCERN> spec, Sort sort, int limit) {
+        return this.findBy(spec, query -> query.as(CONCERNSummary.class).sortBy(sort).limit(limit).all());
+    }
+
+    /**
+     * Finds one page of concern keys and versions matching the given specification.
+     * 
+     * <p>Works like {@link #findPage(Specification, Sort, int)} but selects only what a page's entity tag
+     * depends on, so a conditional request can be answered without loading the concerns.</p>
+     * 
+     * @param spec the filter and keyset predicate to apply
+     * @param sort the page order
+     * @param limit the maximum number of versions to return
+     * @return the matching concern keys and versions in the requested order
+     * 
+     */
+
+    default List<CONCERNVersion> findVersionPage(Specification<CONCERN> spec, Sort sort, int limit) {
+        return this.findBy(spec, query -> query.as(CONCERNVersion.class).sortBy(sort).limit(limit).all());
+    }
+
+    /**
+     * Reads only the version of a concern.
+     * 
+     * @param id the ID of the concern
+     * @return the concern's version, or empty if it does not exist
+     * 
+     */
+
+    @Query("select c.version from CONCERN c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Reads which of the given IDs already belong to stored concerns.
+     * 
+     * @param ids the IDs to look for
+     * @return those of the IDs that exist
+     * 
+     */
+
+    @Query("select c.id from CONCERN c where c.id in :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Streams every concern in ({@code dateTime}, {@code id}) order without materialising the full result.
+     * 
+     * <p>Rows are fetched {@link #STREAM_FETCH_SIZE} at a time and loaded read-only, so Hibernate keeps no
+     * snapshots for them. The stream must be consumed and closed inside a transaction.</p>
+     * 
+     * @return a stream of all CONCERN entities, oldest first
+     * 
+     */
+
+    @Query("select c from CONCERN c order by c.dateTime asc, c.id asc")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CONCERN> streamAll();
+
+    /**
+     * Reads only the student, status and version of a concern, for adjusting the aggregate counts before it is
+     * deleted or patched at that version.
+     * 
+     * @param id the ID of the concern
+     * @return the concern's student, status and version, or empty if it does not exist
+     * 
+     */
+
+    Optional<CONCERNStudentStatusVersion> findStudentStatusById(UUID id);
+
+    /**
+     * Deletes a concern with a single {@code DELETE} statement, without loading it first.
+     * 
+     * @param id the ID of the concern to delete
+     * @return 1 if the concern was deleted, 0 if it did not exist
+     * 
+     */
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from CONCERN c where c.id = :id")
+    int deleteAndCount(@Param("id") UUID id);
+
+    /**
+     * Deletes a concern with a single {@code DELETE} statement if it still has the given version.
+     * 
+     * @param id the ID of the concern to delete
+     * @param version the version the caller last read
+     * @return 1 if the concern was deleted, 0 if it did not exist or its version has moved on
+     * 
+     */
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from CONCERN c where c.id = :id and c.version = :version")
+    int deleteAndCount(@Param("id") UUID id, @Param("version") long version);
+
+    /**
+     * Finds the oldest concerns in a status that were reported before a cut-off, for moving to the archive.
+     * 
+     * <p>Reads only IDs and institutions along the {@code (status, dateTime)} index.</p>
+     * 
+     * @param status the status the concerns must have
+     * @param before the time the concerns must have been reported before
+     * @param limit the maximum number of concerns to return
+     * @return the IDs and institutions of the matching concerns, oldest first
+     * 
+     */
+
+    @Query("select new com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNOwner(c.id, c.institutionId) from CONCERN c "
+            + "where c.status = :status and c.dateTime < :before order by c.dateTime asc")
+    List<CONCERNOwner> findArchivable(@Param("status") String status, @Param("before") Instant before, Limit limit);
+
+    /**
+     * Deletes concerns that were copied to the archive, if they are still in the given status and older than the
+     * cut-off, with a single {@code DELETE} statement.
+     * 
+     * @param ids the IDs of the archived concerns
+     * @param status the status the concerns must still have
+     * @param before the time the concerns must have been reported before
+     * @return the number of concerns deleted
+     * 
+     */
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from CONCERN c where c.id in :ids and c.status = :status and c.dateTime < :before")
+    int deleteArchived(@Param("ids") Collection<UUID> ids, @Param("status") String status, @Param("before") Instant before);
+
+    /**
+     * Finds student names saved before the folded key column existed, for backfilling it.
+     * 
+     * @param limit the maximum number of names to return
+     * @return distinct student names of concerns without a key
+     * 
+     */
+
+    @Query("select distinct c.studentName from CONCERN c where c.studentNameKey is null and c.studentName is not null")
+    List<String> findStudentNamesWithoutKey(Limit limit);
+
+    /**
+     * Sets the folded key of every concern about a student that does not have one yet.
+     * 
+     * @param studentName the student's name
+     * @param studentNameKey the name folded by {@link CONCERNStudentNames#normalize(String)}
+     * @return the number of concerns updated
+     * 
+     */
+
+    @Modifying(clearAutomatically = true)
+    @Query("update CONCERN c set c.studentNameKey = :studentNameKey where c.studentName = :studentName and c.studentNameKey is null")
+    int setStudentNameKey(@Param("studentName") String studentName, @Param("studentNameKey") String studentNameKey);
+
+    /**
+     * Stamps concerns saved without a report time, which could not be paged by their cursor, with the given time.
+     * 
+     * @param dateTime the time to record
+     * @return the number of concerns updated
+     * 
+     */
+
+    @Modifying(clearAutomatically = true)
+    @Query("update CONCERN c set c.dateTime = :dateTime where c.dateTime is null")
+    int fillMissingDateTimes(@Param("dateTime") Instant dateTime);
+
 }
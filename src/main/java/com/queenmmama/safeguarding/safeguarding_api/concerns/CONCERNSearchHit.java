@@ -0,0 +1,10 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+/**
+ * A concern matched by a full-text search, with its relevance score.
+ *
+ * @param concern the matching concern
+ * @param score the relevance score; higher is more relevant
+ */
+public record CONCERNSearchHit(CONCERN concern, float score) {
+}
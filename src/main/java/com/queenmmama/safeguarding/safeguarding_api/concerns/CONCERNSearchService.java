@@ -0,0 +1,303 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service class providing full-text search over the description of safeguarding concerns.
+ *
+ * <p>Descriptions are held in a Lucene inverted index that is kept up to date from
+ * {@link CONCERNChangedEvent}s once each change commits. Results are ranked by BM25 relevance; every
+ * search word also matches as a prefix, so "bruis" finds "bruising", while exact word matches rank higher.</p>
+ *
+ * <p>The index is not the system of record. It is rebuilt from the {@code concerns} table on a background
+ * thread once the application is ready, so requests are served (with partial results) while it fills.
+ * Archived concerns are dropped from the index and are not searched.</p>
+ *
+ * <p>One index holds every institution's concerns; searches only match those of the
+ * {@link CONCERNInstitutions#current() current} institution.</p>
+ *
+ */
+@Service
+public class CONCERNSearchService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(CONCERNSearchService.class);
+
+    private static final String ID_FIELD = "id";
+    private static final String INSTITUTION_FIELD = "institution";
+    private static final String DESCRIPTION_FIELD = "description";
+    private static final float EXACT_MATCH_BOOST = 2.0f;
+
+    private final CONCERNRepository concernRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CONCERNShards shards;
+    private final int maxResults;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+
+    /**
+     * IDs changed by live writes while a rebuild is running; the rebuild must not overwrite them with older rows.
+     */
+    private final Set<UUID> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new {@code CONCERNSearchService} and opens an empty index.
+     *
+     * @param concernRepository the repository used to rebuild the index and load matching concerns
+     * @param entityManager the entity manager used to detach concerns while rebuilding
+     * @param transactionManager the transaction manager used to stream concerns while rebuilding
+     * @param shards the databases concerns are stored in, if there is more than one
+     * @param properties the configured index location and result limit
+     * @throws IOException if the index cannot be opened
+     *
+     */
+
+    public CONCERNSearchService(CONCERNRepository concernRepository, EntityManager entityManager,
+            PlatformTransactionManager transactionManager, Optional<CONCERNShards> shards, CONCERNProperties properties)
+            throws IOException {
+        this.concernRepository = concernRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shards = shards.orElse(CONCERNShards.SINGLE);
+        this.maxResults = properties.search().maxResults();
+        String indexPath = properties.search().indexPath();
+        this.directory = indexPath == null || indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+        this.indexWriter = new IndexWriter(this.directory, new IndexWriterConfig(this.analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(this.indexWriter, null);
+    }
+
+    /**
+     * Searches the descriptions of the current institution's concerns for the given words, most relevant first.
+     *
+     * @param query the words to search for; every word must match, either exactly or as a prefix
+     * @param size the maximum number of results, capped at the configured maximum
+     * @return the matching concerns with their scores
+     * @throws IllegalArgumentException if the query has no searchable words or the size is not positive
+     *
+     */
+
+    public List<CONCERNSearchHit> search(String query, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Result size must be positive");
+        }
+        List<String> words = this.analyze(query == null ? "" : query);
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(INSTITUTION_FIELD, CONCERNInstitutions.current())), BooleanClause.Occur.FILTER);
+        for (String word : words) {
+            Term term = new Term(DESCRIPTION_FIELD, word);
+            builder.add(new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(term), EXACT_MATCH_BOOST), BooleanClause.Occur.SHOULD)
+                    .add(new PrefixQuery(term), BooleanClause.Occur.SHOULD)
+                    .build(), BooleanClause.Occur.MUST);
+        }
+
+        Map<UUID, Float> scores = new LinkedHashMap<>();
+        try {
+            // Makes writes committed since the last search visible; cheap when nothing has changed.
+            this.searcherManager.maybeRefreshBlocking();
+            IndexSearcher searcher = this.searcherManager.acquire();
+            try {
+                for (ScoreDoc scoreDoc : searcher.search(builder.build(), Math.min(size, this.maxResults)).scoreDocs) {
+                    String id = searcher.storedFields().document(scoreDoc.doc).get(ID_FIELD);
+                    scores.put(UUID.fromString(id), scoreDoc.score);
+                }
+            } finally {
+                this.searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<UUID, CONCERN> concerns = new LinkedHashMap<>();
+        for (CONCERN concern : this.concernRepository.findAllById(scores.keySet())) {
+            concerns.put(concern.getID(), concern);
+        }
+        List<CONCERNSearchHit> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> {
+            CONCERN concern = concerns.get(id);
+            if (concern != null) {
+                hits.add(new CONCERNSearchHit(concern, score));
+            }
+        });
+        return hits;
+    }
+
+    /**
+     * Reports whether the startup rebuild has finished, i.e. whether results cover every concern.
+     *
+     * @return {@code true} once the index has been fully built
+     *
+     */
+
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Applies a committed change to the index.
+     *
+     * @param event the change
+     *
+     */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCONCERNChanged(CONCERNChangedEvent event) {
+        if (this.rebuilding) {
+            this.changedDuringRebuild.add(event.id());
+        }
+        try {
+            if (event.type() == CONCERNChangedEvent.Type.DELETED || event.type() == CONCERNChangedEvent.Type.ARCHIVED) {
+                this.indexWriter.deleteDocuments(new Term(ID_FIELD, event.id().toString()));
+            } else if (event.concern() != null) {
+                this.index(event.concern().getID(), event.institutionId(), event.concern().getDescription());
+            } else if (event.patch().changes("description")) {
+                this.index(event.id(), event.institutionId(), (String)event.patch().changes().get("description"));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the {@code concerns} table on the application task executor once the
+     * application is ready.
+     *
+     */
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        this.rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the {@code concerns} table of every shard on the calling thread.
+     *
+     * <p>Concerns changed by live writes while the rebuild runs are left as those writes indexed them.</p>
+     *
+     */
+
+    public void rebuild() {
+        long started = System.nanoTime();
+        this.ready = false;
+        this.rebuilding = true;
+        try {
+            long[] indexed = new long[1];
+            this.shards.forEachShard(shard -> indexed[0] += this.readOnlyTransaction.execute(status -> this.indexAll()));
+            this.indexWriter.commit();
+            this.searcherManager.maybeRefreshBlocking();
+            this.ready = true;
+            log.info("Rebuilt concern search index with {} concerns in {} ms", indexed[0], (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to rebuild concern search index", e);
+        } finally {
+            this.rebuilding = false;
+            this.changedDuringRebuild.clear();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        this.searcherManager.close();
+        this.indexWriter.close();
+        this.directory.close();
+        this.analyzer.close();
+    }
+
+    /**
+     * Indexes every concern visible to the current transaction that no live write has indexed meanwhile.
+     */
+    private long indexAll() {
+        long count = 0;
+        try (Stream<CONCERN> concerns = this.concernRepository.streamAll()) {
+            Iterator<CONCERN> iterator = concerns.iterator();
+            while (iterator.hasNext()) {
+                CONCERN concern = iterator.next();
+                if (!this.changedDuringRebuild.contains(concern.getID())) {
+                    String institution = concern.getInstitutionId() == null ? CONCERNInstitutions.DEFAULT : concern.getInstitutionId();
+                    this.index(concern.getID(), institution, concern.getDescription());
+                    count++;
+                }
+                this.entityManager.detach(concern);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    private void index(UUID id, String institution, String description) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, id.toString(), Field.Store.YES));
+        document.add(new StringField(INSTITUTION_FIELD, institution, Field.Store.NO));
+        document.add(new TextField(DESCRIPTION_FIELD, description == null ? "" : description, Field.Store.NO));
+        this.indexWriter.updateDocument(new Term(ID_FIELD, id.toString()), document);
+    }
+
+    private List<String> analyze(String text) {
+        List<String> words = new ArrayList<>();
+        try (TokenStream tokens = this.analyzer.tokenStream(DESCRIPTION_FIELD, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                words.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return words;
+    }
+}
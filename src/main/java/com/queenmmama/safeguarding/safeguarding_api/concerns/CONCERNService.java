@@ -1,9 +1,26 @@
 package com.queenmmama.safeguarding.safeguarding_api.concerns;
 
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class for managing safeguarding concerns.
@@ -12,30 +29,69 @@ import org.springframework.stereotype.Service;
  * encapsulating business logic and provides methods to create, retrieve, update, and delete CONCERN entities.
  * It interacts with the {@link CONCERNRepository} to perform database operations.</p>
  * 
+ * <p>Every method runs in its own transaction, read-only for reads so that Hibernate loads entities without
+ * snapshots and skips dirty checking and flushing. Open-in-view is disabled, so entities returned from here are
+ * detached and must be fully loaded before they leave the service.</p>
+ * 
+ * <p>Single concerns are cached by institution and ID in the {@value CONCERNCacheCoordinator#CACHE_NAME} cache, which the write
+ * methods refresh or evict. Every write also publishes a {@link CONCERNChangedEvent}, and writes that change a
+ * concern's student or status adjust the {@link CONCERNAggregateService} counts in the same transaction.</p>
+ * 
+ * <p>Resolved concerns are moved to an archive table by {@link CONCERNArchiveService}. {@code getCONCERN} and
+ * {@code getCONCERNVersion} fall back to the archive, and page reads include it when the filter asks for
+ * archived concerns. The other methods work on current concerns only; archived concerns cannot be changed.</p>
+ * 
+ * <p>Every method works on the concerns of the {@link CONCERNInstitutions#current() current} institution only.
+ * Hibernate restricts every read and write to it, including loads by ID, so another institution's concern is
+ * reported as not found.</p>
+ * 
  * <p>Supported methods or operations include:</p>
  * <ul>
  *  <li>getAllCONCERNs - Retrieve all concerns</li>
+ *  <li>getCONCERNPage - Retrieve one keyset (cursor) page of concerns, optionally filtered</li>
+ *  <li>getCONCERNSummaryPage - Retrieve the same page with only the columns shown in list views</li>
  *  <li>getCONCERN - Retrieve a specific concern by ID</li>
+ *  <li>getCONCERNVersion / getCONCERNVersionPage - Read only versions, to validate a client's cached copy</li>
  *  <li>createCONCERN - Create a new concern with validation check</li>
+ *  <li>createCONCERNs - Create many concerns in JDBC batches, reporting validation errors per item</li>
+ *  <li>createIngestedCONCERNs - Store concerns replayed from the write-behind ingest log, skipping those already stored</li>
  *  <li>updateCONCERN - Update an existing concern by ID</li>
+ *  <li>patchCONCERN - Change some fields of a concern with a single versioned UPDATE</li>
  *  <li>deleteCONCERN - Delete a concern by ID</li>
- *  <li>getCONCERNsByStudentName - Retrieve concerns filtered by student name</li>
+ *  <li>getCONCERNsByStudentName - Retrieve concerns filtered by student name, ignoring case and accents</li>
  * </ul>
  * 
  */
 @Service
 public class CONCERNService {
     private final CONCERNRepository concernRepository;
+    private final CONCERNArchiveRepository archiveRepository;
+    private final EntityManager entityManager;
+    private final CONCERNProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CONCERNAggregateService aggregateService;
 
     /**
      * Constructs a new {@code CONCERNService} with the specified CONCERNRepository.
      * 
      * @param concernRepository the repository used to manage CONCERN entities
+     * @param archiveRepository the repository used to read archived concerns
+     * @param entityManager the entity manager used to flush and clear bulk inserts
+     * @param properties the configured page and batch limits
+     * @param eventPublisher the publisher used to announce changes to concerns
+     * @param aggregateService the service maintaining the per-student and per-status counts
      * 
      */
 
-    public CONCERNService(CONCERNRepository concernRepository) {
+    public CONCERNService(CONCERNRepository concernRepository, CONCERNArchiveRepository archiveRepository,
+            EntityManager entityManager, CONCERNProperties properties, ApplicationEventPublisher eventPublisher,
+            CONCERNAggregateService aggregateService) {
         this.concernRepository = concernRepository;
+        this.archiveRepository = archiveRepository;
+        this.entityManager = entityManager;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.aggregateService = aggregateService;
     } 
 
     /**
@@ -45,12 +101,53 @@ public class CONCERNService {
      * 
      */
 
+    @Transactional(readOnly = true)
     public List<CONCERN> getAllCONCERNs() {
         return this.concernRepository.findAll();
     }
 
     /**
-     * Retrieves a specific CONCERN by its unique ID.
+     * Retrieves one page of safeguarding concerns matching the filter, ordered by dateTime and then ID.
+     * 
+     * <p>Pages are read with a keyset predicate on the previous page's edge rather than an OFFSET,
+     * so the cost of a page does not grow with its depth into the table.</p>
+     * 
+     * @param filter the criteria concerns must match; use {@link CONCERNFilter#NONE} for all concerns
+     * @param cursor the opaque cursor returned with a previous page, or {@code null} for the first page
+     * @param size the requested page size, or {@code null} for the default; capped at the configured maximum
+     * @return the requested page with cursors to its neighbours
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+     * 
+     */
+
+    @Transactional(readOnly = true)
+    public CONCERNPage<CONCERN> getCONCERNPage(CONCERNFilter filter, String cursor, Integer size) {
+        return this.readPage(filter, cursor, size, this.concernRepository::findPage, this.archiveRepository::findPage,
+                concern -> new CONCERNCursor(concern.getDateTime(), concern.getID(), true));
+    }
+
+    /**
+     * Retrieves one page of safeguarding concern summaries matching the filter, ordered by dateTime and then ID.
+     * 
+     * <p>Pages the same way as {@link #getCONCERNPage(CONCERNFilter, String, Integer)}, and its cursors are
+     * interchangeable with this method's, but reads only the columns shown in list views.</p>
+     * 
+     * @param filter the criteria concerns must match; use {@link CONCERNFilter#NONE} for all concerns
+     * @param cursor the opaque cursor returned with a previous page, or {@code null} for the first page
+     * @param size the requested page size, or {@code null} for the default; capped at the configured maximum
+     * @return the requested page of summaries with cursors to its neighbours
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+     * 
+     */
+
+    @Transactional(readOnly = true)
+    public CONCERNPage<CONCERNSummary> getCONCERNSummaryPage(CONCERNFilter filter, String cursor, Integer size) {
+        return this.readPage(filter, cursor, size, this.concernRepository::findSummaryPage, this.archiveRepository::findSummaryPage,
+                summary -> new CONCERNCursor(summary.dateTime(), summary.id(), true));
+    }
+
+    /**
+     * Retrieves a specific CONCERN by its unique ID, from the archive if it is no longer current.
      * 
      * @param id the UUID of the concern to retrieve
      * @return the CONCERN entity if found
@@ -58,12 +155,50 @@ public class CONCERNService {
      * 
      */
 
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CONCERNCacheCoordinator.CACHE_NAME, key = CONCERNCacheCoordinator.KEY_OF_ID)
     public CONCERN getCONCERN(UUID id) {
-        return (CONCERN)this.concernRepository.findById(id).orElseThrow(() -> {
+        return (CONCERN)this.concernRepository.findById(id)
+                .or(() -> this.archiveRepository.findById(id).map(CONCERNArchive::toCONCERN))
+                .orElseThrow(() -> {
+                    return new NoSuchElementException("CONCERN not found with id: " + String.valueOf(id));
+                });
+    }
+
+    /**
+     * Reads only the version of a current or archived concern, to validate a client's cached copy without loading it.
+     * 
+     * @param id the UUID of the concern
+     * @return the concern's current version
+     * @throws NoSuchElementException if no concern with the specified ID exists
+     * 
+     */
+
+    @Transactional(readOnly = true)
+    public long getCONCERNVersion(UUID id) {
+        return this.concernRepository.findVersionById(id).or(() -> this.archiveRepository.findVersionById(id)).orElseThrow(() -> {
             return new NoSuchElementException("CONCERN not found with id: " + String.valueOf(id));
         });
     }
 
+    /**
+     * Retrieves the keys and versions of one page of concerns, to validate a client's cached copy of the page
+     * without loading it.
+     * 
+     * @param filter the criteria concerns must match; use {@link CONCERNFilter#NONE} for all concerns
+     * @param cursor the opaque cursor returned with a previous page, or {@code null} for the first page
+     * @param size the requested page size, or {@code null} for the default; capped at the configured maximum
+     * @return the page's concern keys and versions with the same cursors as the full page
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+     * 
+     */
+
+    @Transactional(readOnly = true)
+    public CONCERNPage<CONCERNVersion> getCONCERNVersionPage(CONCERNFilter filter, String cursor, Integer size) {
+        return this.readPage(filter, cursor, size, this.concernRepository::findVersionPage, this.archiveRepository::findVersionPage,
+                version -> new CONCERNCursor(version.dateTime(), version.id(), true));
+    }
+
     /**
      * Creates a new safeguarding concern with the provided details.
      * 
@@ -73,60 +208,371 @@ public class CONCERNService {
      * 
      */
 
+    @Transactional
+    @CachePut(cacheNames = CONCERNCacheCoordinator.CACHE_NAME, key = CONCERNCacheCoordinator.KEY_OF_RESULT)
     public CONCERN createCONCERN(CONCERN concern) {
-        if (concern != null && concern.getStudentName() != null && concern.getReportedBy() != null && concern.getDescription() != null && concern.getStatus() != null) {
-            return (CONCERN)this.concernRepository.save(concern);
-        } else {
-            throw new IllegalArgumentException("CONCERN must not be null");
+        validateNewCONCERN(concern);
+        CONCERN saved = (CONCERN)this.concernRepository.save(concern);
+        this.aggregateService.recordCreated(List.of(saved));
+        this.eventPublisher.publishEvent(CONCERNChangedEvent.saved(CONCERNChangedEvent.Type.CREATED, saved));
+        return saved;
+    }
+
+    /**
+     * Creates many safeguarding concerns in one transaction, for example when importing historic records.
+     * 
+     * <p>Each concern is validated with the same rules as {@link #createCONCERN(CONCERN)}; invalid ones are
+     * reported and skipped. Valid ones are inserted in chunks that are flushed as JDBC batches and then
+     * cleared from the persistence context, so memory use is bounded by the chunk size.</p>
+     * 
+     * @param concerns the concerns to create
+     * @return the number created and the outcome of each submitted concern, in submission order
+     * @throws IllegalArgumentException if the list is null, empty or larger than the configured maximum
+     * 
+     */
+
+    @Transactional
+    public CONCERNBatchResult createCONCERNs(List<CONCERN> concerns) {
+        if (concerns == null || concerns.isEmpty() || concerns.size() > this.properties.batch().maxItems()) {
+            throw new IllegalArgumentException("Batch must contain between 1 and " + this.properties.batch().maxItems() + " CONCERNs");
+        }
+        int chunkSize = this.properties.batch().chunkSize();
+        CONCERNBatchResult.Item[] items = new CONCERNBatchResult.Item[concerns.size()];
+        List<CONCERN> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        int failed = 0;
+        for (int i = 0; i < concerns.size(); i++) {
+            try {
+                validateNewCONCERN(concerns.get(i));
+            } catch (IllegalArgumentException e) {
+                items[i] = new CONCERNBatchResult.Item(i, null, e.getMessage());
+                failed++;
+                continue;
+            }
+            chunk.add(concerns.get(i));
+            chunkIndexes.add(i);
+            if (chunk.size() == chunkSize) {
+                this.saveChunk(chunk, chunkIndexes, items);
+            }
+        }
+        this.saveChunk(chunk, chunkIndexes, items);
+        return new CONCERNBatchResult(concerns.size() - failed, failed, List.of(items));
+    }
+
+    /**
+     * Stores concerns that were accepted through the write-behind ingest log and already carry their IDs.
+     * 
+     * <p>The log may replay concerns that were stored just before a crash, so concerns whose IDs already exist
+     * are skipped rather than inserted twice. The rest are inserted in chunks like {@link #createCONCERNs(List)}.</p>
+     * 
+     * @param concerns validated concerns with their assigned IDs
+     * @return the number of concerns inserted
+     * 
+     */
+
+    @Transactional
+    public int createIngestedCONCERNs(List<CONCERN> concerns) {
+        if (concerns.isEmpty()) {
+            return 0;
         }
+        HashSet<UUID> existing = new HashSet<>(this.concernRepository.findExistingIds(concerns.stream().map(CONCERN::getID).toList()));
+        int chunkSize = this.properties.batch().chunkSize();
+        CONCERNBatchResult.Item[] items = new CONCERNBatchResult.Item[concerns.size()];
+        List<CONCERN> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        int inserted = 0;
+        for (int i = 0; i < concerns.size(); i++) {
+            if (!existing.add(concerns.get(i).getID())) {
+                continue;
+            }
+            chunk.add(concerns.get(i));
+            chunkIndexes.add(i);
+            inserted++;
+            if (chunk.size() == chunkSize) {
+                this.saveChunk(chunk, chunkIndexes, items);
+            }
+        }
+        this.saveChunk(chunk, chunkIndexes, items);
+        return inserted;
     }
 
     /**
      * Updates an existing safeguarding concern identified by its ID with the provided details.
      * @param id the UUID of the concern to update
-     * @param updatedCONCERN the CONCERN data with updated fileds
+     * @param updatedCONCERN the CONCERN data with updated fileds; if it carries a version, it must be the current one,
+     *        and if it has no dateTime the concern keeps its own
      * @return the updated CONCERN entity
      * @throws NoSuchElementException if no concern with the specified ID exists   
+     * @throws OptimisticLockingFailureException if the concern was changed since the supplied version was read
+     * @throws IllegalArgumentException if a field is longer than its column
      *  
      */
 
+    @Transactional
+    @CachePut(cacheNames = CONCERNCacheCoordinator.CACHE_NAME, key = CONCERNCacheCoordinator.KEY_OF_ID)
     public CONCERN updateCONCERN(UUID id, CONCERN updatedCONCERN) {
         CONCERN existing = (CONCERN)this.concernRepository.findById(id).orElseThrow(() -> {
             return new NoSuchElementException("CONCERN not found with id: " + String.valueOf(id));
         });
+        if (updatedCONCERN.getVersion() != null && !updatedCONCERN.getVersion().equals(existing.getVersion())) {
+            throw staleWrite(id);
+        }
+        validateFieldLengths(updatedCONCERN.getStudentName(), updatedCONCERN.getReportedBy(), updatedCONCERN.getDescription(),
+                updatedCONCERN.getStatus());
+        CONCERNStudentStatus before = CONCERNStudentStatus.of(existing);
         existing.setStudentName(updatedCONCERN.getStudentName());
         existing.setReportedBy(updatedCONCERN.getReportedBy());
         existing.setDescription(updatedCONCERN.getDescription());
         existing.setStatus(updatedCONCERN.getStatus());
-        existing.setDateTime(updatedCONCERN.getDateTime());
-        return (CONCERN)this.concernRepository.save(existing);
+        if (updatedCONCERN.getDateTime() != null) {
+            existing.setDateTime(updatedCONCERN.getDateTime());
+        }
+        CONCERN saved = (CONCERN)this.concernRepository.save(existing);
+        this.aggregateService.recordTransition(before, CONCERNStudentStatus.of(saved));
+        this.eventPublisher.publishEvent(CONCERNChangedEvent.saved(CONCERNChangedEvent.Type.UPDATED, saved));
+        return saved;
     }
 
     /**
-     * Deletes a safeguarding concern identified by its ID.
+     * Changes only the fields supplied in a merge patch, without loading the concern.
+     * 
+     * <p>The change and the version check are one {@code UPDATE ... WHERE id = ? AND version = ?} statement.
+     * Only when it matches no row is the concern looked up, to tell a missing concern from a stale patch.
+     * A patch of the student or status first reads those two columns and the version, and is stale unless that
+     * is the patch's version, so the aggregate counts are moved from the values the patch replaces.</p>
+     * 
+     * @param id the UUID of the concern to patch
+     * @param patch the fields to change and the version they were based on
+     * @return the concern's new version
+     * @throws NoSuchElementException if no concern with the specified ID exists
+     * @throws OptimisticLockingFailureException if the concern was changed since the patch's version was read
+     * @throws IllegalArgumentException if a patched field is longer than its column
+     * 
+     */
+
+    @Transactional
+    @CacheEvict(cacheNames = CONCERNCacheCoordinator.CACHE_NAME, key = CONCERNCacheCoordinator.KEY_OF_ID)
+    public long patchCONCERN(UUID id, CONCERNPatch patch) {
+        validateFieldLengths((String)patch.changes().get("studentName"), (String)patch.changes().get("reportedBy"),
+                (String)patch.changes().get("description"), (String)patch.changes().get("status"));
+        CONCERNStudentStatus before = null;
+        if (patch.changes("studentName") || patch.changes("status")) {
+            CONCERNStudentStatusVersion read = this.concernRepository.findStudentStatusById(id).orElseThrow(() -> {
+                return new NoSuchElementException("CONCERN not found with id: " + String.valueOf(id));
+            });
+            if (read.version() != patch.version()) {
+                throw staleWrite(id);
+            }
+            before = read.studentStatus();
+        }
+        if (this.concernRepository.applyPatch(id, patch) == 0) {
+            if (before == null && !this.concernRepository.existsById(id)) {
+                throw new NoSuchElementException("CONCERN not found with id: " + String.valueOf(id));
+            }
+            throw staleWrite(id);
+        }
+        if (before != null) {
+            this.aggregateService.recordTransition(before, new CONCERNStudentStatus(
+                    (String)patch.changes().getOrDefault("studentName", before.studentName()),
+                    (String)patch.changes().getOrDefault("status", before.status())));
+        }
+        this.eventPublisher.publishEvent(CONCERNChangedEvent.patched(id, patch));
+        return patch.version() + 1;
+    }
+
+    /**
+     * Deletes a safeguarding concern identified by its ID with a single DELETE statement, after reading its
+     * student, status and version for the aggregate counts.
+     * 
+     * <p>The DELETE is always conditional on the version that was read, so the counts are taken off the
+     * student and status the concern had when it was deleted. If another request changes the concern in
+     * between, nothing is deleted and the caller is told the concern was modified.</p>
      * 
      * @param id the UUID of the concern to delete
+     * @param expectedVersion the version the caller last read, or {@code null} to delete whatever the version
      * @throws NoSuchElementException if no concern with the specified ID exists
+     * @throws OptimisticLockingFailureException if the concern was changed since the expected version was read,
+     *         or while it was being deleted
      * 
      */
-    public void deleteCONCERN(UUID id) {
-        if (!this.concernRepository.existsById(id)) {
-            throw new NoSuchElementException("CONCERN not found with id: " + String.valueOf(id));
-        } else {
-            this.concernRepository.deleteById(id);
+    @Transactional
+    @CacheEvict(cacheNames = CONCERNCacheCoordinator.CACHE_NAME, key = CONCERNCacheCoordinator.KEY_OF_ID)
+    public void deleteCONCERN(UUID id, Long expectedVersion) {
+        CONCERNStudentStatusVersion before = this.concernRepository.findStudentStatusById(id).orElseThrow(() -> {
+            return new NoSuchElementException("CONCERN not found with id: " + String.valueOf(id));
+        });
+        if (expectedVersion != null && !expectedVersion.equals(before.version())) {
+            throw staleWrite(id);
+        }
+        if (this.concernRepository.deleteAndCount(id, before.version()) == 0) {
+            throw staleWrite(id);
         }
+        this.aggregateService.recordTransition(before.studentStatus(), null);
+        this.eventPublisher.publishEvent(CONCERNChangedEvent.deleted(id));
     }
 
     /**
-     * Retrieves a list of concerns filtered by the specified student name.
+     * Retrieves a list of concerns filtered by the specified student name, ignoring case, accents and extra spaces.
      * 
      * @param studentName the name of the student whose concerns are to be retrieved
      * @return a list of CONCERNs associated with the given student name
      * 
      */
 
+    @Transactional(readOnly = true)
     public List<CONCERN> getCONCERNsByStudentName(String studentName) {
-        return this.concernRepository.findByStudentName(studentName);
+        return this.concernRepository.findByStudentNameKey(CONCERNStudentNames.normalize(studentName));
+    }
+
+    /**
+     * Checks the fields a new concern must have, and stamps it with the current time if it has none.
+     * 
+     * @param concern the new concern
+     * @throws IllegalArgumentException if the concern or any required field is null, or a field is longer than
+     *         its column
+     */
+    static void validateNewCONCERN(CONCERN concern) {
+        if (concern == null) {
+            throw new IllegalArgumentException("CONCERN must not be null");
+        }
+        if (concern.getStudentName() == null || concern.getReportedBy() == null || concern.getDescription() == null || concern.getStatus() == null) {
+            throw new IllegalArgumentException("CONCERN studentName, reportedBy, description and status must not be null");
+        }
+        validateFieldLengths(concern.getStudentName(), concern.getReportedBy(), concern.getDescription(), concern.getStatus());
+        if (concern.getDateTime() == null) {
+            concern.setDateTime(Instant.now());
+        }
+    }
+
+    /**
+     * Checks that the text fields of a new, replaced or patched concern fit their columns, so that a value that
+     * is too long is rejected rather than failing the statement.
+     * 
+     * @param studentName the student's name, or {@code null} if it is not being set
+     * @param reportedBy the reporter, or {@code null} if it is not being set
+     * @param description the description, or {@code null} if it is not being set
+     * @param status the status, or {@code null} if it is not being set
+     * @throws IllegalArgumentException if a field, or the folded student name, is longer than its column
+     */
+    static void validateFieldLengths(String studentName, String reportedBy, String description, String status) {
+        if (isTooLong(studentName) || studentName != null && isTooLong(CONCERNStudentNames.normalize(studentName))
+                || isTooLong(reportedBy) || isTooLong(description) || isTooLong(status)) {
+            throw new IllegalArgumentException("CONCERN studentName, reportedBy, description and status must not be longer than "
+                    + CONCERN.MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    private static boolean isTooLong(String value) {
+        return value != null && value.length() > CONCERN.MAX_TEXT_LENGTH;
+    }
+
+    private static OptimisticLockingFailureException staleWrite(UUID id) {
+        return new OptimisticLockingFailureException("CONCERN was modified by another request, id: " + String.valueOf(id));
+    }
+
+    private void saveChunk(List<CONCERN> chunk, List<Integer> chunkIndexes, CONCERNBatchResult.Item[] items) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<CONCERN> saved = this.concernRepository.saveAll(chunk);
+        this.aggregateService.recordCreated(saved);
+        for (int j = 0; j < saved.size(); j++) {
+            int index = chunkIndexes.get(j);
+            items[index] = new CONCERNBatchResult.Item(index, saved.get(j).getID(), null);
+            this.eventPublisher.publishEvent(CONCERNChangedEvent.saved(CONCERNChangedEvent.Type.CREATED, saved.get(j)));
+        }
+        // Send the chunk as JDBC batches, then drop it from the persistence context to bound memory.
+        this.entityManager.flush();
+        this.entityManager.clear();
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private int resolvePageSize(Integer size) {
+        CONCERNProperties.Page page = this.properties.page();
+        if (size == null) {
+            return Math.min(page.defaultSize(), page.maxSize());
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, page.maxSize());
+    }
+
+    private <T> CONCERNPage<T> readPage(CONCERNFilter filter, String cursor, Integer size, PageQuery<CONCERN, T> query,
+            PageQuery<CONCERNArchive, T> archiveQuery, Function<T, CONCERNCursor> keyOf) {
+        int limit = this.resolvePageSize(size);
+        if (cursor == null || cursor.isBlank()) {
+            List<T> rows = find(filter, null, CONCERNSpecifications.KEYSET_ORDER, limit + 1, query, archiveQuery, keyOf);
+            return forwardPage(rows, limit, false, keyOf);
+        }
+        CONCERNCursor position = CONCERNCursor.decode(cursor);
+        if (position.forward()) {
+            List<T> rows = find(filter, position, CONCERNSpecifications.KEYSET_ORDER, limit + 1, query, archiveQuery, keyOf);
+            return forwardPage(rows, limit, true, keyOf);
+        }
+        List<T> rows = new ArrayList<>(find(filter, position, CONCERNSpecifications.REVERSE_KEYSET_ORDER, limit + 1,
+                query, archiveQuery, keyOf));
+        boolean hasPrevious = rows.size() > limit;
+        List<T> items = rows.subList(0, Math.min(limit, rows.size()));
+        Collections.reverse(items);
+        return new CONCERNPage<>(List.copyOf(items),
+                items.isEmpty() ? null : cursorAt(items.get(items.size() - 1), true, keyOf),
+                hasPrevious ? cursorAt(items.get(0), false, keyOf) : null);
+    }
+
+    /**
+     * Reads up to {@code limit} rows past the cursor from the current concerns and, if the filter asks for them,
+     * the archived ones, merged in the order of {@code sort}.
+     */
+    private static <T> List<T> find(CONCERNFilter filter, CONCERNCursor position, Sort sort, int limit,
+            PageQuery<CONCERN, T> query, PageQuery<CONCERNArchive, T> archiveQuery, Function<T, CONCERNCursor> keyOf) {
+        List<T> rows = query.find(where(filter, position), sort, limit);
+        if (!filter.includeArchived()) {
+            return rows;
+        }
+        List<T> archived = archiveQuery.find(where(filter, position), sort, limit);
+        if (archived.isEmpty()) {
+            return rows;
+        }
+        Comparator<T> order = Comparator.comparing(keyOf, CONCERNSpecifications.KEY_COMPARATOR);
+        // A concern archived between the two reads may be seen in both tables unless the isolation level prevents it.
+        Set<UUID> seen = new HashSet<>();
+        return Stream.concat(rows.stream(), archived.stream())
+                .sorted(sort == CONCERNSpecifications.REVERSE_KEYSET_ORDER ? order.reversed() : order)
+                .filter(row -> seen.add(keyOf.apply(row).id()))
+                .limit(limit)
+                .toList();
+    }
+
+    private static <E> Specification<E> where(CONCERNFilter filter, CONCERNCursor position) {
+        Specification<E> matching = CONCERNSpecifications.matching(filter);
+        if (position == null) {
+            return matching;
+        }
+        return matching.and(position.forward() ? CONCERNSpecifications.<E>after(position) : CONCERNSpecifications.<E>before(position));
+    }
+
+    private static <T> CONCERNPage<T> forwardPage(List<T> rows, int limit, boolean hasPrevious, Function<T, CONCERNCursor> keyOf) {
+        boolean hasNext = rows.size() > limit;
+        List<T> items = List.copyOf(rows.subList(0, Math.min(limit, rows.size())));
+        return new CONCERNPage<>(items,
+                hasNext ? cursorAt(items.get(items.size() - 1), true, keyOf) : null,
+                hasPrevious && !items.isEmpty() ? cursorAt(items.get(0), false, keyOf) : null);
+    }
+
+    private static <T> String cursorAt(T item, boolean forward, Function<T, CONCERNCursor> keyOf) {
+        CONCERNCursor key = keyOf.apply(item);
+        return new CONCERNCursor(key.dateTime(), key.id(), forward).encode();
+    }
+
+    /**
+     * One keyset page read from {@link CONCERNRepository} or {@link CONCERNArchiveRepository}, of full concerns,
+     * summaries or versions.
+     */
+    @FunctionalInterface
+    private interface PageQuery<E, T> {
+        List<T> find(Specification<E> spec, Sort sort, int limit);
     }
 }
 
@@ -0,0 +1,74 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.NoSuchElementException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public {@link CONCERNService} method.
+ *
+ * <p>Publishes the {@code concerns.service.calls} timer with a percentile histogram, tagged with the
+ * {@code method} name and a {@code result} of "success", "not_found" ({@link NoSuchElementException}),
+ * "bad_request" ({@link IllegalArgumentException}), "conflict" ({@link OptimisticLockingFailureException})
+ * or "error".</p>
+ *
+ */
+@Aspect
+@Component
+public class CONCERNServiceMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new {@code CONCERNServiceMetrics}.
+     *
+     * @param meterRegistry the registry the service timers are published to
+     *
+     */
+
+    public CONCERNServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times one service call and records its result.
+     *
+     * @param call the intercepted call
+     * @return the call's return value
+     * @throws Throwable whatever the call throws
+     *
+     */
+
+    @Around("execution(public * com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNService.*(..))")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        String result = "success";
+        try {
+            return call.proceed();
+        } catch (NoSuchElementException e) {
+            result = "not_found";
+            throw e;
+        } catch (IllegalArgumentException e) {
+            result = "bad_request";
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            result = "conflict";
+            throw e;
+        } catch (Throwable e) {
+            result = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("concerns.service.calls")
+                    .description("Latency of CONCERNService methods")
+                    .tag("method", call.getSignature().getName())
+                    .tag("result", result)
+                    .publishPercentileHistogram()
+                    .register(this.meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The databases concerns are stored in, for background work that has to visit every institution.
+ *
+ * <p>Requests only ever touch the database of their own institution, chosen from {@link CONCERNInstitutions}.
+ * Work such as rebuilding counts or indexes instead runs once per shard, as {@link CONCERNInstitutions#ALL}, so it
+ * sees every institution stored there. Transactions must begin and end inside {@link #onShard(int, Supplier)}.</p>
+ *
+ * <p>Components that do such work take an optional {@code CONCERNShards} and fall back to {@link #SINGLE} when
+ * the application is not sharded.</p>
+ *
+ */
+public interface CONCERNShards {
+
+    /**
+     * A single database holding every institution.
+     */
+    CONCERNShards SINGLE = new CONCERNShards() {
+
+        @Override
+        public int count() {
+            return 1;
+        }
+
+        @Override
+        public <T> T onShard(int shard, Supplier<T> work) {
+            if (shard != 0) {
+                throw new IllegalArgumentException("No shard " + shard);
+            }
+            return CONCERNInstitutions.call(CONCERNInstitutions.ALL, work);
+        }
+    };
+
+    /**
+     * @return the number of shards
+     */
+    int count();
+
+    /**
+     * Runs work as {@link CONCERNInstitutions#ALL} against one shard.
+     *
+     * @param <T> the type of the work's result
+     * @param shard the shard, from 0 to {@link #count()} - 1
+     * @param work the work
+     * @return the work's result
+     * @throws IllegalArgumentException if there is no such shard
+     */
+    <T> T onShard(int shard, Supplier<T> work);
+
+    /**
+     * Runs work as {@link CONCERNInstitutions#ALL} against each shard in turn.
+     *
+     * @param work the work, given the shard it runs against
+     */
+    default void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < this.count(); shard++) {
+            int current = shard;
+            this.onShard(shard, () -> {
+                work.accept(current);
+                return null;
+            });
+        }
+    }
+}
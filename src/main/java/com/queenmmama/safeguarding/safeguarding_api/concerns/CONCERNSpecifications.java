@@ -0,0 +1,108 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specifications used to filter and page CONCERN entities.
+ *
+ * <p>They refer to attributes by name, so the same filter applies to current concerns ({@link CONCERN}) and
+ * archived ones ({@link CONCERNArchive}).</p>
+ *
+ * <p>Every equality filter is backed by a composite index that ends in {@code dateTime} (and, implicitly,
+ * the primary key), so a filtered page read in {@link #KEYSET_ORDER} is an index range scan rather than a
+ * table scan followed by a sort. See the indexes declared on {@link CONCERN}.</p>
+ *
+ */
+public final class CONCERNSpecifications {
+
+    /**
+     * The order keyset pages are read in: oldest first, with the ID breaking ties.
+     */
+    public static final Sort KEYSET_ORDER = Sort.by(Sort.Direction.ASC, "dateTime", "id");
+
+    /**
+     * {@link #KEYSET_ORDER} reversed, used to read the page before a cursor.
+     */
+    public static final Sort REVERSE_KEYSET_ORDER = Sort.by(Sort.Direction.DESC, "dateTime", "id");
+
+    /**
+     * Compares keys in {@link #KEYSET_ORDER} the way the database does, for merging pages read from two tables.
+     * UUIDs are stored as 16 bytes and compare as unsigned bytes, not as {@link UUID#compareTo(UUID)} does.
+     */
+    public static final Comparator<CONCERNCursor> KEY_COMPARATOR = Comparator.comparing(CONCERNCursor::dateTime)
+            .thenComparing(CONCERNCursor::id, Comparator.comparing((UUID id) -> id.getMostSignificantBits(), Long::compareUnsigned)
+                    .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned));
+
+    private CONCERNSpecifications() {
+    }
+
+    /**
+     * Builds a specification that applies every non-blank criterion of the filter.
+     *
+     * @param filter the criteria to apply; {@link CONCERNFilter#includeArchived()} is left to the caller
+     * @param <T> {@link CONCERN} or {@link CONCERNArchive}
+     * @return a specification matching concerns that meet all criteria
+     */
+    public static <T> Specification<T> matching(CONCERNFilter filter) {
+        List<Specification<T>> criteria = new ArrayList<>();
+        if (filter.studentName() != null && !filter.studentName().isBlank()) {
+            criteria.add(equal("studentName", filter.studentName()));
+        }
+        if (filter.status() != null && !filter.status().isBlank()) {
+            criteria.add(equal("status", filter.status()));
+        }
+        if (filter.reportedBy() != null && !filter.reportedBy().isBlank()) {
+            criteria.add(equal("reportedBy", filter.reportedBy()));
+        }
+        if (filter.from() != null) {
+            Instant from = filter.from();
+            criteria.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.<Instant>get("dateTime"), from));
+        }
+        if (filter.to() != null) {
+            Instant to = filter.to();
+            criteria.add((root, query, cb) -> cb.lessThan(root.<Instant>get("dateTime"), to));
+        }
+        return Specification.allOf(criteria);
+    }
+
+    /**
+     * Matches the concerns that come after the cursor's key in {@link #KEYSET_ORDER}.
+     *
+     * @param cursor the key of the last concern on the previous page
+     * @param <T> {@link CONCERN} or {@link CONCERNArchive}
+     * @return the keyset predicate
+     */
+    public static <T> Specification<T> after(CONCERNCursor cursor) {
+        Instant dateTime = cursor.dateTime();
+        UUID id = cursor.id();
+        // dateTime >= ? AND (dateTime > ? OR id > ?) gives the optimiser a plain range start on the index.
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.<Instant>get("dateTime"), dateTime),
+                cb.or(cb.greaterThan(root.<Instant>get("dateTime"), dateTime), cb.greaterThan(root.<UUID>get("id"), id)));
+    }
+
+    /**
+     * Matches the concerns that come before the cursor's key in {@link #KEYSET_ORDER}.
+     *
+     * @param cursor the key of the first concern on the following page
+     * @param <T> {@link CONCERN} or {@link CONCERNArchive}
+     * @return the keyset predicate
+     */
+    public static <T> Specification<T> before(CONCERNCursor cursor) {
+        Instant dateTime = cursor.dateTime();
+        UUID id = cursor.id();
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.<Instant>get("dateTime"), dateTime),
+                cb.or(cb.lessThan(root.<Instant>get("dateTime"), dateTime), cb.lessThan(root.<UUID>get("id"), id)));
+    }
+
+    private static <T> Specification<T> equal(String attribute, String value) {
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+}
@@ -0,0 +1,34 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.Map;
+
+/**
+ * Application event published by {@link CONCERNAggregateService} when the number of concerns about some students
+ * changes, or when every count has been rebuilt.
+ *
+ * <p>It is published inside the transaction that changes the counts, so listeners that keep their own copy
+ * of the counts (such as {@link CONCERNStudentIndex}) apply it once that transaction commits.</p>
+ *
+ * @param institutionId the institution whose counts changed, or {@link CONCERNInstitutions#ALL} if every count of
+ *        every institution was rebuilt
+ * @param deltas the change in each student's number of concerns, by student name; empty if {@code reconciled}
+ * @param reconciled whether every count was rebuilt, so that listeners should reload them all
+ */
+public record CONCERNStudentCountsChangedEvent(String institutionId, Map<String, Long> deltas, boolean reconciled) {
+
+    /**
+     * @param institutionId the institution whose counts changed
+     * @param deltas the change in each student's number of concerns
+     * @return an event for those changes
+     */
+    public static CONCERNStudentCountsChangedEvent of(String institutionId, Map<String, Long> deltas) {
+        return new CONCERNStudentCountsChangedEvent(institutionId, Map.copyOf(deltas), false);
+    }
+
+    /**
+     * @return an event saying every count was rebuilt
+     */
+    public static CONCERNStudentCountsChangedEvent rebuilt() {
+        return new CONCERNStudentCountsChangedEvent(CONCERNInstitutions.ALL, Map.of(), true);
+    }
+}
@@ -0,0 +1,246 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Suggests students whose name starts with what has been typed so far, with the number of concerns about each.
+ *
+ * <p>Names are held in memory in a sorted map keyed by their folded form (see {@link CONCERNStudentNames}),
+ * once for every word in the name, so "joh" finds both "John Smith" and "Alice Johnson" and a lookup is a
+ * range scan that stops after {@code size} names. The counts come from {@code concern_counts}: they are loaded
+ * once the application is ready, reloaded whenever {@link CONCERNAggregateService} reconciles them, and kept up
+ * to date from {@link CONCERNStudentCountsChangedEvent}s once each change commits. A student disappears when
+ * their last concern is deleted.</p>
+ *
+ * <p>Every institution has its own students: suggestions only name students of the
+ * {@link CONCERNInstitutions#current() current} institution.</p>
+ *
+ * <p>At startup, concerns stored before {@code studentNameKey} existed are given their folded name in
+ * batches, so that {@link CONCERNService#getCONCERNsByStudentName(String)} finds them too. Archived concerns
+ * are given theirs the same way.</p>
+ *
+ */
+@Service
+public class CONCERNStudentIndex {
+    private static final Logger log = LoggerFactory.getLogger(CONCERNStudentIndex.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    /**
+     * Separates the folded words from the name in index keys; sorts before any character a name can contain.
+     */
+    private static final char SEPARATOR = '\0';
+
+    private final CONCERNAggregateService aggregateService;
+    private final CONCERNRepository concernRepository;
+    private final CONCERNArchiveRepository archiveRepository;
+    private final TransactionTemplate transaction;
+    private final CONCERNShards shards;
+    private final CONCERNProperties.Typeahead settings;
+    private final Object lock = new Object();
+
+    /**
+     * Changes applied while a reload is reading the counts, replayed on the reloaded index. Guarded by {@code lock}.
+     */
+    private final List<CONCERNStudentCountsChangedEvent> changedDuringReload = new ArrayList<>();
+    private boolean reloading;
+    private volatile Snapshot snapshot = new Snapshot();
+
+    /**
+     * The counts and the prefix map built from them, replaced as a whole on reload. Both are keyed by the institution
+     * followed by {@code SEPARATOR}, so one institution's students form a contiguous range of the prefix map.
+     */
+    private static final class Snapshot {
+        private final Map<String, Long> counts = new ConcurrentHashMap<>();
+        private final NavigableMap<String, String> prefixes = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Constructs a new {@code CONCERNStudentIndex} with no students; they are loaded once the application is ready.
+     *
+     * @param aggregateService the service the counts are loaded from
+     * @param concernRepository the repository used to fill in missing folded names
+     * @param archiveRepository the repository used to fill in missing folded names of archived concerns
+     * @param transactionManager the transaction manager used to fill in folded names one batch at a time
+     * @param shards the databases concerns are stored in, if there is more than one
+     * @param properties the configured suggestion limits
+     *
+     */
+
+    public CONCERNStudentIndex(CONCERNAggregateService aggregateService, CONCERNRepository concernRepository,
+            CONCERNArchiveRepository archiveRepository, PlatformTransactionManager transactionManager,
+            Optional<CONCERNShards> shards, CONCERNProperties properties) {
+        this.aggregateService = aggregateService;
+        this.concernRepository = concernRepository;
+        this.archiveRepository = archiveRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.shards = shards.orElse(CONCERNShards.SINGLE);
+        this.settings = properties.typeahead();
+    }
+
+    /**
+     * Suggests students of the current institution with a word in their name starting with the given prefix, ignoring case, accents and
+     * extra spaces, in alphabetical order of the matching words.
+     *
+     * @param prefix what has been typed so far
+     * @param size the maximum number of students, or {@code null} for the configured default; capped at the configured maximum
+     * @return the matching students and their number of concerns
+     * @throws IllegalArgumentException if the prefix is blank or the size is not positive
+     *
+     */
+
+    public List<CONCERNStudentMatch> suggest(String prefix, Integer size) {
+        int limit = size == null ? this.settings.defaultSize() : Math.min(size, this.settings.maxSize());
+        if (limit < 1) {
+            throw new IllegalArgumentException("Suggestion size must be positive");
+        }
+        String from = CONCERNStudentNames.normalize(prefix);
+        if (from == null || from.isEmpty()) {
+            throw new IllegalArgumentException("Student name prefix must not be blank");
+        }
+        String institution = CONCERNInstitutions.current() + SEPARATOR;
+        Snapshot current = this.snapshot;
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : current.prefixes.subMap(institution + from, institution + from + Character.MAX_VALUE).values()) {
+            if (names.add(name) && names.size() == limit) {
+                break;
+            }
+        }
+        List<CONCERNStudentMatch> matches = new ArrayList<>(names.size());
+        for (String name : names) {
+            Long count = current.counts.get(institution + name);
+            if (count != null) {
+                matches.add(new CONCERNStudentMatch(name, count));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Applies committed changes to students' totals, or reloads them all after a reconciliation.
+     *
+     * @param event the change
+     *
+     */
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentCountsChanged(CONCERNStudentCountsChangedEvent event) {
+        if (event.reconciled()) {
+            this.reload();
+            return;
+        }
+        synchronized (this.lock) {
+            if (this.reloading) {
+                this.changedDuringReload.add(event);
+            }
+            apply(this.snapshot, event.institutionId(), event.deltas());
+        }
+    }
+
+    /**
+     * Fills in missing folded names on every shard, then loads every student's total, once the application is ready.
+     *
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        int[] names = new int[1];
+        this.shards.forEachShard(shard -> {
+            List<String> missing;
+            do {
+                missing = this.transaction.execute(status -> {
+                    List<String> batch = this.concernRepository.findStudentNamesWithoutKey(Limit.of(BACKFILL_BATCH_SIZE));
+                    batch.forEach(name -> this.concernRepository.setStudentNameKey(name, CONCERNStudentNames.normalize(name)));
+                    return batch;
+                });
+                names[0] += missing.size();
+            } while (missing.size() == BACKFILL_BATCH_SIZE);
+            do {
+                missing = this.transaction.execute(status -> {
+                    List<String> batch = this.archiveRepository.findStudentNamesWithoutKey(BACKFILL_BATCH_SIZE);
+                    batch.forEach(name -> this.archiveRepository.setStudentNameKey(name, CONCERNStudentNames.normalize(name)));
+                    return batch;
+                });
+                names[0] += missing.size();
+            } while (missing.size() == BACKFILL_BATCH_SIZE);
+        });
+        if (names[0] > 0) {
+            log.info("Filled in folded names for {} students in {} ms", names[0], (System.nanoTime() - start) / 1_000_000);
+        }
+        this.reload();
+    }
+
+    /**
+     * Replaces the index with every student's total as stored in {@code concern_counts}, for every institution.
+     *
+     * <p>Changes that commit while the counts are read are applied again to the new index. One that commits just
+     * before the read may be counted twice; the next reconciliation corrects it.</p>
+     *
+     */
+
+    public void reload() {
+        long start = System.nanoTime();
+        synchronized (this.lock) {
+            this.reloading = true;
+            this.changedDuringReload.clear();
+        }
+        Snapshot loaded = new Snapshot();
+        try {
+            this.aggregateService.getStudentTotalsByInstitution().forEach((institution, totals) -> apply(loaded, institution, totals));
+        } finally {
+            synchronized (this.lock) {
+                this.changedDuringReload.forEach(event -> apply(loaded, event.institutionId(), event.deltas()));
+                this.changedDuringReload.clear();
+                this.snapshot = loaded;
+                this.reloading = false;
+            }
+        }
+        log.info("Loaded {} students into the name index in {} ms", loaded.counts.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void apply(Snapshot snapshot, String institution, Map<String, Long> deltas) {
+        deltas.forEach((name, delta) -> snapshot.counts.compute(institution + SEPARATOR + name, (key, count) -> {
+            long total = (count == null ? 0 : count) + delta;
+            if (count == null && total > 0) {
+                indexKeys(institution, name).forEach(indexKey -> snapshot.prefixes.put(indexKey, name));
+            } else if (count != null && total <= 0) {
+                indexKeys(institution, name).forEach(snapshot.prefixes::remove);
+            }
+            return total > 0 ? total : null;
+        }));
+    }
+
+    /**
+     * Returns one key per word of the folded name: the institution, the rest of the folded name from that word on,
+     * then the name itself.
+     */
+    private static List<String> indexKeys(String institution, String name) {
+        String folded = CONCERNStudentNames.normalize(name);
+        List<String> keys = new ArrayList<>();
+        for (int start = 0; start < folded.length(); start = folded.indexOf(' ', start) + 1) {
+            keys.add(institution + SEPARATOR + folded.substring(start) + SEPARATOR + name);
+            if (folded.indexOf(' ', start) < 0) {
+                break;
+            }
+        }
+        return keys;
+    }
+}
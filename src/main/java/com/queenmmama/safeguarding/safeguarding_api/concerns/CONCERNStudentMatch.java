@@ -0,0 +1,10 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+/**
+ * A student suggested for a typed name prefix, with the number of concerns about them.
+ *
+ * @param studentName the student's name as it was entered on their concerns
+ * @param concerns the number of concerns about the student, including archived ones
+ */
+public record CONCERNStudentMatch(String studentName, long concerns) {
+}
@@ -0,0 +1,37 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds student names into the form they are matched in, so that "José  Núñez", "jose nunez" and "JOSE NUNEZ"
+ * find the same student.
+ *
+ * <p>The folded name is stored in {@code CONCERN.studentNameKey}, which is indexed, and is the key of
+ * {@link CONCERNStudentIndex}.</p>
+ *
+ */
+public final class CONCERNStudentNames {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private CONCERNStudentNames() {
+    }
+
+    /**
+     * Removes accents, lower-cases and collapses whitespace.
+     *
+     * @param studentName a student's name as entered
+     * @return the folded name, or {@code null} if the name is {@code null}
+     */
+    public static String normalize(String studentName) {
+        if (studentName == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(studentName, Normalizer.Form.NFKD);
+        String folded = MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return SPACES.matcher(folded).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,21 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+/**
+ * The two columns of a concern that the aggregate counters depend on.
+ *
+ * <p>Also used as a projection, so the counters can be adjusted before a delete or a patch without
+ * loading the whole concern.</p>
+ *
+ * @param studentName the name of the student the concern is about
+ * @param status the concern's status
+ */
+public record CONCERNStudentStatus(String studentName, String status) {
+
+    /**
+     * @param concern a concern
+     * @return the concern's student and status
+     */
+    public static CONCERNStudentStatus of(CONCERN concern) {
+        return new CONCERNStudentStatus(concern.getStudentName(), concern.getStatus());
+    }
+}
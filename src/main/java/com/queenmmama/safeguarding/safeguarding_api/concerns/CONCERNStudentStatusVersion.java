@@ -0,0 +1,21 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+/**
+ * The student and status of a concern, and the version they were read at.
+ *
+ * <p>Used as a projection before a delete or a patch, which is then made conditional on the same version, so the
+ * aggregate counters are moved from the student and status the change actually replaced.</p>
+ *
+ * @param studentName the name of the student the concern is about
+ * @param status the concern's status
+ * @param version the concern's version
+ */
+public record CONCERNStudentStatusVersion(String studentName, String status, Long version) {
+
+    /**
+     * @return the student and status, without the version
+     */
+    public CONCERNStudentStatus studentStatus() {
+        return new CONCERNStudentStatus(this.studentName, this.status);
+    }
+}
@@ -0,0 +1,19 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns of a concern shown in list views.
+ *
+ * <p>Used as a projection by {@link CONCERNRepository#findSummaryPage}, so list pages read and serialize these
+ * four columns only and never touch the description. The full concern is available from {@code GET /{id}}.</p>
+ *
+ * @param id the concern's unique ID
+ * @param studentName the name of the student the concern is about
+ * @param status the concern's status
+ * @param dateTime the date and time when the concern was reported
+ * @param version the concern's version, for conditional requests and patches
+ */
+public record CONCERNSummary(UUID id, String studentName, String status, Instant dateTime, Long version) {
+}
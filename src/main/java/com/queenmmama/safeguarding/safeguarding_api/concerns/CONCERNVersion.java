@@ -0,0 +1,14 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The key and version of a concern, read to validate a client's cached copy of a page without loading it.
+ *
+ * @param id the concern's unique ID
+ * @param dateTime the date and time when the concern was reported
+ * @param version the concern's version
+ */
+public record CONCERNVersion(UUID id, Instant dateTime, Long version) {
+}
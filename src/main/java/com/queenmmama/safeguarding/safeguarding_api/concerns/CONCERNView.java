@@ -0,0 +1,37 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.Locale;
+
+/**
+ * Levels of detail supported by the concern list endpoint.
+ */
+public enum CONCERNView {
+
+    /**
+     * Every column of each CONCERN.
+     */
+    FULL,
+
+    /**
+     * Only the columns in {@link CONCERNSummary}.
+     */
+    SUMMARY;
+
+    /**
+     * Resolves a view from its request parameter value, ignoring case.
+     *
+     * @param view the requested view, e.g. "full" or "summary"
+     * @return the matching CONCERNView
+     * @throws IllegalArgumentException if the view is not supported
+     *
+     */
+
+    public static CONCERNView from(String view) {
+        for (CONCERNView candidate : values()) {
+            if (candidate.name().equals(view.toUpperCase(Locale.ROOT))) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported view: " + view);
+    }
+}
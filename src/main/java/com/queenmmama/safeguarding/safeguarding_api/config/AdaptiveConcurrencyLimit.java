@@ -0,0 +1,137 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that adapts to observed latency, in the style of the gradient limiters used by
+ * Netflix's concurrency-limits library.
+ *
+ * <p>Two moving averages of request latency are kept: a short one that follows the current latency and a long one
+ * that approximates the latency without queueing. While the short average stays within {@code tolerance} times the
+ * long one, the limit grows by about its square root per update, but only if the limit is actually being used.
+ * Once queueing makes the short average rise further, the limit shrinks in proportion (by at most half per update),
+ * so the number of requests admitted at once settles near what the database can serve without building a
+ * queue.</p>
+ *
+ * <p>Part of the limit ({@code reservedFraction}) is only available to priority requests, so they are still admitted
+ * when other requests have taken the rest.</p>
+ *
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 500;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double reservedFraction;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    /**
+     * Short and long moving averages of latency in nanoseconds, guarded by {@code this}.
+     */
+    private double shortRtt;
+    private double longRtt;
+
+    /**
+     * Constructs a new {@code AdaptiveConcurrencyLimit}.
+     *
+     * @param initialLimit the limit before any latency has been observed
+     * @param minLimit the smallest the limit may become
+     * @param maxLimit the largest the limit may become
+     * @param tolerance how many times the no-queueing latency is accepted before the limit shrinks
+     * @param reservedFraction the fraction of the limit only priority requests may use
+     * @throws IllegalArgumentException if the limits are not ordered, the tolerance is below 1 or the fraction is not in [0, 1)
+     *
+     */
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double reservedFraction) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (tolerance < 1 || reservedFraction < 0 || reservedFraction >= 1) {
+            throw new IllegalArgumentException("Tolerance must be at least 1 and the reserved fraction in [0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.reservedFraction = reservedFraction;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Admits a request if the limit allows it.
+     *
+     * @param priority whether the request may use the reserved part of the limit
+     * @return {@code true} if the request was admitted and must be passed to {@link #release(long)} when it completes
+     *
+     */
+
+    public boolean tryAcquire(boolean priority) {
+        int current = this.getLimit();
+        int allowed = priority ? current : Math.max(1, (int)(current * (1 - this.reservedFraction)));
+        while (true) {
+            int running = this.inFlight.get();
+            if (running >= allowed) {
+                return false;
+            }
+            if (this.inFlight.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and adapts the limit to its latency.
+     *
+     * @param rttNanos how long the request took
+     *
+     */
+
+    public void release(long rttNanos) {
+        int running = this.inFlight.getAndDecrement();
+        this.update(rttNanos, running);
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int getLimit() {
+        return (int)this.limit;
+    }
+
+    /**
+     * @return the number of admitted requests that have not completed
+     */
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int running) {
+        double rtt = Math.max(1, rttNanos);
+        if (this.longRtt == 0) {
+            this.shortRtt = rtt;
+            this.longRtt = rtt;
+            return;
+        }
+        this.shortRtt += (rtt - this.shortRtt) / SHORT_WINDOW;
+        this.longRtt += (rtt - this.longRtt) / LONG_WINDOW;
+        // After a sustained drop in latency, let the baseline catch up quickly instead of over many samples.
+        if (this.longRtt > 2 * this.shortRtt) {
+            this.longRtt *= 0.95;
+        }
+        double current = this.limit;
+        // The limit only proves itself too low when requests are actually queueing up against it.
+        if (running < current / 2 && this.shortRtt <= this.longRtt * this.tolerance) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1, this.tolerance * this.longRtt / this.shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, next));
+    }
+}
@@ -0,0 +1,122 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds load on the concerns API before it queues up behind a slow database.
+ *
+ * <p>Requests to {@code /api/concerns} are admitted only while fewer than an {@link AdaptiveConcurrencyLimit} are
+ * running; the limit follows the latency the API is observed to serve at. A request over the limit is answered
+ * at once with 503 Service Unavailable and a {@code Retry-After} header instead of waiting for a thread or a
+ * connection, so the requests that are admitted keep their latency. New reports ({@code POST /api/concerns}) may
+ * use the share of the limit set by {@code safeguarding.admission.reserved-for-submissions}; every other request,
+ * including batch creation, page reads and searches, is rejected once the rest is taken.</p>
+ *
+ * <p>The change feed and exports are long-lived streams and are not limited. The limit, the requests in flight and
+ * the rejected requests are published as {@code concerns.admission.limit}, {@code concerns.admission.in.flight} and
+ * {@code concerns.admission.rejected}.</p>
+ *
+ * <p>Active unless {@code safeguarding.admission.enabled=false}.</p>
+ *
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "safeguarding.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String CONCERNS_PATH = "/api/concerns";
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final String retryAfter;
+    private final Counter rejectedSubmissions;
+    private final Counter rejectedOther;
+
+    /**
+     * Constructs a new {@code AdmissionControlFilter}.
+     *
+     * @param meterRegistry the registry the admission metrics are published to
+     * @param initialLimit the number of concurrent requests admitted before any latency has been observed
+     * @param minLimit the smallest the limit may become
+     * @param maxLimit the largest the limit may become
+     * @param tolerance how many times the latency without queueing is accepted before the limit shrinks
+     * @param reservedForSubmissions the fraction of the limit only new reports may use
+     * @param retryAfter how long rejected clients are asked to wait before retrying
+     *
+     */
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+            @Value("${safeguarding.admission.initial-limit:20}") int initialLimit,
+            @Value("${safeguarding.admission.min-limit:4}") int minLimit,
+            @Value("${safeguarding.admission.max-limit:200}") int maxLimit,
+            @Value("${safeguarding.admission.tolerance:2.0}") double tolerance,
+            @Value("${safeguarding.admission.reserved-for-submissions:0.2}") double reservedForSubmissions,
+            @Value("${safeguarding.admission.retry-after:1s}") Duration retryAfter) {
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, reservedForSubmissions);
+        this.retryAfter = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        Gauge.builder("concerns.admission.limit", this.limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Concurrent requests admitted to the concerns API")
+                .register(meterRegistry);
+        Gauge.builder("concerns.admission.in.flight", this.limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Admitted concerns API requests that have not completed")
+                .register(meterRegistry);
+        this.rejectedSubmissions = rejectedCounter(meterRegistry, "submission");
+        this.rejectedOther = rejectedCounter(meterRegistry, "other");
+    }
+
+    /**
+     * @return the limit requests are admitted under
+     */
+    public AdaptiveConcurrencyLimit getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals(CONCERNS_PATH) || path.startsWith(CONCERNS_PATH + "/"))
+                || path.equals(CONCERNS_PATH + "/changes") || path.equals(CONCERNS_PATH + "/export");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean submission = HttpMethod.POST.matches(request.getMethod())
+                && request.getRequestURI().substring(request.getContextPath().length()).equals(CONCERNS_PATH);
+        if (!this.limit.tryAcquire(submission)) {
+            (submission ? this.rejectedSubmissions : this.rejectedOther).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, this.retryAfter);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            this.limit.release(System.nanoTime() - start);
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String priority) {
+        return Counter.builder("concerns.admission.rejected")
+                .description("Concerns API requests rejected with 503 because the concurrency limit was reached")
+                .tag("priority", priority)
+                .register(meterRegistry);
+    }
+}
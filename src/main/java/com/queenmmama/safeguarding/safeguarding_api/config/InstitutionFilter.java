@@ -0,0 +1,81 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNInstitutions;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Makes each request to the concerns API work on behalf of the institution named by its
+ * {@value CONCERNInstitutions#HEADER} header, or {@value CONCERNInstitutions#DEFAULT} without one.
+ *
+ * <p>A header that is not a valid institution ID is answered with 400 Bad Request. With sharding enabled, requests
+ * other than GET, HEAD and OPTIONS for an institution that is being moved to another shard are answered at once with
+ * 503 Service Unavailable and a {@code Retry-After} header of {@code safeguarding.sharding.retry-after}; its reads
+ * are served throughout the move.</p>
+ *
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class InstitutionFilter extends OncePerRequestFilter {
+
+    private static final String CONCERNS_PATH = "/api/concerns";
+
+    private final Optional<ShardRoutingDataSource> routingDataSource;
+    private final String retryAfter;
+
+    /**
+     * Constructs a new {@code InstitutionFilter}.
+     *
+     * @param routingDataSource the data source that knows which institutions are being moved, if sharding is enabled
+     * @param retryAfter how long clients whose writes are rejected during a move are asked to wait
+     *
+     */
+
+    public InstitutionFilter(Optional<ShardRoutingDataSource> routingDataSource,
+            @Value("${safeguarding.sharding.retry-after:5s}") Duration retryAfter) {
+        this.routingDataSource = routingDataSource;
+        this.retryAfter = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals(CONCERNS_PATH) || path.startsWith(CONCERNS_PATH + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(CONCERNInstitutions.HEADER);
+        String institution;
+        try {
+            institution = header == null ? CONCERNInstitutions.DEFAULT : CONCERNInstitutions.validate(header);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        boolean write = !(HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                || HttpMethod.OPTIONS.matches(request.getMethod()));
+        if (write && this.routingDataSource.map(routing -> routing.isMoving(institution)).orElse(false)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, this.retryAfter);
+            return;
+        }
+        try (CONCERNInstitutions.Binding binding = CONCERNInstitutions.bind(institution)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
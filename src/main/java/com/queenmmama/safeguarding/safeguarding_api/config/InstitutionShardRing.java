@@ -0,0 +1,86 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Chooses the shard a new institution is stored on by consistent hashing.
+ *
+ * <p>Each shard owns a number of virtual nodes, points on a ring of 64-bit hashes; an institution belongs to the
+ * shard owning the first point at or after the hash of its identifier. Adding a shard therefore only takes over
+ * institutions from the points it lands between, about one in N of them, instead of reshuffling almost all of them
+ * as a plain modulo would. Hashes are the first eight bytes of SHA-256, so every instance agrees on the ring.</p>
+ *
+ * <p>The ring is only consulted for institutions that are not yet in the placement directory of
+ * {@link ShardRoutingDataSource}.</p>
+ *
+ */
+public final class InstitutionShardRing {
+
+    private final int shards;
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * Constructs a new {@code InstitutionShardRing}.
+     *
+     * @param shards the number of shards
+     * @param virtualNodes the number of points each shard owns; more points spread institutions more evenly
+     * @throws IllegalArgumentException if either number is not positive
+     *
+     */
+
+    public InstitutionShardRing(int shards, int virtualNodes) {
+        if (shards < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("The numbers of shards and virtual nodes must be positive");
+        }
+        this.shards = shards;
+        long[][] nodes = new long[shards * virtualNodes][];
+        for (int shard = 0; shard < shards; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                nodes[shard * virtualNodes + node] = new long[] {hash("shard-" + shard + "#" + node), shard};
+            }
+        }
+        Arrays.sort(nodes, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[nodes.length];
+        this.owners = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            this.points[i] = nodes[i][0];
+            this.owners[i] = (int)nodes[i][1];
+        }
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int getShards() {
+        return this.shards;
+    }
+
+    /**
+     * @param institution the institution's identifier
+     * @return the shard the institution hashes to, from 0 to {@link #getShards()} - 1
+     */
+    public int shardFor(String institution) {
+        int index = Arrays.binarySearch(this.points, hash(institution));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return this.owners[index == this.points.length ? 0 : index];
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = hash << 8 | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
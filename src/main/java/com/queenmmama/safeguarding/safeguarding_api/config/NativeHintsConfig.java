@@ -0,0 +1,111 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNAggregates;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNBatchResult;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNFeedEvent;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNIdGenerator;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNInstitutionResolver;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNPage;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNSearchHit;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNStudentMatch;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNSummary;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNVersion;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Registers the reflection and resource hints a GraalVM native image of the API needs beyond those Spring's
+ * AOT processing derives on its own.
+ *
+ * <p>Spring infers hints for the request and response types of controller methods, but not for types only
+ * Jackson sees elsewhere (the change feed, the ingest log, exports) or only reachable through generic wildcards,
+ * nor for classes Hibernate instantiates by name from configuration. Springdoc ships hints for its own model; only
+ * the Swagger UI files are added here. Lucene finds its codecs through {@code META-INF/services}, so those files and
+ * the classes they name are included.</p>
+ *
+ * <p>The hints are also recorded when the JVM build is AOT-processed (the {@code cds} profile), where they are
+ * harmless.</p>
+ *
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+    /**
+     * Types written or read as JSON.
+     */
+    static final List<Class<?>> JSON_TYPES = List.of(CONCERN.class, CONCERNSummary.class, CONCERNVersion.class,
+            CONCERNPage.class, CONCERNBatchResult.class, CONCERNAggregates.class, CONCERNSearchHit.class,
+            CONCERNStudentMatch.class, CONCERNFeedEvent.class);
+
+    /**
+     * Types Hibernate creates reflectively from annotations or configuration properties.
+     */
+    static final List<Class<?>> HIBERNATE_TYPES = List.of(CONCERNIdGenerator.class, QueryTimingSessionListener.class,
+            QueryInspector.class, CONCERNInstitutionResolver.class);
+
+    /**
+     * Service interfaces Lucene loads implementations of by name.
+     */
+    static final List<String> LUCENE_SERVICES = List.of("org.apache.lucene.codecs.Codec", "org.apache.lucene.codecs.PostingsFormat",
+            "org.apache.lucene.codecs.DocValuesFormat", "org.apache.lucene.codecs.KnnVectorsFormat",
+            "org.apache.lucene.index.SortFieldProvider");
+
+    /**
+     * The hints themselves, applied at build time by Spring's AOT engine.
+     */
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+            bindings.registerReflectionHints(hints.reflection(), JSON_TYPES.toArray(Class<?>[]::new));
+            for (Class<?> type : HIBERNATE_TYPES) {
+                hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/*/*");
+            for (String service : LUCENE_SERVICES) {
+                hints.resources().registerPattern("META-INF/services/" + service);
+                for (String implementation : serviceImplementations(classLoader, service)) {
+                    hints.reflection().registerTypeIfPresent(classLoader, implementation, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+                }
+            }
+        }
+
+        /**
+         * Reads the class names listed for a service interface in every {@code META-INF/services} file on the classpath.
+         */
+        private static List<String> serviceImplementations(ClassLoader classLoader, String service) {
+            List<String> names = new ArrayList<>();
+            try {
+                ClassLoader loader = classLoader != null ? classLoader : NativeHintsConfig.class.getClassLoader();
+                Enumeration<URL> files = loader.getResources("META-INF/services/" + service);
+                while (files.hasMoreElements()) {
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(files.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                        reader.lines()
+                                .map(line -> line.replaceFirst("#.*", "").trim())
+                                .filter(line -> !line.isEmpty())
+                                .forEach(names::add);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return names;
+        }
+    }
+}
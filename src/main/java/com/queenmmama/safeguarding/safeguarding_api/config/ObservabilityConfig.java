@@ -0,0 +1,57 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+/**
+ * Metrics configuration shared by the HTTP and service layers.
+ *
+ * <p>Adds a {@code result} tag to {@code http.server.requests} that uses the same vocabulary as the
+ * service-level {@code concerns.service.calls} timer, so latency SLOs can be set per endpoint and outcome.</p>
+ *
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    /**
+     * Outcome of a request or service call, as recorded in the {@code result} tag.
+     *
+     * @param status the HTTP status of the response
+     * @return "success", "not_found", "bad_request", "conflict", "client_error" or "error"
+     */
+    public static String result(int status) {
+        if (status == 404) {
+            return "not_found";
+        }
+        if (status == 400) {
+            return "bad_request";
+        }
+        if (status == 409 || status == 412) {
+            return "conflict";
+        }
+        if (status >= 500) {
+            return "error";
+        }
+        return status >= 400 ? "client_error" : "success";
+    }
+
+    /**
+     * Extends Spring's default HTTP server observation with the {@code result} tag.
+     *
+     * @return the observation convention
+     */
+    @Bean
+    public ServerRequestObservationConvention resultTaggingObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                int status = context.getResponse() == null ? 500 : context.getResponse().getStatus();
+                return super.getLowCardinalityKeyValues(context).and("result", result(status));
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector that passes the SQL of every statement prepared on the request thread to the
+ * current {@link RequestQueryTally}, leaving the SQL unchanged.
+ *
+ * <p>Registered through {@code hibernate.session_factory.statement_inspector}.</p>
+ *
+ */
+public class QueryInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryTally tally = RequestQueryTally.current();
+        if (tally != null) {
+            tally.prepared(sql);
+        }
+        return sql;
+    }
+}
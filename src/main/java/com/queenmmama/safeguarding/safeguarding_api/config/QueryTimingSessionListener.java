@@ -0,0 +1,43 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate session listener that adds the duration of every JDBC statement and batch execution to the
+ * current {@link RequestQueryTally}.
+ *
+ * <p>Registered for every session through {@code hibernate.session.events.auto}.</p>
+ *
+ */
+public class QueryTimingSessionListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        this.statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(System.nanoTime() - this.statementStart, false);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        this.batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(System.nanoTime() - this.batchStart, true);
+    }
+
+    private static void record(long elapsedNanos, boolean batch) {
+        RequestQueryTally tally = RequestQueryTally.current();
+        if (tally != null) {
+            tally.record(elapsedNanos, batch);
+        }
+    }
+}
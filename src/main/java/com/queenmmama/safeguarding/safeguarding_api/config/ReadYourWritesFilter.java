@@ -0,0 +1,96 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Keeps a client's reads on the primary database for a short while after it changes a concern, so it sees its
+ * own writes even though the replicas are behind.
+ *
+ * <p>Every request to {@code /api/concerns} other than GET, HEAD and OPTIONS is served entirely from the primary and
+ * answered with a {@code SG-Read-Primary-Until} cookie holding the time, in epoch milliseconds, until which the
+ * client's requests stay there ({@code safeguarding.datasource.read-your-writes} from now). Requests carrying an
+ * unexpired cookie are pinned to the primary with {@link ReplicaRoutingDataSource#pinToPrimary()}. Clients that do
+ * not keep cookies read from the replicas straight away.</p>
+ *
+ * <p>Only active when {@code safeguarding.datasource.replica-urls} is set.</p>
+ *
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "safeguarding.datasource.replica-urls")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * The cookie that carries the end of the client's read-your-writes window.
+     */
+    public static final String COOKIE_NAME = "SG-Read-Primary-Until";
+
+    private static final String CONCERNS_PATH = "/api/concerns";
+
+    private final Duration window;
+
+    /**
+     * Constructs a new {@code ReadYourWritesFilter}.
+     *
+     * @param window how long a client's reads stay on the primary after a write
+     *
+     */
+
+    public ReadYourWritesFilter(@Value("${safeguarding.datasource.read-your-writes:10s}") Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.equals(CONCERNS_PATH) || path.startsWith(CONCERNS_PATH + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !(HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                || HttpMethod.OPTIONS.matches(request.getMethod()));
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + this.window.toMillis()));
+            cookie.setPath(CONCERNS_PATH);
+            cookie.setMaxAge((int)Math.max(1, this.window.toSeconds()));
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        if (write || withinWindow(WebUtils.getCookie(request, COOKIE_NAME), now)) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+
+    private static boolean withinWindow(Cookie cookie, long now) {
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > now;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the single auto-configured data source with one that routes read-only transactions to read replicas.
+ *
+ * <p>The primary pool is built from {@code spring.datasource.*} as before. Each URL in
+ * {@code safeguarding.datasource.replica-urls} gets a pool of its own with the same credentials and
+ * {@code spring.datasource.hikari.*} settings, named {@code replica-1}, {@code replica-2} and so on in the
+ * {@code hikaricp.*} metrics. See {@link ReplicaRoutingDataSource} for how connections are routed.</p>
+ *
+ * <p>Only active when {@code safeguarding.datasource.replica-urls} is set.</p>
+ *
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "safeguarding.datasource.replica-urls")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Creates the primary and replica pools and the data source that chooses between them.
+     *
+     * @param properties the primary data source's settings
+     * @param environment the environment the pool settings are bound from
+     * @param meterRegistry the registry the pool and lag metrics are published to
+     * @param replicaUrls the JDBC URLs of the read replicas
+     * @param maxLag how far behind the primary a replica may be and still be read from
+     * @param checkInterval how often replica lag is measured
+     * @return the routing data source
+     *
+     */
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${safeguarding.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${safeguarding.datasource.replica-max-lag:5s}") Duration maxLag,
+            @Value("${safeguarding.datasource.replica-check-interval:1s}") Duration checkInterval) {
+        HikariDataSource primary = pool(properties, environment, meterRegistry, properties.determineUrl(), "primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            replicas.add(pool(properties, environment, meterRegistry, url.trim(), "replica-" + (replicas.size() + 1)));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag, checkInterval, meterRegistry);
+    }
+
+    /**
+     * The data source used by JPA and everything else: the routing data source, with connections fetched only
+     * once the transaction's read-only flag is known.
+     *
+     * @param routingDataSource the routing data source
+     * @return the application's data source
+     *
+     */
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    static HikariDataSource pool(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+            String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,203 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary database.
+ *
+ * <p>A connection is routed when it is first used: to a replica if the current transaction is read-only, the
+ * current thread has not been pinned to the primary (see {@link ReadYourWritesFilter}) and the replica is known to
+ * be no more than the configured lag behind; otherwise to the primary. Replicas within the lag take turns. This data
+ * source must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, because the
+ * transaction manager asks for a connection before it marks the transaction read-only.</p>
+ *
+ * <p>Lag is measured with a heartbeat: every check writes the current time to the {@code replica_heartbeat} table on
+ * the primary, and reads the last time replicated to each replica before doing so. A replica's lag therefore
+ * includes up to one check interval, and a replica that cannot be read or has not yet received the table is not used.
+ * Each replica's lag is published as {@code concerns.datasource.replica.lag}, in seconds (NaN while unusable).</p>
+ *
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private static final String CREATE_HEARTBEAT = "create table if not exists replica_heartbeat (id int not null primary key, beat bigint not null)";
+    private static final String WRITE_HEARTBEAT = "insert into replica_heartbeat (id, beat) values (1, ?) on duplicate key update beat = ?";
+    private static final String READ_HEARTBEAT = "select beat from replica_heartbeat where id = 1";
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final JdbcTemplate primaryJdbc;
+    private final List<JdbcTemplate> replicaJdbc;
+    private final long maxLagMillis;
+    private final AtomicLongArray lagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile boolean heartbeatTableCreated;
+
+    /**
+     * Constructs a new {@code ReplicaRoutingDataSource}.
+     *
+     * @param primary the pool of connections to the primary database
+     * @param replicas the pools of connections to the read replicas
+     * @param maxLag how far behind the primary a replica may be and still be read from
+     * @param checkInterval how often the lag is measured; must be shorter than {@code maxLag}
+     * @param meterRegistry the registry the replica lag is published to
+     * @throws IllegalArgumentException if there are no replicas or the lag is not longer than the check interval
+     *
+     */
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Duration maxLag,
+            Duration checkInterval, MeterRegistry meterRegistry) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        if (maxLag.compareTo(checkInterval) <= 0) {
+            throw new IllegalArgumentException("The replica lag tolerance (" + maxLag + ") must be longer than the check interval ("
+                    + checkInterval + ")");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.replicaJdbc = this.replicas.stream().map(JdbcTemplate::new).toList();
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagMillis = new AtomicLongArray(this.replicas.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            this.lagMillis.set(i, -1);
+            targets.put(i, this.replicas.get(i));
+            int replica = i;
+            Gauge.builder("concerns.datasource.replica.lag", this, routing -> routing.lagSeconds(replica))
+                    .description("How far the read replica is behind the primary, in seconds (NaN while it is not used)")
+                    .tag("replica", this.replicas.get(i).getPoolName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        initialize();
+    }
+
+    /**
+     * Sends every connection the current thread opens to the primary until {@link #unpin()} is called.
+     */
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Lets the current thread's read-only transactions use replicas again.
+     */
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PINNED.get() != null) {
+            return PRIMARY;
+        }
+        int count = this.replicas.size();
+        int start = Math.floorMod(this.next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            int replica = (start + i) % count;
+            if (isUsable(this.lagMillis.get(replica))) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Measures each replica's lag from the heartbeat replicated to it, then writes a new heartbeat to the primary.
+     */
+    @Scheduled(fixedDelayString = "${safeguarding.datasource.replica-check-interval:1s}")
+    public void checkReplicas() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < this.replicas.size(); i++) {
+            long lag;
+            try {
+                Long beat = this.replicaJdbc.get(i).queryForObject(READ_HEARTBEAT, Long.class);
+                lag = beat == null ? -1 : Math.max(0, now - beat);
+            } catch (DataAccessException e) {
+                lag = -1;
+            }
+            long previous = this.lagMillis.getAndSet(i, lag);
+            if (isUsable(lag) != isUsable(previous)) {
+                String name = this.replicas.get(i).getPoolName();
+                if (isUsable(lag)) {
+                    log.info("Reading from {} again, {} ms behind the primary", name, lag);
+                } else {
+                    log.warn("Not reading from {}: {}", name, lag < 0 ? "heartbeat unavailable" : lag + " ms behind the primary");
+                }
+            }
+        }
+        try {
+            if (!this.heartbeatTableCreated) {
+                this.primaryJdbc.execute(CREATE_HEARTBEAT);
+                this.heartbeatTableCreated = true;
+            }
+            this.primaryJdbc.update(WRITE_HEARTBEAT, now, now);
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replication heartbeat to the primary", e);
+        }
+    }
+
+    /**
+     * @param replica the index of the replica, in configuration order
+     * @return whether read-only transactions may currently be sent to the replica
+     */
+    public boolean isReplicaUsable(int replica) {
+        return isUsable(this.lagMillis.get(replica));
+    }
+
+    /**
+     * @return the primary database's connection pool
+     */
+    public DataSource getPrimary() {
+        return this.primary;
+    }
+
+    /**
+     * @return the read replicas' connection pools, in configuration order
+     */
+    public List<? extends DataSource> getReplicas() {
+        return this.replicas;
+    }
+
+    /**
+     * Closes the primary's and the replicas' connection pools.
+     */
+    @Override
+    public void close() {
+        this.replicas.forEach(HikariDataSource::close);
+        this.primary.close();
+    }
+
+    private boolean isUsable(long lag) {
+        return lag >= 0 && lag <= this.maxLagMillis;
+    }
+
+    private double lagSeconds(int replica) {
+        long lag = this.lagMillis.get(replica);
+        return lag < 0 ? Double.NaN : lag / 1000.0;
+    }
+}
@@ -0,0 +1,217 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many SQL statements each HTTP request issued and how long they took, per endpoint, and reports
+ * requests that issue too many or too slow statements.
+ *
+ * <p>Publishes {@code http.server.requests.queries} (statements per request) and
+ * {@code http.server.requests.query.time} (database time per request), tagged with the same {@code method}
+ * and {@code uri} as {@code http.server.requests}. A jump in either after a change points to an N+1 or a
+ * slow query on that endpoint.</p>
+ *
+ * <p>A request is logged as a warning, with the SQL and time of its statements, when it issues more than
+ * {@code safeguarding.queries.budget} statements, when one statement takes longer than
+ * {@code safeguarding.queries.slow-threshold}, or when the same statement runs
+ * {@code safeguarding.queries.repeat-threshold} times or more, the usual sign of an N+1. JDBC batches count towards
+ * the budget but not as repeats. A limit of 0 turns its check off.</p>
+ *
+ * <p>With {@code safeguarding.queries.debug-headers=true}, responses carry the request's figures as they stood
+ * when the response started: {@value #QUERY_COUNT_HEADER} with the number of statements and {@code Server-Timing}
+ * with the database time, e.g. {@code db;dur=1.25;desc="SQL"}. Asynchronous responses, such as the change feed and
+ * exports, do not carry them. Leave it off where clients should not learn about the database.</p>
+ *
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    /**
+     * The debug response header carrying the number of SQL statements the request issued.
+     */
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final MeterRegistry meterRegistry;
+    private final int budget;
+    private final long slowThresholdNanos;
+    private final int repeatThreshold;
+    private final boolean debugHeaders;
+
+    /**
+     * Constructs a new {@code RequestMetricsFilter}.
+     *
+     * @param meterRegistry the registry the per-request query metrics are published to
+     * @param budget the number of statements a request may issue before it is logged, 0 for no limit
+     * @param slowThreshold how long a single statement may take before its request is logged, 0 for no limit
+     * @param repeatThreshold how many times the same statement may run in a request before it is logged as a likely
+     *        N+1, 0 for no limit
+     * @param debugHeaders whether responses carry the statement count and database time
+     *
+     */
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry,
+            @Value("${safeguarding.queries.budget:50}") int budget,
+            @Value("${safeguarding.queries.slow-threshold:500ms}") Duration slowThreshold,
+            @Value("${safeguarding.queries.repeat-threshold:10}") int repeatThreshold,
+            @Value("${safeguarding.queries.debug-headers:false}") boolean debugHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.repeatThreshold = repeatThreshold;
+        this.debugHeaders = debugHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryTally tally = RequestQueryTally.begin();
+        request.setAttribute(RequestQueryTally.ATTRIBUTE, tally);
+        try {
+            filterChain.doFilter(request, this.debugHeaders ? new QueryHeadersResponse(request, response, tally) : response);
+        } finally {
+            RequestQueryTally.end();
+            if (this.debugHeaders && !request.isAsyncStarted() && !response.isCommitted()) {
+                setQueryHeaders(response, tally);
+            }
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+            DistributionSummary.builder("http.server.requests.queries")
+                    .description("SQL statements executed per HTTP request")
+                    .baseUnit("statements")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(this.meterRegistry)
+                    .record(tally.getStatements());
+            Timer.builder("http.server.requests.query.time")
+                    .description("Time spent executing SQL per HTTP request")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(this.meterRegistry)
+                    .record(tally.getNanos(), TimeUnit.NANOSECONDS);
+            this.logIfOverLimits(request.getMethod(), uri, tally);
+        }
+    }
+
+    private void logIfOverLimits(String method, String uri, RequestQueryTally tally) {
+        List<String> problems = new ArrayList<>();
+        if (this.budget > 0 && tally.getStatements() > this.budget) {
+            problems.add("issued " + tally.getStatements() + " SQL statements, over the budget of " + this.budget);
+        }
+        if (this.slowThresholdNanos > 0 && tally.getSlowestNanos() > this.slowThresholdNanos) {
+            problems.add("ran a statement for " + millis(tally.getSlowestNanos()) + " ms, over the threshold of "
+                    + millis(this.slowThresholdNanos) + " ms");
+        }
+        if (this.repeatThreshold > 0 && tally.getMostRepeated() >= this.repeatThreshold) {
+            problems.add("ran the same statement " + tally.getMostRepeated() + " times, a likely N+1: " + tally.getMostRepeatedSql());
+        }
+        if (problems.isEmpty() || !log.isWarnEnabled()) {
+            return;
+        }
+        StringBuilder statements = new StringBuilder();
+        for (RequestQueryTally.Execution execution : tally.getExecutions()) {
+            statements.append("\n  ").append(millis(execution.nanos())).append(" ms").append(execution.batch() ? " (batch) " : " ")
+                    .append(execution.sql());
+        }
+        if (tally.getStatements() > tally.getExecutions().size()) {
+            statements.append("\n  ... and ").append(tally.getStatements() - tally.getExecutions().size()).append(" more");
+        }
+        log.warn("{} {} {} in {} ms of database time:{}", method, uri, String.join("; ", problems), millis(tally.getNanos()),
+                statements);
+    }
+
+    private static void setQueryHeaders(HttpServletResponse response, RequestQueryTally tally) {
+        response.setHeader(QUERY_COUNT_HEADER, String.valueOf(tally.getStatements()));
+        response.setHeader(SERVER_TIMING_HEADER, "db;dur=" + millis(tally.getNanos()) + ";desc=\"SQL\"");
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Sets the debug headers just before the body starts, since headers can no longer be added once it has.
+     *
+     * <p>Only the request thread sets them, and only until the request goes asynchronous: streams such as the change
+     * feed and exports write from other threads while the container may be reading the headers.</p>
+     */
+    private static final class QueryHeadersResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final RequestQueryTally tally;
+        private final Thread requestThread = Thread.currentThread();
+
+        QueryHeadersResponse(HttpServletRequest request, HttpServletResponse response, RequestQueryTally tally) {
+            super(response);
+            this.request = request;
+            this.tally = tally;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            this.beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            this.beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            this.beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            this.beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            this.beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            this.beforeCommit();
+            super.sendRedirect(location);
+        }
+
+        private void beforeCommit() {
+            if (Thread.currentThread() == this.requestThread && !this.request.isAsyncStarted() && !this.isCommitted()) {
+                setQueryHeaders(this, this.tally);
+            }
+        }
+    }
+}
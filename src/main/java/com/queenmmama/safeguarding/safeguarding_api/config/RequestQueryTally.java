@@ -0,0 +1,140 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running count and total execution time of the SQL statements issued while handling the current request.
+ *
+ * <p>{@link RequestMetricsFilter} opens a tally on the request thread and {@link QueryTimingSessionListener}
+ * adds every JDBC execution to it. {@link QueryInspector} supplies the SQL of each statement as Hibernate prepares
+ * it, so that the first {@value #MAX_LOGGED} executions are kept with their SQL and repeated statements can be
+ * spotted. Work done on other threads, such as streamed exports, is not counted.</p>
+ *
+ */
+public final class RequestQueryTally {
+
+    /**
+     * The number of executions kept with their SQL and time; later ones are only counted.
+     */
+    public static final int MAX_LOGGED = 100;
+
+    /**
+     * The request attribute {@link RequestMetricsFilter} stores the request's tally under.
+     */
+    public static final String ATTRIBUTE = RequestQueryTally.class.getName();
+
+    private static final ThreadLocal<RequestQueryTally> CURRENT = new ThreadLocal<>();
+
+    private final List<Execution> executions = new ArrayList<>();
+    private final Map<String, Integer> repeats = new HashMap<>();
+    private String preparedSql;
+    private int statements;
+    private long nanos;
+    private long slowestNanos;
+    private String mostRepeatedSql;
+    private int mostRepeated;
+
+    private RequestQueryTally() {
+    }
+
+    /**
+     * Starts a new tally on the current thread, replacing any previous one.
+     *
+     * @return the new tally
+     */
+    public static RequestQueryTally begin() {
+        RequestQueryTally tally = new RequestQueryTally();
+        CURRENT.set(tally);
+        return tally;
+    }
+
+    /**
+     * Removes the current thread's tally.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the current thread's tally, or {@code null} if none is open
+     */
+    public static RequestQueryTally current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Notes the SQL of the statement about to be executed.
+     *
+     * @param sql the statement's SQL
+     */
+    void prepared(String sql) {
+        this.preparedSql = sql;
+    }
+
+    /**
+     * Records one executed statement or batch, with the SQL last prepared.
+     *
+     * @param elapsedNanos how long the execution took
+     * @param batch whether a JDBC batch was executed, which is not counted as a repeat of its statement
+     */
+    void record(long elapsedNanos, boolean batch) {
+        this.statements++;
+        this.nanos += elapsedNanos;
+        this.slowestNanos = Math.max(this.slowestNanos, elapsedNanos);
+        String sql = this.preparedSql == null ? "(unknown)" : this.preparedSql;
+        if (this.executions.size() < MAX_LOGGED) {
+            this.executions.add(new Execution(sql, elapsedNanos, batch));
+        }
+        if (!batch) {
+            int count = this.repeats.merge(sql, 1, Integer::sum);
+            if (count > this.mostRepeated) {
+                this.mostRepeated = count;
+                this.mostRepeatedSql = sql;
+            }
+        }
+    }
+
+    /** @return the number of statements executed so far */
+    public int getStatements() {
+        return this.statements;
+    }
+
+    /** @return the total statement execution time so far, in nanoseconds */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /** @return the execution time of the slowest statement so far, in nanoseconds */
+    public long getSlowestNanos() {
+        return this.slowestNanos;
+    }
+
+    /** @return how many times the most often executed statement has run, not counting batches */
+    public int getMostRepeated() {
+        return this.mostRepeated;
+    }
+
+    /** @return the SQL of the most often executed statement, or {@code null} if none has run */
+    public String getMostRepeatedSql() {
+        return this.mostRepeatedSql;
+    }
+
+    /** @return the first {@value #MAX_LOGGED} executions, oldest first */
+    public List<Execution> getExecutions() {
+        return Collections.unmodifiableList(this.executions);
+    }
+
+    /**
+     * One execution of a statement or batch.
+     *
+     * @param sql the SQL executed
+     * @param nanos how long it took, in nanoseconds
+     * @param batch whether it was a JDBC batch
+     */
+    public record Execution(String sql, long nanos, boolean batch) {
+    }
+}
@@ -0,0 +1,428 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Compresses large responses with brotli or gzip and keeps entity tags distinct per representation.
+ *
+ * <p>A response is compressed when its content type is one of {@code safeguarding.compression.mime-types} and
+ * its body reaches {@code safeguarding.compression.min-response-size}; smaller bodies are sent as they are, since
+ * the coding overhead would outweigh the saving. The body is buffered only up to that threshold, so streamed
+ * exports are compressed as they are written. Brotli is preferred when the client accepts it and the native
+ * library loaded, gzip otherwise.</p>
+ *
+ * <p>Tomcat's own compression skips every response with a strong ETag, which would exclude the concern pages.
+ * Instead this filter appends the wire format and content coding to the application's tag, for example
+ * {@code "p-1f…-cbor-gzip"}, so each representation keeps a distinct strong tag. {@link #baseTag(String)} strips
+ * them again before the application compares tags, and a 304 echoes the tag the client sent.</p>
+ *
+ */
+@Component
+public class ResponseEncodingFilter extends OncePerRequestFilter {
+
+    static final String GZIP = "gzip";
+    static final String BROTLI = "br";
+
+    private static final List<String> CODINGS = List.of(GZIP, BROTLI);
+    private static final List<String> FORMATS = List.of("cbor", "smile");
+    private static final List<MediaType> NEGOTIATED = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+            WireFormatConfig.APPLICATION_SMILE);
+
+    private final long minResponseSize;
+    private final List<MediaType> mimeTypes;
+    private final Encoder.Parameters brotliParameters;
+    private final boolean brotliAvailable;
+
+    /**
+     * Constructs a new {@code ResponseEncodingFilter}.
+     *
+     * @param minResponseSize the smallest body that is compressed
+     * @param mimeTypes the content types that are compressed
+     * @param brotliQuality the brotli quality level, 0 (fastest) to 11 (smallest)
+     *
+     */
+
+    public ResponseEncodingFilter(@Value("${safeguarding.compression.min-response-size:2KB}") DataSize minResponseSize,
+            @Value("${safeguarding.compression.mime-types:application/json,application/cbor,application/x-jackson-smile,application/x-ndjson,text/csv}") String mimeTypes,
+            @Value("${safeguarding.compression.brotli-quality:4}") int brotliQuality) {
+        this.minResponseSize = minResponseSize.toBytes();
+        this.mimeTypes = MediaType.parseMediaTypes(mimeTypes);
+        this.brotliParameters = new Encoder.Parameters().setQuality(brotliQuality);
+        this.brotliAvailable = Brotli4jLoader.isAvailable();
+    }
+
+    /**
+     * Removes the wire format and content coding this filter appends to entity tags.
+     *
+     * @param tag an entity tag, possibly weak
+     * @return the tag the application computed for the resource
+     */
+    public static String baseTag(String tag) {
+        String value = tag.trim();
+        if (!value.endsWith("\"")) {
+            return value;
+        }
+        String opaque = value.substring(0, value.length() - 1);
+        for (List<String> suffixes : List.of(CODINGS, FORMATS)) {
+            for (String suffix : suffixes) {
+                if (opaque.endsWith("-" + suffix)) {
+                    opaque = opaque.substring(0, opaque.length() - suffix.length() - 1);
+                    break;
+                }
+            }
+        }
+        return opaque + "\"";
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EncodingResponse encoding = WebUtils.getNativeResponse(response, EncodingResponse.class);
+        if (encoding == null) {
+            encoding = new EncodingResponse(request, response, this.coding(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+        }
+        filterChain.doFilter(request, encoding);
+        if (!this.isAsyncStarted(request)) {
+            encoding.finish();
+        }
+    }
+
+    /**
+     * Picks the content coding to use if the response turns out to be large enough.
+     *
+     * @param acceptEncoding the request's {@code Accept-Encoding} header, or {@code null}
+     * @return "br", "gzip", or {@code null} if the client accepts neither
+     */
+    String coding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean gzip = false;
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.trim().split(";");
+            String name = parts[0].trim();
+            if (parts.length > 1 && parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?")) {
+                continue;
+            }
+            if (name.equalsIgnoreCase(BROTLI) && this.brotliAvailable) {
+                return BROTLI;
+            }
+            gzip |= name.equalsIgnoreCase(GZIP) || name.equals("*");
+        }
+        return gzip ? GZIP : null;
+    }
+
+    /**
+     * Buffers the start of the body until it is known whether the response will be compressed.
+     */
+    private final class EncodingResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final String coding;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private Long contentLength;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean encoded;
+        private boolean finished;
+
+        EncodingResponse(HttpServletRequest request, HttpServletResponse response, String coding) {
+            super(response);
+            this.request = request;
+            this.coding = coding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (this.outputStream == null) {
+                this.outputStream = new EncodingOutputStream();
+            }
+            return this.outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (this.writer == null) {
+                this.writer = new PrintWriter(new OutputStreamWriter(this.getOutputStream(), this.getCharacterEncoding()));
+            }
+            return this.writer;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            this.setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (this.target != null && !this.encoded) {
+                super.setContentLengthLong(length);
+            }
+            this.contentLength = length;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                this.setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                this.setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (this.target != null) {
+                if (this.writer != null) {
+                    this.writer.flush();
+                }
+                this.target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            this.resetBody();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            this.resetBody();
+        }
+
+        private void resetBody() {
+            if (this.target == null) {
+                this.buffer.reset();
+                this.contentLength = null;
+            }
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (this.target == null) {
+                if (!this.compressible()) {
+                    this.decide(false);
+                } else if (this.buffer.size() + length >= ResponseEncodingFilter.this.minResponseSize) {
+                    this.buffer.write(bytes, offset, length);
+                    this.decide(false);
+                    return;
+                } else {
+                    this.buffer.write(bytes, offset, length);
+                    return;
+                }
+            }
+            this.target.write(bytes, offset, length);
+        }
+
+        private boolean compressible() {
+            String contentType = this.getContentType();
+            if (contentType == null || this.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+                return false;
+            }
+            MediaType type = MediaType.parseMediaType(contentType);
+            return ResponseEncodingFilter.this.mimeTypes.stream().anyMatch(mimeType -> mimeType.includes(type));
+        }
+
+        /**
+         * Settles the headers and starts writing the body, compressed if it is compressible and at least the
+         * minimum size.
+         *
+         * @param complete whether the buffer holds the whole body
+         */
+        private void decide(boolean complete) throws IOException {
+            boolean large = !complete || this.buffer.size() >= ResponseEncodingFilter.this.minResponseSize;
+            String encodeWith = null;
+            if (this.compressible() && large) {
+                this.vary(HttpHeaders.ACCEPT_ENCODING);
+                encodeWith = this.coding;
+            }
+            String format = null;
+            if (this.getContentType() != null) {
+                MediaType type = MediaType.parseMediaType(this.getContentType());
+                if (NEGOTIATED.stream().anyMatch(negotiated -> negotiated.isCompatibleWith(type))) {
+                    this.vary(HttpHeaders.ACCEPT);
+                    format = FORMATS.stream().filter(type.getSubtype()::endsWith).findFirst().orElse(null);
+                }
+            }
+            this.tag(format, encodeWith);
+
+            OutputStream out = super.getOutputStream();
+            if (encodeWith == null) {
+                if (complete && this.buffer.size() > 0) {
+                    super.setContentLengthLong(this.buffer.size());
+                } else if (!complete && this.contentLength != null) {
+                    super.setContentLengthLong(this.contentLength);
+                }
+                this.target = out;
+            } else {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, encodeWith);
+                this.encoded = true;
+                this.target = BROTLI.equals(encodeWith)
+                        ? new BrotliOutputStream(out, ResponseEncodingFilter.this.brotliParameters)
+                        : new GZIPOutputStream(out, 8192, true);
+            }
+            this.buffer.writeTo(this.target);
+            this.buffer = null;
+        }
+
+        private void vary(String header) {
+            boolean present = this.getHeaders(HttpHeaders.VARY).stream()
+                    .flatMap(value -> List.of(value.split(",")).stream())
+                    .anyMatch(value -> value.trim().equalsIgnoreCase(header));
+            if (!present) {
+                super.addHeader(HttpHeaders.VARY, header);
+            }
+        }
+
+        private void tag(String format, String encodeWith) {
+            String etag = this.getHeader(HttpHeaders.ETAG);
+            if (etag == null || !etag.endsWith("\"") || (format == null && encodeWith == null)) {
+                return;
+            }
+            String opaque = etag.substring(0, etag.length() - 1);
+            if (format != null) {
+                opaque += "-" + format;
+            }
+            if (encodeWith != null) {
+                opaque += "-" + encodeWith;
+            }
+            super.setHeader(HttpHeaders.ETAG, opaque + "\"");
+        }
+
+        /**
+         * Sends back the representation tag the client holds, since a 304 from the application carries the base tag.
+         */
+        private void echoNotModifiedTag() {
+            String etag = this.getHeader(HttpHeaders.ETAG);
+            String ifNoneMatch = this.request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (etag == null || ifNoneMatch == null) {
+                return;
+            }
+            String current = opaque(etag);
+            for (String candidate : ifNoneMatch.split(",")) {
+                if (opaque(baseTag(candidate)).equals(current)) {
+                    super.setHeader(HttpHeaders.ETAG, opaque(candidate.trim()));
+                    return;
+                }
+            }
+        }
+
+        private static String opaque(String tag) {
+            return tag.startsWith("W/") ? tag.substring(2) : tag;
+        }
+
+        /**
+         * Writes out whatever is still buffered and completes the compressed stream.
+         */
+        void finish() throws IOException {
+            if (this.finished) {
+                return;
+            }
+            this.finished = true;
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+            if (this.target == null) {
+                if (this.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+                    this.echoNotModifiedTag();
+                    return;
+                }
+                if (this.buffer.size() == 0 && this.outputStream == null) {
+                    return;
+                }
+                this.decide(true);
+            }
+            if (this.target instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            } else if (this.target instanceof BrotliOutputStream) {
+                this.target.close();
+            } else {
+                this.target.flush();
+            }
+        }
+
+        /**
+         * The body stream handed to the application.
+         */
+        private final class EncodingOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                EncodingResponse.this.write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                EncodingResponse.this.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (EncodingResponse.this.target != null) {
+                    EncodingResponse.this.target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                EncodingResponse.this.finish();
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException("Non-blocking writes are not supported");
+            }
+        }
+    }
+}
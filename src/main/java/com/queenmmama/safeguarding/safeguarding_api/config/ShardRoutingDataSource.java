@@ -0,0 +1,407 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNInstitutions;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNShards;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends each institution's work to the database (shard) its concerns are stored in.
+ *
+ * <p>A connection is routed when it is first used, to the shard of the {@link CONCERNInstitutions#current() current}
+ * institution, so everything a service method does runs against that one shard. Where each institution is stored is
+ * kept in the {@code institution_shards} table on shard 0 and cached here, refreshed every
+ * {@code safeguarding.sharding.directory-refresh}. An institution that is not in the table yet is placed on the shard
+ * {@link InstitutionShardRing consistent hashing} chooses, and recorded there by its first write, so that adding a
+ * shard later does not move it. Existing concerns are recorded where they are found at startup. This data source must
+ * be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, because the
+ * transaction manager asks for a connection before it marks the transaction read-only.</p>
+ *
+ * <p>Background work that spans institutions runs one shard at a time through {@link #onShard(int, Supplier)};
+ * using a connection as {@link CONCERNInstitutions#ALL} outside of it is an error.</p>
+ *
+ * <p>{@link #rebalance(String, int)} moves an institution to another shard while the application serves it. The
+ * institution is marked as moving, which rejects its writes (see {@code InstitutionFilter}) while reads continue
+ * against the old shard; its rows are copied and counted, its placement is switched, and the old rows are deleted.
+ * Marking and switching are each followed by {@code safeguarding.sharding.move-grace}, which must be longer than the
+ * directory refresh, so that every instance has seen the change and finished the transactions it started before.
+ * Rows are read with a fetch size of {@value #COPY_BATCH_SIZE} and inserted in batches of the same size, so a large
+ * institution is never held in memory; MySQL shards need {@code useCursorFetch=true} in their URLs for this.</p>
+ *
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements CONCERNShards, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ShardRoutingDataSource.class);
+    private static final ThreadLocal<Integer> PINNED = new ThreadLocal<>();
+
+    /**
+     * The tables holding an institution's rows, all keyed by {@code institution_id}, copied in this order.
+     */
+    private static final List<String> TABLES = List.of("concerns", "concerns_archive", "concern_counts");
+    private static final int COPY_BATCH_SIZE = 500;
+
+    private static final String CREATE_DIRECTORY = "create table if not exists institution_shards (institution_id varchar(64) not null primary key, "
+            + "shard int not null, moving boolean not null)";
+    private static final String READ_DIRECTORY = "select institution_id, shard, moving from institution_shards";
+    private static final String INSERT_PLACEMENT = "insert into institution_shards (institution_id, shard, moving) values (?, ?, ?)";
+    private static final String MARK_MOVING = "update institution_shards set moving = true where institution_id = ? and moving = false";
+    private static final String SWITCH_SHARD = "update institution_shards set shard = ? where institution_id = ?";
+    private static final String CLEAR_MOVING = "update institution_shards set moving = false where institution_id = ?";
+    private static final String FIND_INSTITUTIONS = "select distinct institution_id from concerns union select distinct institution_id from concerns_archive";
+
+    private final List<HikariDataSource> shards;
+    private final List<JdbcTemplate> shardJdbc;
+    private final List<JdbcTemplate> copyJdbc;
+    private final JdbcTemplate directoryJdbc;
+    private final InstitutionShardRing ring;
+    private final Duration moveGrace;
+    private volatile Map<String, Placement> placements = Map.of();
+
+    /**
+     * Constructs a new {@code ShardRoutingDataSource} and reads the placement directory, creating it if needed.
+     *
+     * @param shards the pools of connections to the shards; the first also holds the placement directory
+     * @param ring the ring that places new institutions; must have as many shards as there are pools
+     * @param moveGrace how long a move waits for every instance to see each of its steps
+     * @throws IllegalArgumentException if there are fewer than two shards or the ring does not match them
+     *
+     */
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards, InstitutionShardRing ring, Duration moveGrace) {
+        if (shards.size() < 2) {
+            throw new IllegalArgumentException("At least two shards are required");
+        }
+        if (ring.getShards() != shards.size()) {
+            throw new IllegalArgumentException("The ring has " + ring.getShards() + " shards but there are " + shards.size());
+        }
+        this.shards = List.copyOf(shards);
+        this.shardJdbc = this.shards.stream().map(JdbcTemplate::new).toList();
+        this.copyJdbc = this.shards.stream().map(shard -> {
+            JdbcTemplate jdbc = new JdbcTemplate(shard);
+            jdbc.setFetchSize(COPY_BATCH_SIZE);
+            return jdbc;
+        }).toList();
+        this.directoryJdbc = this.shardJdbc.get(0);
+        this.ring = ring;
+        this.moveGrace = moveGrace;
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < this.shards.size(); i++) {
+            targets.put(i, this.shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+        initialize();
+        this.directoryJdbc.execute(CREATE_DIRECTORY);
+        refreshPlacements();
+    }
+
+    @Override
+    public int count() {
+        return this.shards.size();
+    }
+
+    @Override
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (shard < 0 || shard >= this.shards.size()) {
+            throw new IllegalArgumentException("No shard " + shard);
+        }
+        Integer previous = PINNED.get();
+        PINNED.set(shard);
+        try {
+            return CONCERNInstitutions.call(CONCERNInstitutions.ALL, work);
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            } else {
+                PINNED.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer pinned = PINNED.get();
+        if (pinned != null) {
+            return pinned;
+        }
+        String institution = CONCERNInstitutions.current();
+        if (CONCERNInstitutions.ALL.equals(institution)) {
+            throw new IllegalStateException("Work on every institution must run on one shard at a time, see CONCERNShards");
+        }
+        boolean writing = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        Placement placement = this.placements.get(institution);
+        if (placement == null) {
+            return writing ? this.place(institution) : this.ring.shardFor(institution);
+        }
+        if (placement.moving() && writing) {
+            throw new TransientDataAccessResourceException("Institution " + institution + " is being moved to another shard");
+        }
+        return placement.shard();
+    }
+
+    /**
+     * Reloads the placement directory, picking up placements and moves made by other instances.
+     */
+    @Scheduled(fixedDelayString = "${safeguarding.sharding.directory-refresh:1s}")
+    public void refreshPlacements() {
+        try {
+            Map<String, Placement> read = new HashMap<>();
+            this.directoryJdbc.query(READ_DIRECTORY, row -> {
+                read.put(row.getString(1), new Placement(row.getInt(2), row.getBoolean(3)));
+            });
+            this.placements = Map.copyOf(read);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the institution placement directory", e);
+        }
+    }
+
+    /**
+     * Records every institution that already has concerns on a shard as placed there, so that they are found where
+     * they are regardless of the ring. Called once the schema exists on every shard.
+     */
+    public void adoptExistingInstitutions() {
+        refreshPlacements();
+        for (int shard = 0; shard < this.shards.size(); shard++) {
+            List<String> institutions;
+            try {
+                institutions = this.shardJdbc.get(shard).queryForList(FIND_INSTITUTIONS, String.class);
+            } catch (DataAccessException e) {
+                log.warn("Could not list the institutions stored on {}", this.shards.get(shard).getPoolName(), e);
+                continue;
+            }
+            for (String institution : institutions) {
+                Placement placement = this.placements.get(institution);
+                if (placement == null) {
+                    this.record(institution, shard);
+                } else if (placement.shard() != shard && !placement.moving()) {
+                    log.warn("Institution {} has concerns on {} but is placed on {}; they are not served", institution,
+                            this.shards.get(shard).getPoolName(), this.shards.get(placement.shard()).getPoolName());
+                }
+            }
+        }
+        refreshPlacements();
+    }
+
+    /**
+     * Moves an institution's concerns, archived concerns and counts to another shard, rejecting its writes meanwhile.
+     *
+     * @param institution the institution to move
+     * @param target the shard to move it to
+     * @return the number of rows moved, 0 if the institution is already on that shard
+     * @throws IllegalArgumentException if the institution ID is invalid or there is no such shard
+     * @throws IllegalStateException if the institution is already being moved or its rows were not all copied
+     *
+     */
+
+    public long rebalance(String institution, int target) {
+        CONCERNInstitutions.validate(institution);
+        if (target < 0 || target >= this.shards.size()) {
+            throw new IllegalArgumentException("No shard " + target);
+        }
+        refreshPlacements();
+        int source = this.shardOf(institution);
+        if (source == target) {
+            return 0;
+        }
+        if (this.directoryJdbc.update(MARK_MOVING, institution) == 0 && !this.record(institution, source, true)) {
+            throw new IllegalStateException("Institution " + institution + " is already being moved");
+        }
+        log.info("Moving institution {} from {} to {}", institution, this.shards.get(source).getPoolName(),
+                this.shards.get(target).getPoolName());
+        boolean switched = false;
+        try {
+            refreshPlacements();
+            pause(this.moveGrace);
+            long moved = 0;
+            for (String table : TABLES) {
+                this.delete(target, table, institution);
+            }
+            for (String table : TABLES) {
+                long copied = this.copy(source, target, table, institution);
+                long counted = this.countRows(target, table, institution);
+                if (copied != counted || counted != this.countRows(source, table, institution)) {
+                    throw new IllegalStateException("Copied " + copied + " rows of " + table + " for institution " + institution
+                            + " but found " + counted + " on the target");
+                }
+                moved += copied;
+            }
+            this.directoryJdbc.update(SWITCH_SHARD, target, institution);
+            switched = true;
+            refreshPlacements();
+            pause(this.moveGrace);
+            this.directoryJdbc.update(CLEAR_MOVING, institution);
+            refreshPlacements();
+            for (String table : TABLES) {
+                this.delete(source, table, institution);
+            }
+            log.info("Moved {} rows of institution {} to {}", moved, institution, this.shards.get(target).getPoolName());
+            return moved;
+        } catch (RuntimeException e) {
+            if (!switched) {
+                this.directoryJdbc.update(CLEAR_MOVING, institution);
+                refreshPlacements();
+                try {
+                    for (String table : TABLES) {
+                        this.delete(target, table, institution);
+                    }
+                } catch (DataAccessException cleanup) {
+                    e.addSuppressed(cleanup);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param institution the institution
+     * @return the shard the institution's concerns are stored in, or will be once it has any
+     */
+    public int shardOf(String institution) {
+        Placement placement = this.placements.get(institution);
+        return placement == null ? this.ring.shardFor(institution) : placement.shard();
+    }
+
+    /**
+     * @param institution the institution
+     * @return whether the institution is being moved to another shard, so that its writes are rejected
+     */
+    public boolean isMoving(String institution) {
+        Placement placement = this.placements.get(institution);
+        return placement != null && placement.moving();
+    }
+
+    /**
+     * @return the recorded placement of every institution, by institution ID
+     */
+    public Map<String, Placement> getPlacements() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(this.placements));
+    }
+
+    /**
+     * @return the shards' connection pools, in configuration order
+     */
+    public List<? extends DataSource> getShards() {
+        return this.shards;
+    }
+
+    /**
+     * Closes every shard's connection pool.
+     */
+    @Override
+    public void close() {
+        this.shards.forEach(HikariDataSource::close);
+    }
+
+    /**
+     * Records a new institution's placement on the shard the ring chooses, unless another thread or instance has
+     * just recorded one.
+     */
+    private int place(String institution) {
+        this.record(institution, this.ring.shardFor(institution));
+        refreshPlacements();
+        Placement placement = this.placements.get(institution);
+        if (placement == null) {
+            throw new TransientDataAccessResourceException("Could not record the shard of institution " + institution);
+        }
+        if (placement.moving()) {
+            throw new TransientDataAccessResourceException("Institution " + institution + " is being moved to another shard");
+        }
+        return placement.shard();
+    }
+
+    private boolean record(String institution, int shard) {
+        return this.record(institution, shard, false);
+    }
+
+    /**
+     * @return {@code false} if the institution already has a placement
+     */
+    private boolean record(String institution, int shard, boolean moving) {
+        try {
+            this.directoryJdbc.update(INSERT_PLACEMENT, institution, shard, moving);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private long copy(int source, int target, String table, String institution) {
+        JdbcTemplate targetJdbc = this.shardJdbc.get(target);
+        List<Object[]> batch = new ArrayList<>(COPY_BATCH_SIZE);
+        StringBuilder insert = new StringBuilder();
+        long[] copied = new long[1];
+        this.copyJdbc.get(source).query("select * from " + table + " where institution_id = ?", row -> {
+            ResultSetMetaData metaData = row.getMetaData();
+            int columns = metaData.getColumnCount();
+            if (insert.isEmpty()) {
+                List<String> names = new ArrayList<>(columns);
+                for (int i = 1; i <= columns; i++) {
+                    names.add(metaData.getColumnLabel(i));
+                }
+                insert.append("insert into ").append(table).append(" (").append(String.join(", ", names))
+                        .append(") values (").append(String.join(", ", Collections.nCopies(columns, "?"))).append(")");
+            }
+            Object[] values = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                values[i] = row.getObject(i + 1);
+            }
+            batch.add(values);
+            if (batch.size() == COPY_BATCH_SIZE) {
+                targetJdbc.batchUpdate(insert.toString(), batch);
+                copied[0] += batch.size();
+                batch.clear();
+            }
+        }, institution);
+        if (!batch.isEmpty()) {
+            targetJdbc.batchUpdate(insert.toString(), batch);
+            copied[0] += batch.size();
+        }
+        return copied[0];
+    }
+
+    private long countRows(int shard, String table, String institution) {
+        Long count = this.shardJdbc.get(shard).queryForObject("select count(*) from " + table + " where institution_id = ?",
+                Long.class, institution);
+        return count == null ? 0 : count;
+    }
+
+    private void delete(int shard, String table, String institution) {
+        this.shardJdbc.get(shard).update("delete from " + table + " where institution_id = ?", institution);
+    }
+
+    private static void pause(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while moving an institution", e);
+        }
+    }
+
+    /**
+     * Where an institution is stored.
+     *
+     * @param shard the shard holding its concerns
+     * @param moving whether it is being moved away from that shard
+     */
+    public record Placement(int shard, boolean moving) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.SchemaToolingSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+
+/**
+ * Applies {@code spring.jpa.hibernate.ddl-auto} to every shard instead of only the one Hibernate happens to connect
+ * to.
+ *
+ * <p>Hibernate's own schema management is turned off, and the configured action ({@code create-drop}, {@code update}
+ * and so on) is run once per shard while the session factory is built, pinned with
+ * {@link ShardRoutingDataSource#onShard(int, java.util.function.Supplier)}. The drops of {@code create-drop} run on
+ * every shard when the session factory closes. Once the schema exists, the institutions already stored on each shard
+ * are recorded in the placement directory.</p>
+ *
+ */
+public class ShardSchemaManager implements HibernatePropertiesCustomizer, IntegratorProvider, Integrator {
+
+    private final ShardRoutingDataSource routingDataSource;
+    private final List<Runnable> delayedDrops = new ArrayList<>();
+    private volatile Object action;
+
+    /**
+     * Constructs a new {@code ShardSchemaManager}.
+     *
+     * @param routingDataSource the data source whose shards are managed
+     *
+     */
+
+    public ShardSchemaManager(ShardRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        this.action = hibernateProperties.put(SchemaToolingSettings.HBM2DDL_AUTO, "none");
+        hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER, this);
+    }
+
+    @Override
+    public List<Integrator> getIntegrators() {
+        return List.of(this);
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        if (this.action != null) {
+            Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+            settings.put(SchemaToolingSettings.HBM2DDL_AUTO, this.action);
+            for (int shard = 0; shard < this.routingDataSource.count(); shard++) {
+                int current = shard;
+                this.routingDataSource.onShard(shard, () -> {
+                    SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), settings,
+                            drop -> this.delayedDrops.add(() -> this.dropOnShard(current, drop, sessionFactory)));
+                    return null;
+                });
+            }
+        }
+        this.routingDataSource.adoptExistingInstitutions();
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.delayedDrops.forEach(Runnable::run);
+        this.delayedDrops.clear();
+    }
+
+    private void dropOnShard(int shard, DelayedDropAction drop, SessionFactoryImplementor sessionFactory) {
+        this.routingDataSource.onShard(shard, () -> {
+            drop.perform(sessionFactory.getServiceRegistry());
+            return null;
+        });
+    }
+}
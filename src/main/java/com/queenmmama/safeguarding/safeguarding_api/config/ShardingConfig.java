@@ -0,0 +1,95 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the single auto-configured data source with one that stores each institution's concerns on one of
+ * several databases (shards).
+ *
+ * <p>Shard 0 is the database of {@code spring.datasource.*}, which also holds the placement directory. Each URL in
+ * {@code safeguarding.sharding.shard-urls} adds a shard with the same credentials and {@code spring.datasource.hikari.*}
+ * settings, named {@code shard-0}, {@code shard-1} and so on in the {@code hikaricp.*} metrics. See
+ * {@link ShardRoutingDataSource} for how connections are routed and institutions moved. The shards must be listed in
+ * the same order on every instance, and shards may only be added at the end.</p>
+ *
+ * <p>Only active when {@code safeguarding.sharding.shard-urls} is set. It cannot be combined with read replicas
+ * ({@code safeguarding.datasource.replica-urls}).</p>
+ *
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "safeguarding.sharding.shard-urls")
+public class ShardingConfig {
+
+    /**
+     * Creates a pool for every shard and the data source that chooses between them.
+     *
+     * @param properties the settings of the data source that becomes shard 0
+     * @param environment the environment the pool settings are bound from
+     * @param meterRegistry the registry the pool metrics are published to
+     * @param shardUrls the JDBC URLs of the shards after shard 0
+     * @param virtualNodes the number of points each shard owns on the consistent-hashing ring
+     * @param moveGrace how long a move waits for every instance to see each of its steps
+     * @return the routing data source
+     *
+     */
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${safeguarding.sharding.shard-urls}") List<String> shardUrls,
+            @Value("${safeguarding.sharding.virtual-nodes:64}") int virtualNodes,
+            @Value("${safeguarding.sharding.move-grace:3s}") Duration moveGrace) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        shards.add(ReplicaRoutingConfig.pool(properties, environment, meterRegistry, properties.determineUrl(), "shard-0"));
+        for (String url : shardUrls) {
+            shards.add(ReplicaRoutingConfig.pool(properties, environment, meterRegistry, url.trim(), "shard-" + shards.size()));
+        }
+        return new ShardRoutingDataSource(shards, new InstitutionShardRing(shards.size(), virtualNodes), moveGrace);
+    }
+
+    /**
+     * The data source used by JPA and everything else: the routing data source, with connections fetched only
+     * once the transaction's read-only flag is known.
+     *
+     * @param routingDataSource the routing data source
+     * @return the application's data source
+     *
+     */
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * @param routingDataSource the routing data source
+     * @return the manager that creates or updates the schema on every shard
+     */
+    @Bean
+    public ShardSchemaManager shardSchemaManager(ShardRoutingDataSource routingDataSource) {
+        return new ShardSchemaManager(routingDataSource);
+    }
+
+    /**
+     * @param routingDataSource the routing data source
+     * @return the {@code /actuator/shards} endpoint
+     */
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ShardRoutingDataSource routingDataSource) {
+        return new ShardsEndpoint(routingDataSource);
+    }
+}
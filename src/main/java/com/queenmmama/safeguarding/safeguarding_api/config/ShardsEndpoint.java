@@ -0,0 +1,77 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.Access;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Actuator endpoint ({@code /actuator/shards}) showing where institutions are stored and moving them between shards.
+ *
+ * <p>{@code GET} lists the number of shards and every recorded placement. {@code POST} with
+ * {@code {"institution": "...", "shard": n}} moves an institution to shard {@code n} with
+ * {@link ShardRoutingDataSource#rebalance(String, int)} and answers once the move has finished.</p>
+ *
+ * <p>Neither is reachable unless the endpoint is exposed with {@code management.endpoints.web.exposure.include}, and
+ * moves are refused unless {@code management.endpoint.shards.access=unrestricted} is also set, because a move copies
+ * and then deletes an institution's rows and the management endpoints are not authenticated. Opt in only on a
+ * management port that clients cannot reach, e.g. {@code management.server.port} with
+ * {@code management.server.address=127.0.0.1}.</p>
+ *
+ */
+@Endpoint(id = "shards", defaultAccess = Access.READ_ONLY)
+public class ShardsEndpoint {
+
+    private final ShardRoutingDataSource routingDataSource;
+
+    /**
+     * Constructs a new {@code ShardsEndpoint}.
+     *
+     * @param routingDataSource the data source whose shards are shown and rebalanced
+     *
+     */
+
+    public ShardsEndpoint(ShardRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    /**
+     * @return the number of shards and the placement of every institution
+     */
+    @ReadOperation
+    public Map<String, Object> shards() {
+        Map<String, Object> shards = new LinkedHashMap<>();
+        shards.put("shards", this.routingDataSource.count());
+        shards.put("placements", this.routingDataSource.getPlacements());
+        return shards;
+    }
+
+    /**
+     * Moves an institution to another shard.
+     *
+     * @param institution the institution to move
+     * @param shard the shard to move it to
+     * @return the shards it was moved between and the number of rows moved
+     *
+     */
+
+    @WriteOperation
+    public Map<String, Object> rebalance(String institution, int shard) {
+        int source = this.routingDataSource.shardOf(institution);
+        long rows;
+        try {
+            rows = this.routingDataSource.rebalance(institution, shard);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("institution", institution);
+        result.put("from", source);
+        result.put("to", shard);
+        result.put("rows", rows);
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread while blocking.
+ *
+ * <p>A pinned virtual thread (one blocking inside a {@code synchronized} block or a native frame) holds on
+ * to one of the few carrier threads, so a handful of them can stall the whole request pool. This monitor
+ * listens for the JDK Flight Recorder {@code jdk.VirtualThreadPinned} event, logs the blocking frames and
+ * counts occurrences in the {@code jvm.threads.virtual.pinned} metric.</p>
+ *
+ * <p>Only active when {@code spring.threads.virtual.enabled=true}.</p>
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Counter pinnedCounter;
+    private final Duration threshold;
+    private RecordingStream recording;
+
+    /**
+     * Constructs a new {@code VirtualThreadPinningMonitor}.
+     *
+     * @param meterRegistry the registry the pinned-thread counter is published to
+     * @param threshold the shortest pinned block worth reporting
+     *
+     */
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+            @Value("${safeguarding.threads.pinned-threshold:20ms}") Duration threshold) {
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Starts listening for pinned virtual threads once the application is ready.
+     *
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.recording = new RecordingStream();
+        this.recording.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+        this.recording.onEvent(PINNED_EVENT, event -> {
+            this.pinnedCounter.increment();
+            if (log.isWarnEnabled()) {
+                log.warn("Virtual thread pinned for {} ms at:{}", event.getDuration().toMillis(), frames(event.getStackTrace()));
+            }
+        });
+        this.recording.startAsync();
+    }
+
+    @Override
+    public void destroy() {
+        if (this.recording != null) {
+            this.recording.close();
+        }
+    }
+
+    private static String frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " (no stack trace)";
+        }
+        StringBuilder frames = new StringBuilder();
+        for (RecordedFrame frame : stackTrace.getFrames().subList(0, Math.min(LOGGED_FRAMES, stackTrace.getFrames().size()))) {
+            frames.append("\n\tat ").append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return frames.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary wire formats offered alongside JSON.
+ *
+ * <p>Clients choose CBOR ({@code application/cbor}) or Smile ({@code application/x-jackson-smile}) with the
+ * {@code Accept} header; JSON stays the default. Both mappers are built from Spring Boot's
+ * {@link Jackson2ObjectMapperBuilder}, so they carry the same modules and {@code spring.jackson.*} settings as the
+ * JSON mapper and encode the same fields. The beans replace the converters Spring MVC would otherwise register
+ * with a plain mapper.</p>
+ *
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Media type of Smile-encoded bodies.
+     */
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    /**
+     * @param builder Spring Boot's object mapper builder
+     * @return the CBOR message converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * @param builder Spring Boot's object mapper builder
+     * @return the Smile message converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,193 @@
+package com.queenmmama.safeguarding.safeguarding_api.loadtest;
+
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNProperties;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the embedded database of the {@code loadtest} profile with generated concerns before the application
+ * starts serving.
+ *
+ * <p>The data is shaped like a school's: the number of concerns per student and per reporter follows a Zipf
+ * distribution (a few students account for many concerns, most have one or two), most concerns are resolved, and
+ * report dates cluster in recent months. The same {@code safeguarding.loadtest.random-seed} produces the same
+ * concerns, apart from their IDs and the reference time, so runs are comparable.</p>
+ *
+ * <p>Concerns go through {@link CONCERNService#createCONCERNs(List)} in batches, so the per-student counts, the
+ * search index and the student name index are built exactly as in production.</p>
+ *
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    private static final String[] FIRST_NAMES = {"Amara", "Ben", "Chloe", "Dev", "Ella", "Finn", "Grace", "Hassan", "Isla",
+        "Jack", "Kai", "Leah", "Mohammed", "Nia", "Oliver", "Priya", "Quinn", "Ruby", "Sami", "Tara", "Umar", "Violet",
+        "Wiktor", "Xena", "Yusuf", "Zoë", "Aoife", "Bartek", "Chidi", "Dara", "Emeka", "Freya", "Gabriel", "Hana", "Ibrahim",
+        "Jade", "Kofi", "Lucía", "Mateo", "Noor"};
+    private static final String[] LAST_NAMES = {"Adeyemi", "Brown", "Chen", "Davies", "Evans", "Fernández", "Green", "Hughes",
+        "Iqbal", "Jones", "Khan", "Lewis", "Murphy", "Nowak", "O'Brien", "Patel", "Quinn", "Roberts", "Smith", "Taylor",
+        "Usman", "Walsh", "Williams", "Wright", "Young", "Zielińska", "Ahmed", "Begum", "Clarke", "Dubois", "Edwards",
+        "Fischer", "Gómez", "Hall", "Ito", "Johnson", "Kowalski", "Li", "Mensah", "Nguyen"};
+    private static final String[] REPORTER_ROLES = {"Teacher", "Teaching Assistant", "Head of Year", "School Nurse",
+        "Pastoral Lead", "Classmate", "Parent", "Lunchtime Supervisor"};
+    private static final String[] OBSERVATIONS = {"Seemed withdrawn and tearful during lessons.",
+        "Has arrived without lunch several days this week.", "Unexplained bruising noticed on the forearm.",
+        "Disclosed arguments at home that keep them awake.", "Attendance has dropped sharply since half term.",
+        "Mentioned being messaged by an adult they met online.", "Was seen being pushed by older pupils at break.",
+        "Wearing the same clothes for several days and appears tired.", "Spoke about not wanting to go home after school.",
+        "Self-harm marks reported by a friend."};
+    private static final String[] ACTIONS = {"Spoke with the student privately.", "Parents contacted by phone.",
+        "Referred to the designated safeguarding lead.", "Logged for follow-up at the weekly pastoral meeting.",
+        "School nurse informed.", "No further action agreed at this stage."};
+    private static final String[] STATUSES = {"Open", "In Progress", "Resolved"};
+
+    /**
+     * Cumulative share of each status: a quarter open, 15% in progress, the rest resolved.
+     */
+    private static final double[] STATUS_SHARES = {0.25, 0.40, 1.0};
+
+    private final CONCERNService concernService;
+    private final int concerns;
+    private final int students;
+    private final int reporters;
+    private final double skew;
+    private final Duration history;
+    private final long randomSeed;
+    private final int batchSize;
+
+    /**
+     * Constructs a new {@code LoadTestDataSeeder}.
+     *
+     * @param concernService the service the concerns are created through
+     * @param properties the configured batch limit
+     * @param concerns the number of concerns to generate
+     * @param students the number of distinct students
+     * @param reporters the number of distinct reporters
+     * @param skew the Zipf exponent of concerns per student and per reporter; 0 spreads them evenly
+     * @param history how far back report dates go
+     * @param randomSeed the seed of the generator
+     *
+     */
+
+    public LoadTestDataSeeder(CONCERNService concernService, CONCERNProperties properties,
+            @Value("${safeguarding.loadtest.concerns:100000}") int concerns,
+            @Value("${safeguarding.loadtest.students:10000}") int students,
+            @Value("${safeguarding.loadtest.reporters:300}") int reporters,
+            @Value("${safeguarding.loadtest.skew:1.0}") double skew,
+            @Value("${safeguarding.loadtest.history:1095d}") Duration history,
+            @Value("${safeguarding.loadtest.random-seed:42}") long randomSeed) {
+        this.concernService = concernService;
+        this.concerns = concerns;
+        this.students = students;
+        this.reporters = reporters;
+        this.skew = skew;
+        this.history = history;
+        this.randomSeed = randomSeed;
+        this.batchSize = properties.batch().maxItems();
+    }
+
+    /**
+     * Generates and stores the configured number of concerns.
+     *
+     * @param args the application arguments, unused
+     *
+     */
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Random random = new Random(this.randomSeed);
+        double[] studentWeights = zipf(this.students, this.skew);
+        double[] reporterWeights = zipf(this.reporters, this.skew);
+        Instant now = Instant.now();
+        List<CONCERN> batch = new ArrayList<>(this.batchSize);
+        for (int i = 0; i < this.concerns; i++) {
+            batch.add(new CONCERN(null,
+                    studentName(sample(studentWeights, random)),
+                    reporterName(sample(reporterWeights, random)),
+                    description(random),
+                    STATUSES[sample(STATUS_SHARES, random)],
+                    now.minus(reportAge(random))));
+            if (batch.size() == this.batchSize) {
+                this.concernService.createCONCERNs(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            this.concernService.createCONCERNs(batch);
+        }
+        log.info("Seeded {} concerns for {} students in {} ms", this.concerns, this.students, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the name of the given student; names are unique for any number of students.
+     *
+     * @param index the student's index
+     * @return the student's name
+     */
+    public static String studentName(int index) {
+        int combinations = FIRST_NAMES.length * LAST_NAMES.length;
+        String name = FIRST_NAMES[index % FIRST_NAMES.length] + " " + LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+        return index < combinations ? name : name + " " + (index / combinations + 1);
+    }
+
+    private static String reporterName(int index) {
+        return REPORTER_ROLES[index % REPORTER_ROLES.length] + " " + LAST_NAMES[(index / REPORTER_ROLES.length) % LAST_NAMES.length]
+                + (index < REPORTER_ROLES.length * LAST_NAMES.length ? "" : " " + (index / (REPORTER_ROLES.length * LAST_NAMES.length) + 1));
+    }
+
+    private static String description(Random random) {
+        StringBuilder description = new StringBuilder(OBSERVATIONS[random.nextInt(OBSERVATIONS.length)]);
+        for (int sentences = random.nextInt(3); sentences > 0; sentences--) {
+            description.append(' ').append(ACTIONS[random.nextInt(ACTIONS.length)]);
+        }
+        return description.toString();
+    }
+
+    /**
+     * Returns an age biased towards recent reports: exponential with a mean of a sixth of the history, capped at the history.
+     */
+    private Duration reportAge(Random random) {
+        double fraction = Math.min(1, -Math.log(1 - random.nextDouble()) / 6);
+        return Duration.ofSeconds((long)(this.history.toSeconds() * fraction));
+    }
+
+    /**
+     * Returns the cumulative weights of ranks 1 to {@code n} under a Zipf distribution with the given exponent.
+     */
+    private static double[] zipf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Picks an index with the probabilities given by cumulative weights ending at 1.
+     */
+    private static int sample(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index < 0 ? -index - 1 : index);
+    }
+}
@@ -0,0 +1,145 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.queenmmama.safeguarding.safeguarding_api.config.AdaptiveConcurrencyLimit;
+import com.queenmmama.safeguarding.safeguarding_api.config.AdmissionControlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for load shedding on the concerns API with {@link AdmissionControlFilter} and {@link AdaptiveConcurrencyLimit}.
+ *
+ * <p>The filter's limit is pinned to 10, with 2 reserved for new reports, and filled by taking permits directly.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Rejecting reads with 503 and Retry-After while new reports are still admitted</li>
+ *  <li>Rejecting new reports once the whole limit is taken, and counting rejections</li>
+ *  <li>Leaving the export stream unlimited</li>
+ *  <li>Growing the limit while latency is steady and shrinking it when latency rises</li>
+ * </ul>
+ *
+ */
+@SpringBootTest(properties = {
+    "safeguarding.admission.initial-limit=10",
+    "safeguarding.admission.min-limit=10",
+    "safeguarding.admission.max-limit=10",
+    "safeguarding.admission.reserved-for-submissions=0.2",
+    "safeguarding.admission.retry-after=3s"
+})
+@AutoConfigureMockMvc
+class CONCERNAdmissionControlTest {
+
+    private static final String NEW_CONCERN = """
+            {"studentName":"Admission Student","reportedBy":"Teacher A","description":"Description","status":"Open"}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private int taken;
+
+    /**
+     * Gives back the permits a test took.
+     */
+    @AfterEach
+    void tearDown() {
+        for (; taken > 0; taken--) {
+            admissionControlFilter.getLimit().release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Tests that reads are shed once the unreserved part of the limit is taken, and new reports once all of it is.
+     */
+    @Test
+    void testShedsReadsBeforeSubmissions() throws Exception {
+        take(false, 8);
+        assertFalse(admissionControlFilter.getLimit().tryAcquire(false));
+        assertEquals(8, meterRegistry.get("concerns.admission.in.flight").gauge().value());
+        double rejected = meterRegistry.get("concerns.admission.rejected").tag("priority", "submission").counter().count();
+
+        mockMvc.perform(get("/api/concerns"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+        mockMvc.perform(post("/api/concerns/batch").contentType(MediaType.APPLICATION_JSON).content("[" + NEW_CONCERN + "]"))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON).content(NEW_CONCERN))
+                .andExpect(status().isCreated());
+
+        take(true, 2);
+        mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON).content(NEW_CONCERN))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+        assertEquals(rejected + 1, meterRegistry.get("concerns.admission.rejected").tag("priority", "submission").counter().count());
+        assertEquals(10, meterRegistry.get("concerns.admission.limit").gauge().value());
+    }
+
+    /**
+     * Tests that the export stream is served while the limit is taken.
+     */
+    @Test
+    void testStreamsAreNotLimited() throws Exception {
+        take(true, 10);
+        mockMvc.perform(get("/api/concerns/export")).andExpect(status().isOk());
+    }
+
+    /**
+     * Tests that the limit grows under steady latency, shrinks when latency rises, and grows again when it recovers.
+     */
+    @Test
+    void testLimitFollowsLatency() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, 2.0, 0.2);
+        runAtLimit(limit, 200, 10);
+        int grown = limit.getLimit();
+        assertTrue(grown > 20, "limit grew to " + grown);
+
+        runAtLimit(limit, 1, 100);
+        int shrunk = limit.getLimit();
+        assertTrue(shrunk < grown / 2, "limit shrank to " + shrunk);
+
+        runAtLimit(limit, 200, 10);
+        assertTrue(limit.getLimit() > shrunk);
+        assertEquals(0, limit.getInFlight());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(5, 10, 20, 2.0, 0.2));
+    }
+
+    private void take(boolean priority, int permits) {
+        for (int i = 0; i < permits; i++) {
+            assertTrue(admissionControlFilter.getLimit().tryAcquire(priority));
+            taken++;
+        }
+    }
+
+    /**
+     * Fills the limit and completes every request with the given latency, {@code rounds} times.
+     */
+    private static void runAtLimit(AdaptiveConcurrencyLimit limit, int rounds, long latencyMillis) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire(true)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+            }
+        }
+    }
+}
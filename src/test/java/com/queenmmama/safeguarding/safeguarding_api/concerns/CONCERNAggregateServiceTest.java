@@ -0,0 +1,89 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for {@link CONCERNAggregateService} against the embedded H2 database in MySQL mode,
+ * which the counters' native upserts need.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Counting created concerns per student and for all students</li>
+ *  <li>Moving a concern between statuses and students, and removing it</li>
+ *  <li>Reconciling the counts from the concerns table after they drift</li>
+ * </ul>
+ *
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CONCERNAggregateService.class)
+class CONCERNAggregateServiceTest {
+
+    @Autowired
+    private CONCERNAggregateService aggregateService;
+
+    @Autowired
+    private CONCERNRepository concernRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    /**
+     * Tests that created concerns are counted for their student and in the totals.
+     */
+    @Test
+    void testRecordCreated() {
+        aggregateService.recordCreated(List.of(concern("Alice", "Open"), concern("Alice", "Open"), concern("Bob", "Resolved")));
+
+        assertEquals(new CONCERNAggregates(null, Map.of("Open", 2L, "Resolved", 1L), 3), aggregateService.getAggregates(null));
+        assertEquals(new CONCERNAggregates("Alice", Map.of("Open", 2L), 2), aggregateService.getAggregates("Alice"));
+        assertEquals(new CONCERNAggregates("Carol", Map.of(), 0), aggregateService.getAggregates("Carol"));
+    }
+
+    /**
+     * Tests that status changes, student changes and deletes move the counts, and that emptied statuses are omitted.
+     */
+    @Test
+    void testRecordTransition() {
+        aggregateService.recordCreated(List.of(concern("Alice", "Open"), concern("Alice", "Open")));
+
+        aggregateService.recordTransition(new CONCERNStudentStatus("Alice", "Open"), new CONCERNStudentStatus("Alice", "In Progress"));
+        aggregateService.recordTransition(new CONCERNStudentStatus("Alice", "Open"), new CONCERNStudentStatus("Bob", "Open"));
+        assertEquals(Map.of("In Progress", 1L), aggregateService.getAggregates("Alice").byStatus());
+        assertEquals(Map.of("Open", 1L), aggregateService.getAggregates("Bob").byStatus());
+        assertEquals(Map.of("Open", 1L, "In Progress", 1L), aggregateService.getAggregates(null).byStatus());
+
+        aggregateService.recordTransition(new CONCERNStudentStatus("Bob", "Open"), null);
+        assertEquals(new CONCERNAggregates(null, Map.of("In Progress", 1L), 1), aggregateService.getAggregates(null));
+    }
+
+    /**
+     * Tests that reconciliation rebuilds the counts from the concerns table, discarding drifted values.
+     */
+    @Test
+    void testReconcile() {
+        concernRepository.saveAll(List.of(concern("Alice", "Open"), concern("Alice", "Resolved"), concern("Bob", "Open")));
+        entityManager.flush();
+        aggregateService.recordTransition(null, new CONCERNStudentStatus("Ghost", "Open"));
+
+        aggregateService.reconcile();
+
+        assertEquals(new CONCERNAggregates(null, Map.of("Open", 2L, "Resolved", 1L), 3), aggregateService.getAggregates(null));
+        assertEquals(new CONCERNAggregates("Alice", Map.of("Open", 1L, "Resolved", 1L), 2), aggregateService.getAggregates("Alice"));
+        assertEquals(0, aggregateService.getAggregates("Ghost").total());
+    }
+
+    private static CONCERN concern(String studentName, String status) {
+        return new CONCERN(null, studentName, "Teacher A", "Description", status, Instant.parse("2025-09-01T08:00:00Z"));
+    }
+}
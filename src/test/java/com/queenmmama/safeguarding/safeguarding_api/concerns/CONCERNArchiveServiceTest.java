@@ -0,0 +1,181 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for moving resolved concerns to the archive table with {@link CONCERNArchiveService}, and for reading
+ * them back through {@link CONCERNService}.
+ *
+ * <p>Chunks are shrunk to 2 concerns so that a run needs several of them.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Moving only old resolved concerns, in chunks</li>
+ *  <li>Reading an archived concern and its version by ID</li>
+ *  <li>Paging forwards and backwards over current and archived concerns together</li>
+ *  <li>Exporting archived concerns when asked, with their folded student name kept</li>
+ *  <li>Keeping the per-status counts, also after reconciliation</li>
+ *  <li>Publishing the size of both tables</li>
+ *  <li>Comparing keys in the database's order when merging pages</li>
+ * </ul>
+ *
+ */
+@SpringBootTest(properties = {
+    "safeguarding.concerns.archive.chunk-size=2",
+    "safeguarding.concerns.archive.chunk-pause=0ms"
+})
+class CONCERNArchiveServiceTest {
+
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(800));
+
+    @Autowired
+    private CONCERNArchiveService archiveService;
+
+    @Autowired
+    private CONCERNService concernService;
+
+    @Autowired
+    private CONCERNAggregateService aggregateService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CONCERNExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String studentName;
+    private List<CONCERN> oldResolved;
+    private CONCERN recentResolved;
+    private CONCERN oldOpen;
+
+    /**
+     * Creates five old resolved concerns, a recent resolved one and an old open one for a student no other test uses.
+     */
+    @BeforeEach
+    void setUp() {
+        studentName = "Archive " + UUID.randomUUID();
+        oldResolved = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            oldResolved.add(create("Resolved", OLD.plusSeconds(i * 2)));
+        }
+        recentResolved = create("Resolved", Instant.now());
+        oldOpen = create("Open", OLD.plusSeconds(5));
+    }
+
+    /**
+     * Tests that only resolved concerns older than the configured age leave the concerns table, and that they can
+     * still be read by ID.
+     */
+    @Test
+    void testArchivesOldResolvedConcerns() {
+        CONCERNAggregates before = aggregateService.getAggregates(studentName);
+        assertTrue(archiveService.archiveResolved() >= 5);
+
+        assertEquals(List.of(oldOpen.getID(), recentResolved.getID()).stream().sorted().toList(),
+                concernService.getCONCERNsByStudentName(studentName).stream().map(CONCERN::getID).sorted().toList());
+        CONCERN archived = concernService.getCONCERN(oldResolved.get(0).getID());
+        assertEquals(oldResolved.get(0).getDescription(), archived.getDescription());
+        assertEquals(oldResolved.get(0).getVersion(), archived.getVersion());
+        assertEquals(archived.getVersion(), concernService.getCONCERNVersion(archived.getID()));
+        assertThrows(NoSuchElementException.class, () -> concernService.deleteCONCERN(archived.getID(), null));
+
+        assertEquals(before, aggregateService.getAggregates(studentName));
+        aggregateService.reconcile();
+        assertEquals(new CONCERNAggregates(studentName, Map.of("Resolved", 6L, "Open", 1L), 7), aggregateService.getAggregates(studentName));
+    }
+
+    /**
+     * Tests that pages include archived concerns in date order only when asked, in both directions.
+     */
+    @Test
+    void testPagesIncludeArchivedConcernsWhenAsked() {
+        archiveService.archiveResolved();
+        CONCERNFilter current = new CONCERNFilter(studentName, null, null, null, null);
+        CONCERNFilter all = new CONCERNFilter(studentName, null, null, null, null, true);
+
+        assertEquals(List.of(oldOpen.getID(), recentResolved.getID()),
+                concernService.getCONCERNPage(current, null, 3).items().stream().map(CONCERN::getID).toList());
+
+        List<UUID> expected = new ArrayList<>(oldResolved.stream().map(CONCERN::getID).toList());
+        expected.add(3, oldOpen.getID());
+        expected.add(recentResolved.getID());
+        List<UUID> forward = new ArrayList<>();
+        String cursor = null;
+        CONCERNPage<CONCERNSummary> page;
+        do {
+            page = concernService.getCONCERNSummaryPage(all, cursor, 3);
+            page.items().forEach(summary -> forward.add(summary.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(expected, forward);
+
+        CONCERNPage<CONCERN> previous = concernService.getCONCERNPage(all, page.prevCursor(), 3);
+        assertEquals(expected.subList(3, 6), previous.items().stream().map(CONCERN::getID).toList());
+        assertEquals(3, concernService.getCONCERNVersionPage(all, page.prevCursor(), 3).items().size());
+    }
+
+    /**
+     * Tests that the export includes archived concerns only when asked, and that archiving keeps the folded
+     * student name the archive's indexes use.
+     */
+    @Test
+    void testExportIncludesArchivedConcernsWhenAsked() throws Exception {
+        archiveService.archiveResolved();
+        ByteArrayOutputStream current = new ByteArrayOutputStream();
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        exportService.exportCONCERNs(CONCERNExportFormat.CSV, false, current);
+        exportService.exportCONCERNs(CONCERNExportFormat.CSV, true, all);
+
+        String archivedId = oldResolved.get(0).getID().toString();
+        assertFalse(current.toString(StandardCharsets.UTF_8).contains(archivedId));
+        assertTrue(all.toString(StandardCharsets.UTF_8).contains(archivedId));
+        assertEquals(CONCERNStudentNames.normalize(studentName), jdbcTemplate.queryForObject(
+                "select distinct student_name_key from concerns_archive where student_name = ?", String.class, studentName));
+    }
+
+    /**
+     * Tests that the table sizes are published after a run.
+     */
+    @Test
+    void testTableSizeGauges() {
+        archiveService.archiveResolved();
+        assertTrue(meterRegistry.get("concerns.table.rows").tag("table", "concerns_archive").gauge().value() >= 5);
+        assertTrue(meterRegistry.get("concerns.table.rows").tag("table", "concerns").gauge().value() >= 2);
+    }
+
+    /**
+     * Tests that merged pages compare UUIDs as unsigned bytes, the way the database orders them, unlike {@link UUID#compareTo(UUID)}.
+     */
+    @Test
+    void testKeyComparatorMatchesDatabaseOrder() {
+        Instant at = Instant.parse("2020-01-01T00:00:00Z");
+        CONCERNCursor low = new CONCERNCursor(at, UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff"), true);
+        CONCERNCursor high = new CONCERNCursor(at, UUID.fromString("80000000-0000-0000-0000-000000000000"), true);
+        assertTrue(CONCERNSpecifications.KEY_COMPARATOR.compare(low, high) < 0);
+        assertTrue(Comparator.<UUID>naturalOrder().compare(low.id(), high.id()) > 0);
+    }
+
+    private CONCERN create(String status, Instant dateTime) {
+        return concernService.createCONCERN(new CONCERN(null, studentName, "Teacher A", "Description " + dateTime, status, dateTime));
+    }
+}
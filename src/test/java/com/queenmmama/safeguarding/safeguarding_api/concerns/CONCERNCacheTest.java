@@ -0,0 +1,165 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the read-through cache around {@link CONCERNService#getCONCERN(UUID)}.
+ *
+ * <p>The repository is mocked so that every database read can be counted.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Repeated reads served from the cache</li>
+ *  <li>Create and update refreshing the cached copy</li>
+ *  <li>A rolled-back update leaving the cached copy as it was</li>
+ *  <li>Delete and remote invalidation evicting the cached copy</li>
+ *  <li>Invalidation hooks notified of every change</li>
+ * </ul>
+ *
+ */
+@SpringBootTest
+class CONCERNCacheTest {
+
+    @MockitoBean
+    private CONCERNRepository concernRepository;
+
+    @Autowired
+    private CONCERNService concernService;
+
+    @Autowired
+    private CONCERNCacheCoordinator cacheCoordinator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RecordingHook recordingHook;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private CONCERN concern;
+    private UUID concernId;
+
+    /**
+     * Invalidation hook that records the IDs it is given.
+     */
+    static class RecordingHook implements CONCERNCacheInvalidationHook {
+        private final List<UUID> invalidated = new ArrayList<>();
+
+        @Override
+        public void invalidated(UUID id) {
+            invalidated.add(id);
+        }
+    }
+
+    /**
+     * Test configuration registering the recording hook.
+     */
+    @TestConfiguration
+    static class HookConfig {
+        @Bean
+        RecordingHook recordingHook() {
+            return new RecordingHook();
+        }
+    }
+
+    /**
+     * Clears the cache and creates a sample CONCERN object before each test case.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CONCERNCacheCoordinator.CACHE_NAME).clear();
+        recordingHook.invalidated.clear();
+        concernId = UUID.randomUUID();
+        concern = new CONCERN(concernId, "Alice Johnson", "Teacher A", "Bullying in class", "Open", Instant.now());
+        when(concernRepository.findById(concernId)).thenReturn(Optional.of(concern));
+    }
+
+    /**
+     * Tests that a second read of the same concern does not reach the repository.
+     */
+    @Test
+    void testGetConcern_ServedFromCache() {
+        assertSame(concern, concernService.getCONCERN(concernId));
+        CONCERN cached = concernService.getCONCERN(concernId);
+        assertEquals(concernId, cached.getID());
+        assertEquals("Alice Johnson", cached.getStudentName());
+
+        verify(concernRepository, times(1)).findById(concernId);
+    }
+
+    /**
+     * Tests that create and update put the saved concern in the cache and notify the hooks.
+     */
+    @Test
+    void testCreateAndUpdate_RefreshCache() {
+        when(concernRepository.save(any(CONCERN.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        concernService.createCONCERN(concern);
+        assertEquals("Open", concernService.getCONCERN(concernId).getStatus());
+        verify(concernRepository, never()).findById(concernId);
+
+        CONCERN changes = new CONCERN(concernId, "Alice Johnson", "Teacher A", "Bullying in class", "Resolved", Instant.now());
+        concernService.updateCONCERN(concernId, changes);
+        assertEquals("Resolved", concernService.getCONCERN(concernId).getStatus());
+        verify(concernRepository, times(1)).findById(concernId);
+        assertEquals(List.of(concernId, concernId), recordingHook.invalidated);
+    }
+
+    /**
+     * Tests that an update whose transaction rolls back neither puts its result in the cache nor changes the copy
+     * already cached, even though the entity it changed was the one that was read.
+     */
+    @Test
+    void testRolledBackUpdate_LeavesCacheUnchanged() {
+        when(concernRepository.save(any(CONCERN.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        concernService.getCONCERN(concernId);
+
+        CONCERN changes = new CONCERN(concernId, "Alice Johnson", "Teacher A", "Bullying in class", "Resolved", Instant.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            concernService.updateCONCERN(concernId, changes);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("Resolved", concern.getStatus());
+        assertEquals("Open", concernService.getCONCERN(concernId).getStatus());
+        verify(concernRepository, times(2)).findById(concernId);
+    }
+
+    /**
+     * Tests that deleting a concern, or evicting it on behalf of another node, forces the next read to the repository.
+     */
+    @Test
+    void testDeleteAndRemoteEvict_EvictCache() {
+        when(concernRepository.findStudentStatusById(concernId))
+                .thenReturn(Optional.of(new CONCERNStudentStatusVersion(concern.getStudentName(), concern.getStatus(), 1L)));
+        when(concernRepository.deleteAndCount(concernId, 1L)).thenReturn(1);
+        concernService.getCONCERN(concernId);
+
+        concernService.deleteCONCERN(concernId, null);
+        concernService.getCONCERN(concernId);
+        cacheCoordinator.evict(concernId);
+        concernService.getCONCERN(concernId);
+
+        verify(concernRepository, times(3)).findById(concernId);
+        assertEquals(List.of(concernId), recordingHook.invalidated);
+    }
+}
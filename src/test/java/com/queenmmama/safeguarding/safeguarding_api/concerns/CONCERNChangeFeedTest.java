@@ -0,0 +1,197 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.queenmmama.safeguarding.safeguarding_api.config.RequestMetricsFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Tests for the Server-Sent Events change feed served by {@link CONCERNChangeFeed}.
+ *
+ * <p>The buffer is shrunk to 8 changes so that a client can be made to miss more than it holds. Results are not
+ * printed, since the feed writes to each response from a thread of its own, and each subscription is only used
+ * once the feed has written its first frame.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Receiving created, updated and deleted events as they commit</li>
+ *  <li>Resuming after a Last-Event-ID with only the missed events</li>
+ *  <li>Being told to resync when the missed events are gone or the ID is from another run</li>
+ *  <li>Fanning one change out to many subscribers without further queries</li>
+ *  <li>Leaving the query debug headers off the stream while events are written to it</li>
+ * </ul>
+ *
+ */
+@SpringBootTest(properties = {
+    "safeguarding.concerns.feed.buffer-size=8",
+    "safeguarding.queries.debug-headers=true"
+})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class CONCERNChangeFeedTest {
+
+    private static final Pattern EVENT = Pattern.compile("id:(\\S+)\nevent:(\\w+)\ndata:(.*)\n");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CONCERNService concernService;
+
+    @Autowired
+    private CONCERNChangeFeed changeFeed;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<MvcResult> subscriptions = new ArrayList<>();
+
+    /**
+     * Disconnects every subscriber the test opened.
+     */
+    @AfterEach
+    void tearDown() {
+        subscriptions.forEach(result -> result.getRequest().getAsyncContext().complete());
+    }
+
+    /**
+     * Tests that a subscriber receives each change once it commits, and that one reconnecting after the first
+     * event receives only the rest.
+     */
+    @Test
+    void testLiveEventsAndResume() throws Exception {
+        MvcResult live = subscribe(null);
+        CONCERN concern = createConcern("Feed student");
+        concernService.patchCONCERN(concern.getID(), new CONCERNPatch(Map.of("status", "Resolved"), concern.getVersion()));
+        concernService.deleteCONCERN(concern.getID(), null);
+
+        List<String[]> events = awaitEvents(live, 3);
+        assertEquals(List.of("created", "updated", "deleted"), events.stream().map(event -> event[1]).toList());
+        assertTrue(events.get(0)[2].contains("\"studentName\":\"Feed student\""));
+        assertTrue(events.get(1)[2].contains("\"changes\":{\"status\":\"Resolved\"}"));
+        assertTrue(events.get(1)[2].contains("\"version\":" + (concern.getVersion() + 1)));
+        assertTrue(events.get(2)[2].contains(concern.getID().toString()));
+
+        MvcResult resumed = subscribe(events.get(0)[0]);
+        assertEquals(List.of("updated", "deleted"), awaitEvents(resumed, 2).stream().map(event -> event[1]).toList());
+    }
+
+    /**
+     * Tests that a subscriber is told to resync when it has missed more changes than are buffered, or when its
+     * last event ID is from another run, and that the feed continues from there.
+     */
+    @Test
+    void testResync() throws Exception {
+        MvcResult live = subscribe(null);
+        createConcern("Resync student");
+        String first = awaitEvents(live, 1).get(0)[0];
+        for (int i = 0; i < 9; i++) {
+            createConcern("Resync student");
+        }
+        awaitEvents(live, 10);
+
+        MvcResult behind = subscribe(first);
+        MvcResult restarted = subscribe("0-" + first.substring(first.indexOf('-') + 1));
+        assertEquals(CONCERNChangeFeed.RESYNC, awaitEvents(behind, 1).get(0)[1]);
+        assertEquals(CONCERNChangeFeed.RESYNC, awaitEvents(restarted, 1).get(0)[1]);
+
+        createConcern("Resync student");
+        assertEquals("created", awaitEvents(behind, 2).get(1)[1]);
+    }
+
+    /**
+     * Tests that one change reaches many subscribers without any statement being run on their behalf.
+     */
+    @Test
+    void testFanOutWithoutQueries() throws Exception {
+        List<MvcResult> subscribers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            subscribers.add(subscribe(null));
+        }
+        assertTrue(changeFeed.getSubscriberCount() >= 200);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        CONCERN concern = createConcern("Fan-out student");
+        long statements = statistics.getPrepareStatementCount();
+        for (MvcResult subscriber : subscribers) {
+            assertTrue(awaitEvents(subscriber, 1).get(0)[2].contains(concern.getID().toString()));
+        }
+        assertEquals(statements, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that a subscriber's stream does not get the query debug headers, which the request thread and the
+     * feed's sending thread would otherwise race to set.
+     */
+    @Test
+    void testNoQueryHeadersOnTheStream() throws Exception {
+        MvcResult live = subscribe(null);
+        CONCERN concern = createConcern("Headers student");
+
+        assertTrue(awaitEvents(live, 1).get(0)[2].contains(concern.getID().toString()));
+        assertNull(live.getResponse().getHeader(RequestMetricsFilter.QUERY_COUNT_HEADER));
+        assertNull(live.getResponse().getHeader("Server-Timing"));
+    }
+
+    private CONCERN createConcern(String studentName) {
+        return concernService.createCONCERN(new CONCERN(null, studentName, "Teacher A", "Description", "Open", Instant.now()));
+    }
+
+    /**
+     * Subscribes to the feed and waits until the feed has started writing to the subscriber, with either the
+     * {@code subscribed} comment or a resync event.
+     */
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/concerns/changes");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        subscriptions.add(result);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (result.getResponse().getContentAsString().isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "the feed did not start writing to the subscriber");
+            Thread.sleep(10);
+        }
+        return result;
+    }
+
+    /**
+     * Waits until a subscriber has received at least the given number of events.
+     *
+     * @return the ID, name and data of each event received
+     */
+    private static List<String[]> awaitEvents(MvcResult subscriber, int count) throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            List<String[]> events = new ArrayList<>();
+            Matcher matcher = EVENT.matcher(subscriber.getResponse().getContentAsString());
+            while (matcher.find()) {
+                events.add(new String[] {matcher.group(1), matcher.group(2), matcher.group(3)});
+            }
+            if (events.size() >= count || System.nanoTime() > deadline) {
+                assertTrue(events.size() >= count, "expected " + count + " events but got " + events.size());
+                return events;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
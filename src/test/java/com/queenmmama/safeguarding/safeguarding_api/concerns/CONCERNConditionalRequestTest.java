@@ -0,0 +1,182 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for ETags, conditional GETs and {@code If-Match} writes on {@link CONCERNController}.
+ *
+ * <p>Hibernate statistics are used to check that a 304 is answered without loading any concern.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Conditional GET of a single concern and of a page, before and after a change</li>
+ *  <li>Distinct page ETags for the full and summary views</li>
+ *  <li>PUT, PATCH and DELETE rejected with 412 when If-Match is stale</li>
+ *  <li>PUT and PATCH rejected with 400 when a field is longer than its column</li>
+ *  <li>Parsing and matching of entity tags</li>
+ * </ul>
+ *
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CONCERNConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CONCERNService concernService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String studentName;
+    private CONCERN concern;
+
+    /**
+     * Creates a concern for a student no other test uses.
+     */
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        studentName = "Conditional " + UUID.randomUUID();
+        concern = concernService.createCONCERN(new CONCERN(null, studentName, "Teacher A", "Description", "Open", Instant.now()));
+    }
+
+    /**
+     * Tests that a current If-None-Match on a concern gets a 304 without loading it, and a stale one gets the concern.
+     */
+    @Test
+    void testConditionalGetOfConcern() throws Exception {
+        String etag = mockMvc.perform(get("/api/concerns/{id}", concern.getID()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(CONCERNETags.of(concern.getVersion()), etag);
+
+        long loads = statistics.getEntityLoadCount();
+        mockMvc.perform(get("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        assertEquals(loads, statistics.getEntityLoadCount());
+
+        concernService.patchCONCERN(concern.getID(), new CONCERNPatch(Map.of("status", "Resolved"), concern.getVersion()));
+        mockMvc.perform(get("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, CONCERNETags.of(concern.getVersion() + 1)))
+                .andExpect(jsonPath("$.status").value("Resolved"));
+    }
+
+    /**
+     * Tests that a page's ETag is revalidated from versions only and changes when a concern on it changes or joins it.
+     */
+    @Test
+    void testConditionalGetOfPage() throws Exception {
+        String etag = mockMvc.perform(get("/api/concerns").param("studentName", studentName))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String summaryEtag = mockMvc.perform(get("/api/concerns").param("studentName", studentName).param("view", "summary"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, summaryEtag);
+
+        long loads = statistics.getEntityLoadCount();
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName).param("view", "summary").header(HttpHeaders.IF_NONE_MATCH, summaryEtag))
+                .andExpect(status().isNotModified());
+        assertEquals(loads, statistics.getEntityLoadCount());
+
+        concernService.createCONCERN(new CONCERN(null, studentName, "Teacher B", "Another", "Open", Instant.now()));
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    /**
+     * Tests that writes with a stale If-Match are rejected with 412 and leave the concern unchanged.
+     */
+    @Test
+    void testStaleIfMatchIsRejected() throws Exception {
+        String stale = CONCERNETags.of(concern.getVersion());
+        mockMvc.perform(patch("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType("application/merge-patch+json").content("{\"status\":\"In Progress\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, CONCERNETags.of(concern.getVersion() + 1)));
+
+        mockMvc.perform(patch("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType("application/merge-patch+json").content("{\"status\":\"Resolved\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentName\":\"" + studentName + "\",\"reportedBy\":\"Teacher A\",\"description\":\"Lost\",\"status\":\"Resolved\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, stale))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, "not-a-tag"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals("In Progress", concernService.getCONCERN(concern.getID()).getStatus());
+        mockMvc.perform(delete("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, CONCERNETags.of(concern.getVersion() + 1)))
+                .andExpect(status().isNoContent());
+    }
+
+    /**
+     * Tests that a PUT or PATCH with a field, or a student name whose folded form, is longer than its column is
+     * rejected with 400 before anything is written.
+     */
+    @Test
+    void testOversizedWritesAreRejected() throws Exception {
+        String current = CONCERNETags.of(concern.getVersion());
+        String tooLong = "x".repeat(CONCERN.MAX_TEXT_LENGTH + 1);
+        mockMvc.perform(put("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, current)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentName\":\"" + studentName + "\",\"reportedBy\":\"Teacher A\",\"description\":\"" + tooLong
+                                + "\",\"status\":\"Open\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, current)
+                        .contentType("application/merge-patch+json").content("{\"reportedBy\":\"" + tooLong + "\"}"))
+                .andExpect(status().isBadRequest());
+        // The "ff" ligature folds to two letters, so this name fits its own column but not the folded one.
+        mockMvc.perform(patch("/api/concerns/{id}", concern.getID()).header(HttpHeaders.IF_MATCH, current)
+                        .contentType("application/merge-patch+json").content("{\"studentName\":\"" + "\uFB00".repeat(CONCERN.MAX_TEXT_LENGTH) + "\"}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(concern.getVersion(), concernService.getCONCERN(concern.getID()).getVersion());
+    }
+
+    /**
+     * Tests entity tag matching and If-Match parsing.
+     */
+    @Test
+    void testEntityTags() {
+        assertTrue(CONCERNETags.matches("\"3\"", "\"3\""));
+        assertTrue(CONCERNETags.matches("\"1\", W/\"3\"", "\"3\""));
+        assertTrue(CONCERNETags.matches("*", "\"3\""));
+        assertFalse(CONCERNETags.matches("\"2\"", "\"3\""));
+        assertFalse(CONCERNETags.matches(null, "\"3\""));
+        assertEquals(3L, CONCERNETags.version("\"3\""));
+        assertNull(CONCERNETags.version("*"));
+        assertNull(CONCERNETags.version(null));
+        assertThrows(IllegalArgumentException.class, () -> CONCERNETags.version("W/\"3\""));
+        assertThrows(IllegalArgumentException.class, () -> CONCERNETags.version("\"1\", \"2\""));
+    }
+}
@@ -0,0 +1,134 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link CONCERNExportService} class using JUnit and Mockito.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Exporting concerns as NDJSON</li>
+ *  <li>Exporting concerns as CSV, including quoting of awkward values</li>
+ *  <li>Merging archived concerns into the export in date order, only when asked</li>
+ *  <li>Resolving export formats</li>
+ * </ul>
+ *
+ */
+class CONCERNExportServiceTest {
+
+    @Mock
+    private CONCERNRepository concernRepository;
+
+    @Mock
+    private CONCERNArchiveRepository archiveRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private CONCERNExportService exportService;
+
+    private CONCERN concern;
+
+    /**
+     * Sets up the test environment before each test case.
+     * Initializes Mockito annotations and creates a sample CONCERN object.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new CONCERNExportService(concernRepository, archiveRepository, entityManager, new ObjectMapper().findAndRegisterModules());
+        concern = new CONCERN(
+                UUID.fromString("e26c3949-c463-4eb8-9598-bffdc5bb45ca"),
+                "Alice Johnson",
+                "Teacher A",
+                "Said \"ouch\", then left",
+                "Open",
+                Instant.parse("2025-09-06T22:00:40Z")
+        );
+    }
+
+    /**
+     * Tests exporting as NDJSON.
+     * Verifies one JSON object per line and that each concern is detached once written.
+     */
+    @Test
+    void testExportNdjson() throws Exception {
+        when(concernRepository.streamAll()).thenReturn(Stream.of(concern, concern));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.exportCONCERNs(CONCERNExportFormat.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"studentName\":\"Alice Johnson\""));
+        verify(entityManager, times(2)).detach(concern);
+        verifyNoInteractions(archiveRepository);
+    }
+
+    /**
+     * Tests exporting with archived concerns.
+     * Verifies that they are merged in between the current concerns by date, and that a concern read from both
+     * tables is written once.
+     */
+    @Test
+    void testExportIncludesArchived() throws Exception {
+        CONCERN later = new CONCERN(UUID.randomUUID(), "Bob Smith", "Teacher B", "Later", "Open", concern.getDateTime().plusSeconds(60));
+        CONCERNArchive archived = mock(CONCERNArchive.class);
+        when(archived.toCONCERN()).thenReturn(new CONCERN(UUID.randomUUID(), "Carol White", "Teacher C", "Archived", "Resolved",
+                concern.getDateTime().plusSeconds(30)));
+        CONCERNArchive duplicate = mock(CONCERNArchive.class);
+        when(duplicate.toCONCERN()).thenReturn(later.copy());
+        when(concernRepository.streamAll()).thenReturn(Stream.of(concern, later));
+        when(archiveRepository.streamAll()).thenReturn(Stream.of(archived, duplicate));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.exportCONCERNs(CONCERNExportFormat.CSV, true, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, written);
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].contains("Alice Johnson"));
+        assertTrue(lines[2].contains("Carol White"));
+        assertTrue(lines[3].contains("Bob Smith"));
+        verify(entityManager).detach(archived);
+    }
+
+    /**
+     * Tests exporting as CSV.
+     * Verifies the header row and that values containing commas or quotes are quoted and escaped.
+     */
+    @Test
+    void testExportCsv() throws Exception {
+        when(concernRepository.streamAll()).thenReturn(Stream.of(concern));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportCONCERNs(CONCERNExportFormat.CSV, false, out);
+
+        assertEquals("id,studentName,reportedBy,description,status,dateTime\n"
+                + "e26c3949-c463-4eb8-9598-bffdc5bb45ca,Alice Johnson,Teacher A,\"Said \"\"ouch\"\", then left\",Open,2025-09-06T22:00:40Z\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests resolving export formats from request parameters.
+     * Verifies that matching ignores case and unknown formats are rejected.
+     */
+    @Test
+    void testExportFormatFrom() {
+        assertEquals(CONCERNExportFormat.CSV, CONCERNExportFormat.from("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> CONCERNExportFormat.from("xml"));
+    }
+}
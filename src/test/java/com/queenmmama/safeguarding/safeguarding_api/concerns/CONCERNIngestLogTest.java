@@ -0,0 +1,142 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the durable append log behind write-behind ingestion, {@link CONCERNIngestLog}.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Reading back records once their group is synced, in append order</li>
+ *  <li>Resuming from the acknowledged offset after a restart</li>
+ *  <li>Cutting off a torn record left by a crash</li>
+ *  <li>Rolling to new segments and deleting those that were acknowledged</li>
+ * </ul>
+ *
+ */
+class CONCERNIngestLogTest {
+
+    private static final long WAIT = TimeUnit.SECONDS.toNanos(5);
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Tests that concurrently appended records are all synced and read back in the order they were written.
+     */
+    @Test
+    void testAppendAndRead() throws Exception {
+        try (CONCERNIngestLog ingestLog = new CONCERNIngestLog(directory, 1 << 20)) {
+            List<CompletableFuture<Long>> synced = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                synced.add(ingestLog.append(bytes("record " + i)));
+            }
+            long end = 0;
+            for (CompletableFuture<Long> future : synced) {
+                long offset = future.get(5, TimeUnit.SECONDS);
+                assertTrue(offset > end);
+                end = offset;
+            }
+
+            List<CONCERNIngestLog.Entry> entries = ingestLog.read(0, 1000, WAIT);
+            assertEquals(100, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals("record " + i, new String(entries.get(i).payload(), StandardCharsets.UTF_8));
+            }
+            assertEquals(end, entries.get(99).nextOffset());
+            assertEquals(end, ingestLog.getBacklogBytes());
+            assertTrue(ingestLog.read(end, 10, TimeUnit.MILLISECONDS.toNanos(20)).isEmpty());
+        }
+    }
+
+    /**
+     * Tests that records not acknowledged before a restart are read again from the acknowledged offset.
+     */
+    @Test
+    void testReplayFromCheckpoint() throws Exception {
+        long acknowledged;
+        try (CONCERNIngestLog ingestLog = new CONCERNIngestLog(directory, 1 << 20)) {
+            for (int i = 0; i < 5; i++) {
+                ingestLog.append(bytes("record " + i)).get(5, TimeUnit.SECONDS);
+            }
+            acknowledged = ingestLog.read(0, 2, WAIT).get(1).nextOffset();
+            ingestLog.acknowledge(acknowledged);
+        }
+
+        try (CONCERNIngestLog reopened = new CONCERNIngestLog(directory, 1 << 20)) {
+            assertEquals(acknowledged, reopened.getAcknowledgedOffset());
+            List<CONCERNIngestLog.Entry> entries = reopened.read(reopened.getAcknowledgedOffset(), 10, WAIT);
+            assertEquals(List.of("record 2", "record 3", "record 4"),
+                    entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList());
+            long next = reopened.append(bytes("record 5")).get(5, TimeUnit.SECONDS);
+            assertEquals(next, reopened.read(entries.get(2).nextOffset(), 10, WAIT).get(0).nextOffset());
+        }
+    }
+
+    /**
+     * Tests that a record only partly written before a crash is cut off and its space reused.
+     */
+    @Test
+    void testTornTailIsTruncated() throws Exception {
+        long end;
+        try (CONCERNIngestLog ingestLog = new CONCERNIngestLog(directory, 1 << 20)) {
+            ingestLog.append(bytes("complete")).get(5, TimeUnit.SECONDS);
+            end = ingestLog.append(bytes("also complete")).get(5, TimeUnit.SECONDS);
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(100).putInt(42).put(bytes("torn")).flip());
+        }
+
+        try (CONCERNIngestLog reopened = new CONCERNIngestLog(directory, 1 << 20)) {
+            assertEquals(end, Files.size(segment));
+            assertEquals(2, reopened.read(0, 10, WAIT).size());
+            reopened.append(bytes("after crash")).get(5, TimeUnit.SECONDS);
+            assertEquals("after crash", new String(reopened.read(end, 10, WAIT).get(0).payload(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Tests that the log rolls to a new segment once one is full and deletes segments once they are acknowledged.
+     */
+    @Test
+    void testSegmentsRollAndAreDeleted() throws Exception {
+        try (CONCERNIngestLog ingestLog = new CONCERNIngestLog(directory, 64)) {
+            for (int i = 0; i < 10; i++) {
+                ingestLog.append(bytes("a record of about forty bytes, no. " + i)).get(5, TimeUnit.SECONDS);
+            }
+            assertTrue(segments().size() > 3);
+
+            List<CONCERNIngestLog.Entry> entries = ingestLog.read(0, 100, WAIT);
+            assertEquals(10, entries.size());
+            assertEquals("a record of about forty bytes, no. 9", new String(entries.get(9).payload(), StandardCharsets.UTF_8));
+            ingestLog.acknowledge(entries.get(9).nextOffset());
+            assertEquals(1, segments().size());
+            assertEquals(0, ingestLog.getBacklogBytes());
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,123 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.jayway.jsonpath.JsonPath;
+import com.queenmmama.safeguarding.safeguarding_api.config.RequestMetricsFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests the exact number of SQL statements each concerns endpoint issues, so that a change adding a query to a
+ * request, such as an N+1, fails here first.
+ *
+ * <p>Counts are read with {@link QueryCounts}. When a change legitimately adds or removes a statement, update the
+ * count together with the change.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Creating, reading, listing, updating, patching and deleting a concern</li>
+ *  <li>Reading a just-created concern from the cache without touching the database</li>
+ *  <li>Counting and searching concerns</li>
+ *  <li>Reporting the count and database time in debug response headers</li>
+ * </ul>
+ *
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CONCERNQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String studentName;
+
+    /**
+     * Picks a student name no other test uses.
+     */
+    @BeforeEach
+    void setUp() {
+        studentName = "Budget Student " + UUID.randomUUID();
+    }
+
+    /**
+     * Tests the statements issued by each step of a concern's life: each write also upserts the affected per-student
+     * and total counts.
+     */
+    @Test
+    void testWriteEndpointStatementCounts() throws Exception {
+        String response = mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON).content(body("Open")))
+                .andExpect(status().isCreated())
+                .andExpect(QueryCounts.statements(3))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(response, "$.id");
+
+        mockMvc.perform(put("/api/concerns/{id}", id).contentType(MediaType.APPLICATION_JSON).content(body("In Progress"))
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(QueryCounts.statements(6));
+        mockMvc.perform(patch("/api/concerns/{id}", id).contentType("application/merge-patch+json").content("{\"status\":\"Resolved\"}")
+                        .header(HttpHeaders.IF_MATCH, "\"1\""))
+                .andExpect(status().isNoContent())
+                .andExpect(QueryCounts.statements(6));
+        mockMvc.perform(delete("/api/concerns/{id}", id).header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(status().isNoContent())
+                .andExpect(QueryCounts.statements(4));
+    }
+
+    /**
+     * Tests the statements issued by reads, and that reading a concern just created is served from the cache.
+     */
+    @Test
+    void testReadEndpointStatementCounts() throws Exception {
+        String response = mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON).content(body("Open")))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(response, "$.id");
+
+        mockMvc.perform(get("/api/concerns/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(QueryCounts.statements(0));
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName))
+                .andExpect(status().isOk())
+                .andExpect(QueryCounts.statements(1));
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName).param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(QueryCounts.statements(1));
+        mockMvc.perform(get("/api/concerns/aggregates").param("studentName", studentName))
+                .andExpect(status().isOk())
+                .andExpect(QueryCounts.statements(1));
+        mockMvc.perform(get("/api/concerns/search").param("q", "budgeted"))
+                .andExpect(status().isOk())
+                .andExpect(QueryCounts.statements(1));
+    }
+
+    /**
+     * Tests that responses carry the statement count and database time when debug headers are enabled.
+     */
+    @Test
+    void testDebugHeaders() throws Exception {
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RequestMetricsFilter.QUERY_COUNT_HEADER, "1"))
+                .andExpect(header().string("Server-Timing", matchesPattern("db;dur=\\d+\\.\\d{2};desc=\"SQL\"")));
+        mockMvc.perform(get("/api/concerns/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound())
+                .andExpect(header().exists(RequestMetricsFilter.QUERY_COUNT_HEADER));
+    }
+
+    private String body(String status) {
+        return """
+                {"studentName":"%s","reportedBy":"Teacher A","description":"Budgeted description","status":"%s"}
+                """.formatted(studentName, status);
+    }
+}
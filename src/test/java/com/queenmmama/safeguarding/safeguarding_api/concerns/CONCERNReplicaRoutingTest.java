@@ -0,0 +1,160 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.queenmmama.safeguarding.safeguarding_api.config.ReadYourWritesFilter;
+import com.queenmmama.safeguarding.safeguarding_api.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for routing read-only transactions to a read replica with {@link ReplicaRoutingDataSource} and
+ * {@link ReadYourWritesFilter}.
+ *
+ * <p>The primary and the replica are two separate embedded databases. Replication is simulated by copying the
+ * primary's schema and rows to the replica with H2's {@code SCRIPT} command, so anything written after the last copy
+ * is only on the primary. Scheduled lag checks are effectively disabled; tests run them explicitly.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Reading pages and a student's concerns from a caught-up replica, and writing to the primary</li>
+ *  <li>Falling back to the primary while the replica is too far behind or has no heartbeat</li>
+ *  <li>Keeping a client's reads on the primary after it writes, until its cookie expires</li>
+ *  <li>Publishing the replica's lag</li>
+ * </ul>
+ *
+ */
+@SpringBootTest(properties = {
+    "safeguarding.datasource.replica-urls=jdbc:h2:mem:safeguarding_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "safeguarding.datasource.replica-check-interval=1h",
+    "safeguarding.datasource.replica-max-lag=2h",
+    "safeguarding.datasource.read-your-writes=10s"
+})
+@AutoConfigureMockMvc
+class CONCERNReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CONCERNService concernService;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private String studentName;
+
+    /**
+     * Creates direct connections to both databases and picks a student name no other test uses.
+     */
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replica = new JdbcTemplate(routingDataSource.getReplicas().get(0));
+        studentName = "Replica Student " + UUID.randomUUID();
+    }
+
+    /**
+     * Tests that reads, by page or by student name, see the replica's copy, which lacks a concern written since the
+     * last copy, until it catches up.
+     */
+    @Test
+    void testReadOnlyTransactionsUseCaughtUpReplica() {
+        catchUp();
+        assertTrue(routingDataSource.isReplicaUsable(0));
+        concernService.createCONCERN(newConcern());
+        assertEquals(1, primary.queryForObject("select count(*) from concerns where student_name = ?", Integer.class, studentName));
+
+        assertTrue(readByStudent().isEmpty());
+        assertTrue(concernService.getCONCERNsByStudentName(studentName).isEmpty());
+        catchUp();
+        assertEquals(1, readByStudent().size());
+        assertEquals(1, concernService.getCONCERNsByStudentName(studentName).size());
+        assertTrue(meterRegistry.get("concerns.datasource.replica.lag").tag("replica", "replica-1").gauge().value() < 60);
+    }
+
+    /**
+     * Tests that reads go to the primary while the replica's heartbeat is too old or missing.
+     */
+    @Test
+    void testLaggingReplicaIsSkipped() {
+        catchUp();
+        concernService.createCONCERN(newConcern());
+
+        replica.update("update replica_heartbeat set beat = ?", Instant.now().minus(Duration.ofHours(3)).toEpochMilli());
+        routingDataSource.checkReplicas();
+        assertFalse(routingDataSource.isReplicaUsable(0));
+        assertEquals(1, readByStudent().size());
+        assertEquals(1, concernService.getCONCERNsByStudentName(studentName).size());
+
+        replica.execute("drop table replica_heartbeat");
+        routingDataSource.checkReplicas();
+        assertFalse(routingDataSource.isReplicaUsable(0));
+        assertTrue(Double.isNaN(meterRegistry.get("concerns.datasource.replica.lag").tag("replica", "replica-1").gauge().value()));
+        assertEquals(1, readByStudent().size());
+    }
+
+    /**
+     * Tests that a client that created a concern reads it back from the primary while its cookie is valid.
+     */
+    @Test
+    void testClientReadsItsOwnWrites() throws Exception {
+        catchUp();
+        Cookie cookie = mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"studentName":"%s","reportedBy":"Teacher A","description":"Description","status":"Open"}
+                        """.formatted(studentName)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName).cookie(cookie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+        Cookie expired = new Cookie(ReadYourWritesFilter.COOKIE_NAME, String.valueOf(System.currentTimeMillis() - 1));
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName).cookie(expired))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    private CONCERN newConcern() {
+        return new CONCERN(null, studentName, "Teacher A", "Description", "Open", Instant.now());
+    }
+
+    private List<CONCERN> readByStudent() {
+        return concernService.getCONCERNPage(new CONCERNFilter(studentName, null, null, null, null), null, null).items();
+    }
+
+    /**
+     * Writes a heartbeat, copies the primary to the replica and measures the replica's lag from the copied heartbeat.
+     */
+    private void catchUp() {
+        routingDataSource.checkReplicas();
+        replica.execute("drop all objects");
+        for (String statement : primary.queryForList("script", String.class)) {
+            replica.execute(statement);
+        }
+        routingDataSource.checkReplicas();
+    }
+}
@@ -0,0 +1,198 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the custom queries of {@link CONCERNRepository} against an embedded H2 database.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Reading the first keyset page</li>
+ *  <li>Reading forwards and backwards from a key, including ties on dateTime</li>
+ *  <li>Filtering by student name, status, reporter and date range</li>
+ *  <li>Checking with EXPLAIN that every supported filter is served by an index</li>
+ *  <li>Streaming every concern in key order</li>
+ *  <li>Reading summary pages without selecting the description</li>
+ *  <li>Patching and deleting with one statement each, reporting the affected row count</li>
+ * </ul>
+ *
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.queenmmama.safeguarding.safeguarding_api.concerns.SqlCapture")
+class CONCERNRepositoryTest {
+
+    private static final Instant BASE = Instant.parse("2025-09-01T08:00:00Z");
+
+    @Autowired
+    private CONCERNRepository concernRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<CONCERN> ordered;
+
+    /**
+     * Seeds five concerns, two of which share a dateTime so that the ID tie-breaker is exercised.
+     */
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            Instant dateTime = i == 2 ? BASE.plusSeconds(1) : BASE.plusSeconds(i);
+            concernRepository.save(new CONCERN(null, "Student " + (i % 2), "Teacher " + (i % 3), "Description " + i, i < 3 ? "Open" : "Resolved", dateTime));
+        }
+        entityManager.flush();
+        ordered = concernRepository.findPage(CONCERNSpecifications.matching(CONCERNFilter.NONE), CONCERNSpecifications.KEYSET_ORDER, 10);
+    }
+
+    /**
+     * Tests that walking forwards and backwards from every key visits the same order as the first page.
+     */
+    @Test
+    void testKeysetPagesFollowDateTimeThenId() {
+        assertEquals(5, ordered.size());
+        Specification<CONCERN> all = CONCERNSpecifications.matching(CONCERNFilter.NONE);
+        assertEquals(ordered.subList(0, 2), concernRepository.findPage(all, CONCERNSpecifications.KEYSET_ORDER, 2));
+
+        for (int i = 0; i < ordered.size(); i++) {
+            CONCERN edge = ordered.get(i);
+            assertEquals(ordered.subList(i + 1, ordered.size()), concernRepository.findPage(
+                    all.and(CONCERNSpecifications.after(new CONCERNCursor(edge.getDateTime(), edge.getID(), true))),
+                    CONCERNSpecifications.KEYSET_ORDER, 10));
+            List<CONCERN> before = concernRepository.findPage(
+                    all.and(CONCERNSpecifications.before(new CONCERNCursor(edge.getDateTime(), edge.getID(), false))),
+                    CONCERNSpecifications.REVERSE_KEYSET_ORDER, 10);
+            assertEquals(i, before.size());
+            for (int j = 0; j < before.size(); j++) {
+                assertEquals(ordered.get(i - 1 - j), before.get(j));
+            }
+        }
+    }
+
+    /**
+     * Tests that each filter criterion, alone and combined, selects the matching concerns.
+     */
+    @Test
+    void testFiltersSelectMatchingConcerns() {
+        assertEquals(3, find(new CONCERNFilter("Student 0", null, null, null, null)).size());
+        assertEquals(2, find(new CONCERNFilter(null, "Resolved", null, null, null)).size());
+        assertEquals(2, find(new CONCERNFilter(null, null, "Teacher 0", null, null)).size());
+        assertEquals(2, find(new CONCERNFilter(null, null, null, BASE.plusSeconds(1), BASE.plusSeconds(3))).size());
+        List<CONCERN> combined = find(new CONCERNFilter("Student 0", "Open", " ", BASE, null));
+        assertEquals(2, combined.size());
+        assertTrue(combined.stream().allMatch(c -> "Student 0".equals(c.getStudentName()) && "Open".equals(c.getStatus())));
+    }
+
+    /**
+     * Tests with EXPLAIN that the SQL Hibernate generates for each supported filter, which always includes the
+     * institution, reads an index rather than scanning the table.
+     */
+    @Test
+    void testEachFilterUsesAnIndex() {
+        CONCERN edge = ordered.get(1);
+        assertIndexed(CONCERNFilter.NONE, null, "idx_concerns_institution_date_time_id");
+        assertIndexed(CONCERNFilter.NONE, new CONCERNCursor(edge.getDateTime(), edge.getID(), true), "idx_concerns_institution_date_time_id");
+        assertIndexed(new CONCERNFilter("Student 0", null, null, null, null), null, "idx_concerns_student_name_date_time");
+        assertIndexed(new CONCERNFilter(null, "Open", null, null, null), new CONCERNCursor(edge.getDateTime(), edge.getID(), true), "idx_concerns_status_date_time");
+        assertIndexed(new CONCERNFilter(null, null, "Teacher 0", null, null), null, "idx_concerns_reported_by_date_time");
+        assertIndexed(new CONCERNFilter(null, null, null, BASE, BASE.plusSeconds(2)), null, "idx_concerns_institution_date_time_id");
+    }
+
+    /**
+     * Tests that streaming returns every concern in the same order as the keyset pages.
+     */
+    @Test
+    void testStreamAllFollowsKeysetOrder() {
+        try (Stream<CONCERN> stream = concernRepository.streamAll()) {
+            assertEquals(ordered, stream.toList());
+        }
+    }
+
+    /**
+     * Tests that a summary page follows the same keys as the full page and selects only the summary columns.
+     */
+    @Test
+    void testSummaryPageSelectsOnlySummaryColumns() {
+        SqlCapture.clear();
+        List<CONCERNSummary> summaries = concernRepository.findSummaryPage(
+                CONCERNSpecifications.matching(new CONCERNFilter(null, "Open", null, null, null)), CONCERNSpecifications.KEYSET_ORDER, 10);
+
+        assertEquals(ordered.stream().filter(c -> "Open".equals(c.getStatus()))
+                .map(c -> new CONCERNSummary(c.getID(), c.getStudentName(), c.getStatus(), c.getDateTime(), c.getVersion())).toList(), summaries);
+        List<String> statements = SqlCapture.statements();
+        assertEquals(1, statements.size());
+        String select = statements.get(0).toLowerCase();
+        assertFalse(select.contains("description") || select.contains("reported_by"), select);
+    }
+
+    /**
+     * Tests that a patch is one UPDATE that sets only the supplied fields and the version, and that it
+     * matches no row once the version it was based on has moved on.
+     */
+    @Test
+    void testPatchIsOneVersionedUpdateOfSuppliedFields() {
+        CONCERN target = ordered.get(0);
+        long version = target.getVersion();
+        CONCERNPatch patch = new CONCERNPatch(Map.of("status", "Resolved"), version);
+
+        SqlCapture.clear();
+        assertEquals(1, concernRepository.applyPatch(target.getID(), patch));
+        List<String> statements = SqlCapture.statements();
+        assertEquals(1, statements.size());
+        String update = statements.get(0).toLowerCase();
+        assertTrue(update.startsWith("update concerns"), update);
+        assertTrue(update.contains("status=") && update.contains("version="), update);
+        assertFalse(update.contains("description") || update.contains("student_name"), update);
+
+        CONCERN patched = concernRepository.findById(target.getID()).orElseThrow();
+        assertEquals("Resolved", patched.getStatus());
+        assertEquals(target.getDescription(), patched.getDescription());
+        assertEquals(version + 1, patched.getVersion());
+        assertEquals(0, concernRepository.applyPatch(target.getID(), patch));
+    }
+
+    /**
+     * Tests that a delete is one statement whose row count tells whether the concern existed.
+     */
+    @Test
+    void testDeleteAndCount() {
+        CONCERN target = ordered.get(0);
+
+        SqlCapture.clear();
+        assertEquals(1, concernRepository.deleteAndCount(target.getID()));
+        assertEquals(1, SqlCapture.statements().size());
+        assertEquals(0, concernRepository.deleteAndCount(target.getID()));
+        assertFalse(concernRepository.existsById(target.getID()));
+    }
+
+    private List<CONCERN> find(CONCERNFilter filter) {
+        return concernRepository.findPage(CONCERNSpecifications.matching(filter), CONCERNSpecifications.KEYSET_ORDER, 10);
+    }
+
+    private void assertIndexed(CONCERNFilter filter, CONCERNCursor cursor, String index) {
+        Specification<CONCERN> spec = CONCERNSpecifications.matching(filter);
+        if (cursor != null) {
+            spec = spec.and(CONCERNSpecifications.after(cursor));
+        }
+        SqlCapture.clear();
+        concernRepository.findPage(spec, CONCERNSpecifications.KEYSET_ORDER, 21);
+        List<String> statements = SqlCapture.statements();
+        assertEquals(1, statements.size());
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + statements.get(0), String.class).toLowerCase();
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("tablescan"), () -> "Unexpected table scan in plan:\n" + plan);
+    }
+}
@@ -0,0 +1,139 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link CONCERNSearchService} class using an in-memory index and a mocked repository.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Ranking, prefix matching and requiring every word</li>
+ *  <li>Keeping the index in step with updates and deletes</li>
+ *  <li>Rebuilding the index from the table</li>
+ *  <li>Rejecting empty queries</li>
+ * </ul>
+ *
+ */
+class CONCERNSearchServiceTest {
+
+    @Mock
+    private CONCERNRepository concernRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CONCERNSearchService searchService;
+
+    private final List<CONCERN> table = new ArrayList<>();
+
+    /**
+     * Sets up an empty in-memory index whose repository serves concerns from {@link #table}.
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(concernRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Collection<UUID> ids = new ArrayList<>();
+            invocation.<Iterable<UUID>>getArgument(0).forEach(ids::add);
+            return table.stream().filter(c -> ids.contains(c.getID())).toList();
+        });
+        searchService = new CONCERNSearchService(concernRepository, entityManager, transactionManager, Optional.empty(),
+                new CONCERNProperties(null, null, new CONCERNProperties.Search("", 10), null, null, null, null));
+    }
+
+    /**
+     * Closes the index after each test case.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        searchService.destroy();
+    }
+
+    /**
+     * Tests that exact matches outrank prefix matches and that every query word must match.
+     */
+    @Test
+    void testSearch_RanksExactMatchesAndMatchesPrefixes() {
+        CONCERN bruise = save("Visible bruise on left arm");
+        CONCERN bruises = save("Bruises on both arms noticed in PE");
+        save("Disclosed thoughts of self-harm");
+
+        List<CONCERNSearchHit> hits = searchService.search("bruise", 10);
+        assertEquals(List.of(bruise, bruises), hits.stream().map(CONCERNSearchHit::concern).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+
+        assertEquals(List.of(bruises), searchService.search("bruis arms", 10).stream().map(CONCERNSearchHit::concern).toList());
+        assertEquals(1, searchService.search("SELF-HARM", 10).size());
+    }
+
+    /**
+     * Tests that updated descriptions are re-indexed and deleted concerns disappear from results.
+     */
+    @Test
+    void testSearch_FollowsUpdatesAndDeletes() {
+        CONCERN concern = save("Missed meals all week");
+        concern.setDescription("Attendance has improved");
+        searchService.onCONCERNChanged(CONCERNChangedEvent.saved(CONCERNChangedEvent.Type.UPDATED, concern));
+
+        assertTrue(searchService.search("meals", 10).isEmpty());
+        assertEquals(1, searchService.search("attend", 10).size());
+
+        searchService.onCONCERNChanged(CONCERNChangedEvent.deleted(concern.getID()));
+        assertTrue(searchService.search("attend", 10).isEmpty());
+    }
+
+    /**
+     * Tests that a rebuild indexes every concern already in the table.
+     */
+    @Test
+    void testRebuild_IndexesTable() {
+        table.add(new CONCERN(UUID.randomUUID(), "Alice", "Teacher", "Frequent headaches", "Open", Instant.now()));
+        table.add(new CONCERN(UUID.randomUUID(), "Bob", "Nurse", "Frequent absences", "Open", Instant.now()));
+        when(concernRepository.streamAll()).thenAnswer(invocation -> Stream.of(table.toArray(CONCERN[]::new)));
+        assertFalse(searchService.isReady());
+
+        searchService.rebuild();
+
+        assertTrue(searchService.isReady());
+        assertEquals(2, searchService.search("frequent", 10).size());
+        verify(entityManager, times(2)).detach(any(CONCERN.class));
+    }
+
+    /**
+     * Tests that queries without searchable words are rejected.
+     */
+    @Test
+    void testSearch_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("  ", 10));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("bruise", 0));
+    }
+
+    private CONCERN save(String description) {
+        CONCERN concern = new CONCERN(UUID.randomUUID(), "Student", "Teacher", description, "Open", Instant.now());
+        table.add(concern);
+        searchService.onCONCERNChanged(CONCERNChangedEvent.saved(CONCERNChangedEvent.Type.CREATED, concern));
+        return concern;
+    }
+}
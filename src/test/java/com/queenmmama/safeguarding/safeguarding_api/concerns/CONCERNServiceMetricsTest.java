@@ -0,0 +1,63 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+class CONCERNServiceMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private CONCERNService target;
+    private CONCERNService service;
+
+    @BeforeEach
+    void setUp() {
+        this.registry = new SimpleMeterRegistry();
+        this.target = mock(CONCERNService.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(this.target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new CONCERNServiceMetrics(this.registry));
+        this.service = factory.getProxy();
+    }
+
+    @Test
+    void successfulCallIsTimedAsSuccess() {
+        when(this.target.getAllCONCERNs()).thenReturn(List.of());
+
+        this.service.getAllCONCERNs();
+
+        assertEquals(1, count("getAllCONCERNs", "success"));
+    }
+
+    @Test
+    void missingConcernIsTimedAsNotFound() {
+        UUID id = UUID.randomUUID();
+        when(this.target.getCONCERN(id)).thenThrow(new NoSuchElementException());
+
+        assertThrows(NoSuchElementException.class, () -> this.service.getCONCERN(id));
+
+        assertEquals(1, count("getCONCERN", "not_found"));
+    }
+
+    @Test
+    void invalidInputIsTimedAsBadRequest() {
+        when(this.target.getCONCERNPage(CONCERNFilter.NONE, "junk", null)).thenThrow(new IllegalArgumentException());
+
+        assertThrows(IllegalArgumentException.class, () -> this.service.getCONCERNPage(CONCERNFilter.NONE, "junk", null));
+
+        assertEquals(1, count("getCONCERNPage", "bad_request"));
+    }
+
+    private long count(String method, String result) {
+        return this.registry.get("concerns.service.calls").tag("method", method).tag("result", result).timer().count();
+    }
+}
@@ -1,13 +1,23 @@
 package com.queenmmama.safeguarding.safeguarding_api.concerns;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import java.time.Instant;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -20,10 +30,14 @@ import static org.mockito.Mockito.*;
  * <p>Tested scenarios include:</p>
  * <ul>
  *  <li>Retrieving all concerns</li>
+ *  <li>Retrieving keyset pages of concerns (first, next, previous and invalid cursors or ranges)</li>
+ *  <li>Retrieving keyset pages of concern summaries</li>
  *  <li>Retrieving a concern by ID (found and not found)</li>
  *  <li>Creating a concern (valid and invalid data)</li>
- *  <li>Updating a concern (success and not found)</li>
- *  <li>Deleting a concern (success and not found)</li>
+ *  <li>Creating concerns in bulk (chunking, per-item errors and size limits)</li>
+ *  <li>Updating a concern (success, without a dateTime, too long, not found and stale version)</li>
+ *  <li>Patching a concern (success, not found, stale version and invalid documents)</li>
+ *  <li>Deleting a concern (success, not found and changed concurrently)</li>
  *  <li>Retrieving concerns by student name</li>
  * </ul>
  * 
@@ -33,7 +47,18 @@ class CONCERNServiceTest {
     @Mock
     private CONCERNRepository concernRepository;
 
-    @InjectMocks
+    @Mock
+    private CONCERNArchiveRepository archiveRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CONCERNAggregateService aggregateService;
+
     private CONCERNService concernService;
 
     private CONCERN concern;
@@ -46,6 +71,9 @@ class CONCERNServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        concernService = new CONCERNService(concernRepository, archiveRepository, entityManager,
+                new CONCERNProperties(new CONCERNProperties.Page(2, 3), new CONCERNProperties.Batch(2, 5), null, null, null, null, null), eventPublisher,
+                aggregateService);
         concernId = UUID.randomUUID();
         concern = new CONCERN(
                 concernId,
@@ -73,6 +101,89 @@ class CONCERNServiceTest {
         verify(concernRepository, times(1)).findAll();
     }
 
+    /**
+     * Tests retrieving the first page of concerns.
+     * Verifies that one extra row is fetched to detect a following page and that only a next cursor is returned.
+     */
+    @Test
+    void testGetConcernPage_First() {
+        CONCERN second = new CONCERN(UUID.randomUUID(), "Bob", "Teacher B", "Late again", "Open", concern.getDateTime().plusSeconds(1));
+        CONCERN third = new CONCERN(UUID.randomUUID(), "Cara", "Teacher C", "Upset", "Open", concern.getDateTime().plusSeconds(2));
+        when(concernRepository.findPage(any(), eq(CONCERNSpecifications.KEYSET_ORDER), eq(3))).thenReturn(List.of(concern, second, third));
+
+        CONCERNPage<CONCERN> page = concernService.getCONCERNPage(CONCERNFilter.NONE, null, null);
+
+        assertEquals(List.of(concern, second), page.items());
+        assertNull(page.prevCursor());
+        CONCERNCursor next = CONCERNCursor.decode(page.nextCursor());
+        assertTrue(next.forward());
+        assertEquals(second.getID(), next.id());
+        assertEquals(second.getDateTime(), next.dateTime());
+    }
+
+    /**
+     * Tests following a next cursor.
+     * Verifies that the keyset query is used, the size is capped and the last page has no next cursor.
+     */
+    @Test
+    void testGetConcernPage_Next() {
+        CONCERNCursor cursor = new CONCERNCursor(concern.getDateTime().minusSeconds(5), UUID.randomUUID(), true);
+        when(concernRepository.findPage(any(), eq(CONCERNSpecifications.KEYSET_ORDER), eq(4))).thenReturn(List.of(concern));
+
+        CONCERNPage<CONCERN> page = concernService.getCONCERNPage(CONCERNFilter.NONE, cursor.encode(), 50);
+
+        assertEquals(List.of(concern), page.items());
+        assertNull(page.nextCursor());
+        assertFalse(CONCERNCursor.decode(page.prevCursor()).forward());
+    }
+
+    /**
+     * Tests following a previous cursor.
+     * Verifies that rows read newest first are returned oldest first.
+     */
+    @Test
+    void testGetConcernPage_Previous() {
+        CONCERN older = new CONCERN(UUID.randomUUID(), "Bob", "Teacher B", "Late again", "Open", concern.getDateTime().minusSeconds(1));
+        CONCERNCursor cursor = new CONCERNCursor(concern.getDateTime().plusSeconds(1), UUID.randomUUID(), false);
+        when(concernRepository.findPage(any(), eq(CONCERNSpecifications.REVERSE_KEYSET_ORDER), eq(3))).thenReturn(List.of(concern, older));
+
+        CONCERNPage<CONCERN> page = concernService.getCONCERNPage(CONCERNFilter.NONE, cursor.encode(), null);
+
+        assertEquals(List.of(older, concern), page.items());
+        assertNull(page.prevCursor());
+        assertEquals(concern.getID(), CONCERNCursor.decode(page.nextCursor()).id());
+    }
+
+    /**
+     * Tests retrieving a page with a malformed cursor, size or date range.
+     * Verifies that an IllegalArgumentException is thrown.
+     */
+    @Test
+    void testGetConcernPage_Invalid() {
+        Instant now = Instant.now();
+        assertThrows(IllegalArgumentException.class, () -> new CONCERNFilter(null, null, null, now, now.minusSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> concernService.getCONCERNPage(CONCERNFilter.NONE, "not-a-cursor", null));
+        assertThrows(IllegalArgumentException.class, () -> concernService.getCONCERNPage(CONCERNFilter.NONE, null, 0));
+    }
+
+    /**
+     * Tests retrieving a page of summaries.
+     * Verifies that the summary query is used instead of the full one and that its cursors follow the same keys.
+     */
+    @Test
+    void testGetConcernSummaryPage() {
+        CONCERNSummary first = new CONCERNSummary(concernId, "Alice Johnson", "Open", concern.getDateTime(), 0L);
+        CONCERNSummary second = new CONCERNSummary(UUID.randomUUID(), "Bob", "Open", concern.getDateTime().plusSeconds(1), 0L);
+        CONCERNSummary third = new CONCERNSummary(UUID.randomUUID(), "Cara", "Open", concern.getDateTime().plusSeconds(2), 0L);
+        when(concernRepository.findSummaryPage(any(), eq(CONCERNSpecifications.KEYSET_ORDER), eq(3))).thenReturn(List.of(first, second, third));
+
+        CONCERNPage<CONCERNSummary> page = concernService.getCONCERNSummaryPage(CONCERNFilter.NONE, null, null);
+
+        assertEquals(List.of(first, second), page.items());
+        assertEquals(new CONCERNCursor(second.dateTime(), second.id(), true), CONCERNCursor.decode(page.nextCursor()));
+        verify(concernRepository, never()).findPage(any(), any(), anyInt());
+    }
+
     /**
      * Tests retrieving a concern by ID when the concern exists.
      * Verifies that the service returns the correct concern.
@@ -112,6 +223,8 @@ class CONCERNServiceTest {
         assertNotNull(saved);
         assertEquals("Open", saved.getStatus());
         verify(concernRepository, times(1)).save(concern);
+        verify(aggregateService).recordCreated(List.of(concern));
+        verify(eventPublisher).publishEvent(CONCERNChangedEvent.saved(CONCERNChangedEvent.Type.CREATED, concern));
     }
 
     /**
@@ -123,6 +236,44 @@ class CONCERNServiceTest {
         assertThrows(IllegalArgumentException.class, () -> concernService.createCONCERN(null));
     }
 
+    /**
+     * Tests creating concerns in bulk.
+     * Verifies that valid concerns are saved in chunks with a flush and clear after each,
+     * and that invalid concerns are reported against their position in the request.
+     */
+    @Test
+    void testCreateConcerns_ChunksAndReportsErrors() {
+        CONCERN invalid = new CONCERN(null, null, "Teacher B", "No name", "Open", null);
+        List<CONCERN> batch = List.of(concern, invalid, concern, concern);
+        when(concernRepository.saveAll(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<CONCERN>>getArgument(0)));
+
+        CONCERNBatchResult result = concernService.createCONCERNs(batch);
+
+        assertEquals(3, result.created());
+        assertEquals(1, result.failed());
+        assertEquals(4, result.items().size());
+        assertEquals(concernId, result.items().get(0).id());
+        assertNull(result.items().get(1).id());
+        assertNotNull(result.items().get(1).error());
+        assertEquals(3, result.items().get(3).index());
+        verify(concernRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(eventPublisher, times(3)).publishEvent(any(CONCERNChangedEvent.class));
+        verify(aggregateService, times(2)).recordCreated(anyList());
+    }
+
+    /**
+     * Tests creating an empty or oversized batch.
+     * Verifies that the service throws an IllegalArgumentException without saving anything.
+     */
+    @Test
+    void testCreateConcerns_InvalidBatch() {
+        assertThrows(IllegalArgumentException.class, () -> concernService.createCONCERNs(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> concernService.createCONCERNs(Collections.nCopies(6, concern)));
+        verify(concernRepository, never()).saveAll(anyList());
+    }
+
     /**
      * Tests updating a concern successfully.
      * Verifies that the service updates and returns the concern correctly.
@@ -145,6 +296,44 @@ class CONCERNServiceTest {
 
         assertEquals("Resolved", result.getStatus());
         assertEquals("Updated description", result.getDescription());
+        verify(aggregateService).recordTransition(new CONCERNStudentStatus("Alice Johnson", "Open"),
+                new CONCERNStudentStatus("Alice Johnson", "Resolved"));
+        verify(eventPublisher).publishEvent(CONCERNChangedEvent.saved(CONCERNChangedEvent.Type.UPDATED, updatedConcern));
+    }
+
+    /**
+     * Tests updating a concern without a dateTime.
+     * Verifies that the concern keeps the time it was reported at.
+     */
+    @Test
+    void testUpdateConcern_KeepsDateTime() {
+        Instant reported = concern.getDateTime();
+        CONCERN updatedConcern = new CONCERN(concernId, "Alice Johnson", "Teacher A", "Updated description", "Open", null);
+        when(concernRepository.findById(concernId)).thenReturn(Optional.of(concern));
+        when(concernRepository.save(any(CONCERN.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CONCERN result = concernService.updateCONCERN(concernId, updatedConcern);
+
+        assertEquals(reported, result.getDateTime());
+        assertEquals("Updated description", result.getDescription());
+    }
+
+    /**
+     * Tests updating or patching a concern with a field longer than its column.
+     * Verifies that the service throws an IllegalArgumentException without writing anything.
+     */
+    @Test
+    void testUpdateAndPatchConcern_TooLong() {
+        String tooLong = "x".repeat(CONCERN.MAX_TEXT_LENGTH + 1);
+        when(concernRepository.findById(concernId)).thenReturn(Optional.of(concern));
+
+        assertThrows(IllegalArgumentException.class, () -> concernService.updateCONCERN(concernId,
+                new CONCERN(concernId, "Alice Johnson", tooLong, "Description", "Open", null)));
+        assertThrows(IllegalArgumentException.class, () -> concernService.patchCONCERN(concernId,
+                new CONCERNPatch(Map.of("status", tooLong), 1)));
+        verify(concernRepository, never()).save(any(CONCERN.class));
+        verify(concernRepository, never()).applyPatch(any(), any());
+        verifyNoInteractions(aggregateService);
     }
 
     /**
@@ -158,17 +347,106 @@ class CONCERNServiceTest {
         assertThrows(NoSuchElementException.class, () -> concernService.updateCONCERN(concernId, concern));
     }
 
+    /**
+     * Tests updating a concern with a version that is no longer current.
+     * Verifies that the service throws an OptimisticLockingFailureException without saving.
+     */
+    @Test
+    void testUpdateConcern_StaleVersion() {
+        concern.setVersion(3L);
+        CONCERN stale = new CONCERN(concernId, "Alice Johnson", "Teacher A", "Old description", "Open", Instant.now());
+        stale.setVersion(2L);
+        when(concernRepository.findById(concernId)).thenReturn(Optional.of(concern));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> concernService.updateCONCERN(concernId, stale));
+        verify(concernRepository, never()).save(any(CONCERN.class));
+    }
+
+    /**
+     * Tests patching a concern successfully.
+     * Verifies that the service applies the patch without loading the concern, moves the aggregate counts
+     * and returns the next version.
+     */
+    @Test
+    void testPatchConcern_Success() {
+        CONCERNPatch patch = CONCERNPatch.from(json("{\"status\":\"Resolved\",\"version\":4}"));
+        when(concernRepository.findStudentStatusById(concernId)).thenReturn(Optional.of(new CONCERNStudentStatusVersion("Alice Johnson", "Open", 4L)));
+        when(concernRepository.applyPatch(concernId, patch)).thenReturn(1);
+
+        assertEquals(5, concernService.patchCONCERN(concernId, patch));
+        assertEquals(Map.of("status", "Resolved"), patch.changes());
+        verify(concernRepository, never()).findById(any());
+        verify(concernRepository, never()).existsById(any());
+        verify(aggregateService).recordTransition(new CONCERNStudentStatus("Alice Johnson", "Open"),
+                new CONCERNStudentStatus("Alice Johnson", "Resolved"));
+        verify(eventPublisher).publishEvent(CONCERNChangedEvent.patched(concernId, patch));
+    }
+
+    /**
+     * Tests patching a concern that does not exist or whose version has moved on.
+     * Verifies that the service tells the two apart only after the update matched no row.
+     */
+    @Test
+    void testPatchConcern_NotFoundOrStale() {
+        CONCERNPatch patch = CONCERNPatch.from(json("{\"description\":\"Updated\",\"version\":1}"));
+        when(concernRepository.applyPatch(concernId, patch)).thenReturn(0);
+
+        when(concernRepository.existsById(concernId)).thenReturn(false);
+        assertThrows(NoSuchElementException.class, () -> concernService.patchCONCERN(concernId, patch));
+
+        when(concernRepository.existsById(concernId)).thenReturn(true);
+        assertThrows(OptimisticLockingFailureException.class, () -> concernService.patchCONCERN(concernId, patch));
+        verify(concernRepository, never()).findStudentStatusById(any());
+        verifyNoInteractions(aggregateService);
+        verify(eventPublisher, never()).publishEvent(any(CONCERNChangedEvent.class));
+    }
+
+    /**
+     * Tests parsing invalid merge patch documents.
+     * Verifies that a missing version, unknown or read-only fields and nulled required fields are rejected,
+     * and that a null status resets it to "Open".
+     */
+    @Test
+    void testPatchDocuments() {
+        assertThrows(IllegalArgumentException.class, () -> CONCERNPatch.from(json("{\"status\":\"Resolved\"}")));
+        assertThrows(IllegalArgumentException.class, () -> CONCERNPatch.from(json("{\"id\":\"" + concernId + "\",\"version\":1}")));
+        assertThrows(IllegalArgumentException.class, () -> CONCERNPatch.from(json("{\"colour\":\"red\",\"version\":1}")));
+        assertThrows(IllegalArgumentException.class, () -> CONCERNPatch.from(json("{\"studentName\":null,\"version\":1}")));
+        assertThrows(IllegalArgumentException.class, () -> CONCERNPatch.from(json("{\"dateTime\":\"yesterday\",\"version\":1}")));
+        assertThrows(IllegalArgumentException.class, () -> CONCERNPatch.from(json("[]")));
+        assertEquals(Map.of("status", "Open"), CONCERNPatch.from(json("{\"status\":null,\"version\":1}")).changes());
+    }
+
+    /**
+     * Tests patching the status of a concern whose version has moved on since the patch was based on it.
+     * Verifies that the service rejects the patch before applying it, so the counts are not moved.
+     */
+    @Test
+    void testPatchConcern_StaleBeforeApplying() {
+        CONCERNPatch patch = CONCERNPatch.from(json("{\"status\":\"Resolved\",\"version\":4}"));
+        when(concernRepository.findStudentStatusById(concernId)).thenReturn(Optional.of(new CONCERNStudentStatusVersion("Alice Johnson", "Open", 5L)));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> concernService.patchCONCERN(concernId, patch));
+        verify(concernRepository, never()).applyPatch(any(), any());
+        verifyNoInteractions(aggregateService);
+    }
+
     /**
      * Tests deleting a concern successfully.
-     * Verifies that the service calls the repository to delete the concern.
+     * Verifies that the service deletes the concern at the version it read and removes it from the aggregate counts.
      */
     @Test
     void testDeleteConcern_Success() {
-        when(concernRepository.existsById(concernId)).thenReturn(true);
+        when(concernRepository.findStudentStatusById(concernId)).thenReturn(Optional.of(new CONCERNStudentStatusVersion("Alice Johnson", "Open", 2L)));
+        when(concernRepository.deleteAndCount(concernId, 2L)).thenReturn(1);
 
-        concernService.deleteCONCERN(concernId);
+        concernService.deleteCONCERN(concernId, null);
 
-        verify(concernRepository, times(1)).deleteById(concernId);
+        verify(concernRepository, times(1)).deleteAndCount(concernId, 2L);
+        verify(concernRepository, never()).deleteAndCount(concernId);
+        verify(concernRepository, never()).existsById(concernId);
+        verify(aggregateService).recordTransition(new CONCERNStudentStatus("Alice Johnson", "Open"), null);
+        verify(eventPublisher).publishEvent(CONCERNChangedEvent.deleted(concernId));
     }
 
     /**
@@ -177,22 +455,51 @@ class CONCERNServiceTest {
      */
     @Test
     void testDeleteConcern_NotFound() {
-        when(concernRepository.existsById(concernId)).thenReturn(false);
+        when(concernRepository.findStudentStatusById(concernId)).thenReturn(Optional.empty());
 
-        assertThrows(NoSuchElementException.class, () -> concernService.deleteCONCERN(concernId));
+        assertThrows(NoSuchElementException.class, () -> concernService.deleteCONCERN(concernId, null));
+        verify(concernRepository, never()).deleteAndCount(eq(concernId), anyLong());
+        verifyNoInteractions(aggregateService);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * Tests deleting a concern that another request changes between the read and the delete, or that has moved
+     * on from the version the caller expects.
+     * Verifies that nothing is taken off the aggregate counts and the service reports a stale write.
+     */
+    @Test
+    void testDeleteConcern_ChangedConcurrently() {
+        when(concernRepository.findStudentStatusById(concernId)).thenReturn(Optional.of(new CONCERNStudentStatusVersion("Alice Johnson", "Open", 2L)));
+        when(concernRepository.deleteAndCount(concernId, 2L)).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> concernService.deleteCONCERN(concernId, null));
+        assertThrows(OptimisticLockingFailureException.class, () -> concernService.deleteCONCERN(concernId, 1L));
+        verify(concernRepository, times(1)).deleteAndCount(concernId, 2L);
+        verify(concernRepository, never()).deleteAndCount(concernId);
+        verifyNoInteractions(aggregateService);
+        verifyNoInteractions(eventPublisher);
     }
 
     /**
      * Tests retrieving concerns by student name.
-     * Verifies that the service returns the correct list of concerns for the given student name.
+     * Verifies that the service looks the name up by its folded key, so case and accents do not matter.
      */
     @Test
     void testGetConcernsByStudentName() {
-        when(concernRepository.findByStudentName("Alice Johnson")).thenReturn(List.of(concern));
+        when(concernRepository.findByStudentNameKey("alice johnson")).thenReturn(List.of(concern));
 
-        List<CONCERN> result = concernService.getCONCERNsByStudentName("Alice Johnson");
+        List<CONCERN> result = concernService.getCONCERNsByStudentName("  ÁLICE Johnson ");
 
         assertEquals(1, result.size());
         assertEquals("Alice Johnson", result.get(0).getStudentName());
     }
+
+    private static JsonNode json(String document) {
+        try {
+            return new ObjectMapper().readTree(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
 }
@@ -0,0 +1,252 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.queenmmama.safeguarding.safeguarding_api.config.InstitutionShardRing;
+import com.queenmmama.safeguarding.safeguarding_api.config.ShardRoutingDataSource;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for storing each institution's concerns on one of several databases with {@link ShardRoutingDataSource}.
+ *
+ * <p>The three shards are separate embedded databases. The placement directory is only re-read when a test or a
+ * placement asks for it, and moves do not wait for other instances.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Storing a new institution's concerns on the shard the ring chooses, and recording it there</li>
+ *  <li>Keeping institutions from reading, searching and counting each other's concerns</li>
+ *  <li>Running reconciliation and search index rebuilds against every shard</li>
+ *  <li>Rejecting writes, but not reads, while an institution is being moved</li>
+ *  <li>Moving an institution to another shard through the actuator endpoint</li>
+ *  <li>Rejecting invalid institution IDs</li>
+ *  <li>Placing only about one in N institutions on a newly added shard</li>
+ * </ul>
+ *
+ */
+@SpringBootTest(properties = {
+    "safeguarding.sharding.shard-urls=jdbc:h2:mem:safeguarding_shard_1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE,"
+            + "jdbc:h2:mem:safeguarding_shard_2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "safeguarding.sharding.directory-refresh=1h",
+    "safeguarding.sharding.move-grace=0s",
+    "management.endpoints.web.exposure.include=shards",
+    "management.endpoint.shards.access=unrestricted"
+})
+@AutoConfigureMockMvc
+class CONCERNShardingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    @Autowired
+    private CONCERNAggregateService aggregateService;
+
+    @Autowired
+    private CONCERNSearchService searchService;
+
+    private String first;
+    private String second;
+    private String studentName;
+
+    /**
+     * Picks two institutions no other test uses that the ring places on different shards.
+     */
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        first = "school-" + suffix;
+        int candidate = 0;
+        do {
+            second = "hospital-" + candidate++ + "-" + suffix;
+        } while (routingDataSource.shardOf(second) == routingDataSource.shardOf(first));
+        studentName = "Sharded Student " + suffix;
+    }
+
+    /**
+     * Tests that a new institution's first concern is stored on the ring's shard only, and that the placement is
+     * recorded.
+     */
+    @Test
+    void testConcernsAreStoredOnTheirInstitutionsShard() throws Exception {
+        int shard = routingDataSource.shardOf(first);
+        create(first, "Bruising on arm");
+
+        for (int i = 0; i < routingDataSource.count(); i++) {
+            assertEquals(i == shard ? 1 : 0, countOn(i, "concerns", first), "shard " + i);
+        }
+        assertEquals(new ShardRoutingDataSource.Placement(shard, false), routingDataSource.getPlacements().get(first));
+    }
+
+    /**
+     * Tests that one institution cannot read, list, search or count another's concerns, even by ID.
+     */
+    @Test
+    void testInstitutionsAreIsolated() throws Exception {
+        String id = create(first, "Unexplained absence");
+
+        mockMvc.perform(get("/api/concerns/{id}", id).header(CONCERNInstitutions.HEADER, second))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/concerns/{id}", id).header(CONCERNInstitutions.HEADER, first))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName).header(CONCERNInstitutions.HEADER, second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+        mockMvc.perform(get("/api/concerns/search").param("q", "unexplained").header(CONCERNInstitutions.HEADER, second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.concern.id == '" + id + "')]").isEmpty());
+        mockMvc.perform(get("/api/concerns/aggregates").param("studentName", studentName).header(CONCERNInstitutions.HEADER, second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0));
+        mockMvc.perform(get("/api/concerns/aggregates").param("studentName", studentName).header(CONCERNInstitutions.HEADER, first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1));
+        mockMvc.perform(delete("/api/concerns/{id}", id).header(CONCERNInstitutions.HEADER, second))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Tests that reconciling counts and rebuilding the search index cover institutions on every shard.
+     */
+    @Test
+    void testBackgroundWorkVisitsEveryShard() throws Exception {
+        create(first, "Reconciled shardfirst");
+        create(second, "Reconciled shardsecond");
+        jdbc(routingDataSource.shardOf(second)).update("delete from concern_counts where institution_id = ?", second);
+
+        aggregateService.reconcile();
+        searchService.rebuild();
+
+        for (String institution : List.of(first, second)) {
+            CONCERNAggregates aggregates = CONCERNInstitutions.call(institution, () -> aggregateService.getAggregates(studentName));
+            assertEquals(1, aggregates.total(), institution);
+        }
+        assertEquals(1, CONCERNInstitutions.call(second, () -> searchService.search("shardsecond", 10)).size());
+        assertEquals(0, CONCERNInstitutions.call(first, () -> searchService.search("shardsecond", 10)).size());
+    }
+
+    /**
+     * Tests that an institution being moved is still read from its old shard while its writes get 503.
+     */
+    @Test
+    void testWritesAreRejectedWhileMoving() throws Exception {
+        String id = create(first, "Before the move");
+        jdbc(0).update("update institution_shards set moving = true where institution_id = ?", first);
+        routingDataSource.refreshPlacements();
+        try {
+            mockMvc.perform(post("/api/concerns").header(CONCERNInstitutions.HEADER, first)
+                            .contentType(MediaType.APPLICATION_JSON).content(body("During the move")))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+            mockMvc.perform(get("/api/concerns/{id}", id).header(CONCERNInstitutions.HEADER, first))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post("/api/concerns").header(CONCERNInstitutions.HEADER, second)
+                            .contentType(MediaType.APPLICATION_JSON).content(body("Other institution")))
+                    .andExpect(status().isCreated());
+        } finally {
+            jdbc(0).update("update institution_shards set moving = false where institution_id = ?", first);
+            routingDataSource.refreshPlacements();
+        }
+    }
+
+    /**
+     * Tests that rebalancing copies an institution's concerns and counts to the target shard, removes them from the
+     * source and keeps serving them.
+     */
+    @Test
+    void testRebalanceMovesInstitution() throws Exception {
+        int source = routingDataSource.shardOf(first);
+        int target = (source + 1) % routingDataSource.count();
+        String id = create(first, "Moving concern");
+        create(first, "Another moving concern");
+
+        mockMvc.perform(post("/actuator/shards").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"institution\":\"%s\",\"shard\":%d}".formatted(first, target)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value(source))
+                .andExpect(jsonPath("$.to").value(target));
+
+        assertEquals(target, routingDataSource.shardOf(first));
+        assertFalse(routingDataSource.isMoving(first));
+        assertEquals(2, countOn(target, "concerns", first));
+        assertEquals(0, countOn(source, "concerns", first));
+        assertEquals(0, countOn(source, "concern_counts", first));
+        mockMvc.perform(get("/api/concerns/{id}", id).header(CONCERNInstitutions.HEADER, first))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/concerns/aggregates").param("studentName", studentName).header(CONCERNInstitutions.HEADER, first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2));
+        create(first, "After the move");
+        assertEquals(3, countOn(target, "concerns", first));
+        mockMvc.perform(post("/actuator/shards").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"institution\":\"%s\",\"shard\":%d}".formatted(first, routingDataSource.count())))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that a malformed institution header is rejected before the request is served.
+     */
+    @Test
+    void testInvalidInstitutionIsRejected() throws Exception {
+        mockMvc.perform(get("/api/concerns").header(CONCERNInstitutions.HEADER, "no spaces allowed"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/concerns").header(CONCERNInstitutions.HEADER, "*"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that adding a fourth shard to the ring only moves institutions onto that shard, and only about a quarter
+     * of them.
+     */
+    @Test
+    void testRingMovesFewInstitutionsWhenAShardIsAdded() {
+        InstitutionShardRing three = new InstitutionShardRing(3, 64);
+        InstitutionShardRing four = new InstitutionShardRing(4, 64);
+        int moved = 0;
+        for (int i = 0; i < 1000; i++) {
+            String institution = "institution-" + i;
+            if (three.shardFor(institution) != four.shardFor(institution)) {
+                assertEquals(3, four.shardFor(institution));
+                moved++;
+            }
+        }
+        assertTrue(moved > 100 && moved < 400, moved + " of 1000 institutions moved");
+    }
+
+    private String create(String institution, String description) throws Exception {
+        String response = mockMvc.perform(post("/api/concerns").header(CONCERNInstitutions.HEADER, institution)
+                        .contentType(MediaType.APPLICATION_JSON).content(body(description)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.id");
+    }
+
+    private String body(String description) {
+        return """
+                {"studentName":"%s","reportedBy":"Teacher A","description":"%s","status":"Open"}
+                """.formatted(studentName, description);
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(routingDataSource.getShards().get(shard));
+    }
+
+    private long countOn(int shard, String table, String institution) {
+        return jdbc(shard).queryForObject("select count(*) from " + table + " where institution_id = ?", Long.class, institution);
+    }
+}
@@ -0,0 +1,121 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for student name suggestions from {@link CONCERNStudentIndex} and {@code GET /api/concerns/students}.
+ *
+ * <p>Each test uses a random word in its student names so that suggestions from other tests do not interfere.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Folding case, accents and whitespace in names</li>
+ *  <li>Matching the start of any word in a name, with concern counts</li>
+ *  <li>Following creates, renames and deletes, and reloads after reconciliation</li>
+ *  <li>Looking up concerns by student name regardless of case and accents</li>
+ *  <li>Rejecting blank prefixes and non-positive sizes</li>
+ * </ul>
+ *
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CONCERNStudentIndexTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CONCERNStudentIndex studentIndex;
+
+    @Autowired
+    private CONCERNService concernService;
+
+    @Autowired
+    private CONCERNAggregateService aggregateService;
+
+    private String word;
+
+    /**
+     * Picks a surname no other test uses.
+     */
+    @BeforeEach
+    void setUp() {
+        word = "Zq" + UUID.randomUUID().toString().substring(0, 8).replace('-', 'x');
+    }
+
+    /**
+     * Tests that names are folded to lower case without accents or extra whitespace.
+     */
+    @Test
+    void testNormalize() {
+        assertEquals("jose nunez", CONCERNStudentNames.normalize("  José \t Núñez "));
+        assertEquals(CONCERNStudentNames.normalize("JOSE NUNEZ"), CONCERNStudentNames.normalize("josé núñez"));
+        assertNull(CONCERNStudentNames.normalize(null));
+    }
+
+    /**
+     * Tests that a prefix of the first name or the surname finds the student, ignoring case and accents, with their count.
+     */
+    @Test
+    void testSuggestsByAnyWord() throws Exception {
+        String name = "Zoë " + word;
+        create(name);
+        create(name);
+        create("Other " + word);
+
+        assertEquals(List.of(new CONCERNStudentMatch(name, 2)), studentIndex.suggest("zoe " + word.substring(0, 4), null));
+        assertEquals(List.of(new CONCERNStudentMatch("Other " + word, 1), new CONCERNStudentMatch(name, 2)),
+                studentIndex.suggest(word.toUpperCase(), null));
+        assertEquals(1, studentIndex.suggest(word, 1).size());
+
+        mockMvc.perform(get("/api/concerns/students").param("prefix", "ZOË " + word))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].studentName").value(name))
+                .andExpect(jsonPath("$[0].concerns").value(2));
+    }
+
+    /**
+     * Tests that renaming and deleting concerns moves and removes students, and that reconciling reloads the same counts.
+     */
+    @Test
+    void testFollowsWrites() {
+        CONCERN concern = create("Anna " + word);
+        concernService.patchCONCERN(concern.getID(), new CONCERNPatch(Map.of("studentName", "Hanna " + word), concern.getVersion()));
+        assertEquals(List.of(new CONCERNStudentMatch("Hanna " + word, 1)), studentIndex.suggest(word, null));
+        assertEquals(1, concernService.getCONCERNsByStudentName("hanna " + word.toLowerCase()).size());
+
+        aggregateService.reconcile();
+        assertEquals(List.of(new CONCERNStudentMatch("Hanna " + word, 1)), studentIndex.suggest(word, null));
+
+        concernService.deleteCONCERN(concern.getID(), null);
+        assertEquals(List.of(), studentIndex.suggest(word, null));
+        assertEquals(List.of(), studentIndex.suggest("hanna " + word, null));
+    }
+
+    /**
+     * Tests that blank prefixes and non-positive sizes are rejected with 400.
+     */
+    @Test
+    void testRejectsInvalidRequests() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> studentIndex.suggest("  ", null));
+        mockMvc.perform(get("/api/concerns/students").param("prefix", " ")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/concerns/students").param("prefix", "a").param("size", "0")).andExpect(status().isBadRequest());
+    }
+
+    private CONCERN create(String studentName) {
+        return concernService.createCONCERN(new CONCERN(null, studentName, "Teacher A", "Description", "Open", Instant.now()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that database work happens only inside the explicit transactions of {@link CONCERNService}.
+ *
+ * <p>With open-in-view disabled, anything the service returns is rendered after its transaction and
+ * connection are gone, so a lazy association or proxy touched during serialization throws a
+ * {@code LazyInitializationException}. These tests render every read result outside a transaction to catch that.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Every public service method declaring a transaction, read-only for reads</li>
+ *  <li>Open-in-view being disabled</li>
+ *  <li>Every read result rendering to JSON without lazy loading</li>
+ *  <li>The rendering check failing for an uninitialized proxy</li>
+ * </ul>
+ *
+ */
+@SpringBootTest
+class CONCERNTransactionBoundaryTest {
+
+    @Autowired
+    private CONCERNService concernService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Tests that each public CONCERNService method has its own transaction, read-only if it only reads.
+     */
+    @Test
+    void testEveryServiceMethodDeclaresATransaction() {
+        for (Method method : CONCERNService.class.getDeclaredMethods()) {
+            if (!Modifier.isPublic(method.getModifiers())) {
+                continue;
+            }
+            Transactional transactional = method.getAnnotation(Transactional.class);
+            assertNotNull(transactional, () -> method.getName() + " has no @Transactional boundary");
+            assertEquals(method.getName().startsWith("get"), transactional.readOnly(), () -> method.getName() + " has the wrong readOnly flag");
+        }
+    }
+
+    /**
+     * Tests that no open-in-view interceptor keeps a persistence context open for the whole request.
+     */
+    @Test
+    void testOpenInViewIsDisabled() {
+        assertEquals(0, applicationContext.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length);
+        assertNotEquals(Boolean.TRUE, entityManagerFactory.getProperties().get("hibernate.enable_lazy_load_no_trans"));
+    }
+
+    /**
+     * Tests that every read result can be rendered after its transaction has ended.
+     */
+    @Test
+    void testReadResultsRenderOutsideATransaction() {
+        String studentName = "Boundary " + UUID.randomUUID();
+        CONCERN created = concernService.createCONCERN(new CONCERN(null, studentName, "Teacher A", "Description", "Open", Instant.now()));
+        CONCERNFilter filter = new CONCERNFilter(studentName, null, null, null, null);
+
+        assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+        assertRendersWithoutLazyLoading(concernService.getAllCONCERNs());
+        assertRendersWithoutLazyLoading(concernService.getCONCERNPage(filter, null, null));
+        assertRendersWithoutLazyLoading(concernService.getCONCERNSummaryPage(filter, null, null));
+        assertRendersWithoutLazyLoading(concernService.getCONCERN(created.getID()));
+        assertRendersWithoutLazyLoading(concernService.getCONCERNsByStudentName(studentName));
+    }
+
+    /**
+     * Tests that the rendering check fails for a proxy whose persistence context has closed.
+     */
+    @Test
+    void testRenderingAnUninitializedProxyFails() {
+        CONCERN created = concernService.createCONCERN(new CONCERN(null, "Proxy", "Teacher A", "Description", "Open", Instant.now()));
+        CONCERN proxy;
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            proxy = entityManager.getReference(CONCERN.class, created.getID());
+        }
+
+        assertThrows(AssertionError.class, () -> assertRendersWithoutLazyLoading(List.of(proxy)));
+    }
+
+    private void assertRendersWithoutLazyLoading(Object result) {
+        try {
+            objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            fail("Rendering touched data outside a transaction: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.decoder.BrotliInputStream;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for the CBOR and Smile wire formats and for response compression.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Choosing JSON, CBOR or Smile with the Accept header</li>
+ *  <li>Compressing large pages with gzip or brotli, and leaving small responses alone</li>
+ *  <li>Compressing a streamed export</li>
+ *  <li>Conditional requests with the tag of a compressed binary representation</li>
+ * </ul>
+ *
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CONCERNWireFormatTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CONCERNService concernService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String studentName;
+    private CONCERN concern;
+
+    /**
+     * Creates a page of concerns large enough to be compressed, for a student no other test uses.
+     */
+    @BeforeEach
+    void setUp() {
+        studentName = "Wire " + UUID.randomUUID();
+        for (int i = 0; i < 30; i++) {
+            concern = concernService.createCONCERN(new CONCERN(null, studentName, "Teacher " + i,
+                    "Observed during break time: the student appeared withdrawn and said they had not eaten.", "Open",
+                    Instant.parse("2025-01-01T09:00:00Z").plusSeconds(i)));
+        }
+    }
+
+    /**
+     * Tests that every format carries the same page and a tag of its own.
+     */
+    @Test
+    void testFormatsFromAccept() throws Exception {
+        MockHttpServletResponse json = page(MediaType.APPLICATION_JSON, null);
+        MockHttpServletResponse cbor = page(MediaType.APPLICATION_CBOR, null);
+        MockHttpServletResponse smile = page(SMILE, null);
+
+        assertTrue(MediaType.APPLICATION_CBOR.isCompatibleWith(MediaType.parseMediaType(cbor.getContentType())));
+        assertTrue(SMILE.isCompatibleWith(MediaType.parseMediaType(smile.getContentType())));
+        JsonNode expected = objectMapper.readTree(json.getContentAsByteArray());
+        assertEquals(expected, decode(new CBORFactory(), cbor));
+        assertEquals(expected, decode(new SmileFactory(), smile));
+        assertEquals(30, expected.get("items").size());
+
+        String base = json.getHeader(HttpHeaders.ETAG);
+        assertEquals(base.replaceFirst("\"$", "-cbor\""), cbor.getHeader(HttpHeaders.ETAG));
+        assertEquals(base.replaceFirst("\"$", "-smile\""), smile.getHeader(HttpHeaders.ETAG));
+        assertTrue(cbor.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertTrue(cbor.getContentAsByteArray().length < json.getContentAsByteArray().length);
+    }
+
+    /**
+     * Tests that large pages are compressed with the coding the client prefers and small responses are not.
+     */
+    @Test
+    void testCompression() throws Exception {
+        MockHttpServletResponse plain = page(MediaType.APPLICATION_JSON, null);
+        MockHttpServletResponse gzip = page(MediaType.APPLICATION_JSON, "gzip, deflate");
+
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzip.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(plain.getHeader(HttpHeaders.ETAG).replaceFirst("\"$", "-gzip\""), gzip.getHeader(HttpHeaders.ETAG));
+        assertTrue(gzip.getContentAsByteArray().length < plain.getContentAsByteArray().length / 3);
+        assertArrayEquals(plain.getContentAsByteArray(), new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray())).readAllBytes());
+
+        mockMvc.perform(get("/api/concerns/{id}", concern.getID()).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, CONCERNETags.of(concern.getVersion())));
+
+        Assumptions.assumeTrue(Brotli4jLoader.isAvailable(), "brotli native library not available");
+        MockHttpServletResponse brotli = page(MediaType.APPLICATION_JSON, "gzip, br");
+        assertEquals("br", brotli.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(plain.getContentAsByteArray(), decode(new BrotliInputStream(new ByteArrayInputStream(brotli.getContentAsByteArray()))));
+    }
+
+    /**
+     * Tests that an export streamed asynchronously is compressed and completed.
+     */
+    @Test
+    void testExportIsCompressed() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/concerns/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+
+        String ndjson = new String(decode(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+        assertTrue(ndjson.contains(studentName));
+    }
+
+    /**
+     * Tests that the tag of a compressed CBOR page revalidates with 304 and that a concern's coded tag works in If-Match.
+     */
+    @Test
+    void testConditionalRequestsWithCodedTags() throws Exception {
+        String etag = page(MediaType.APPLICATION_CBOR, "gzip").getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.endsWith("-cbor-gzip\""));
+
+        mockMvc.perform(get("/api/concerns").param("studentName", studentName).param("size", "30")
+                        .accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        mockMvc.perform(patch("/api/concerns/{id}", concern.getID())
+                        .header(HttpHeaders.IF_MATCH, CONCERNETags.of(concern.getVersion()).replaceFirst("\"$", "-cbor-gzip\""))
+                        .contentType("application/merge-patch+json").content("{\"status\":\"Resolved\"}"))
+                .andExpect(status().isNoContent());
+    }
+
+    private MockHttpServletResponse page(MediaType accept, String acceptEncoding) throws Exception {
+        var request = get("/api/concerns").param("studentName", studentName).param("size", "30").accept(accept);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    /**
+     * Reads a binary page back into concerns and renders it as JSON, since UUIDs are encoded as binary in CBOR and Smile.
+     */
+    private JsonNode decode(JsonFactory factory, MockHttpServletResponse response) throws IOException {
+        ObjectMapper binary = new ObjectMapper(factory).findAndRegisterModules();
+        CONCERNPage<CONCERN> page = binary.readValue(response.getContentAsByteArray(), new TypeReference<>() {
+        });
+        return objectMapper.readTree(objectMapper.writeValueAsBytes(page));
+    }
+
+    private static byte[] decode(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for write-behind ingestion through {@link CONCERNIngestService}, with the log in a directory of its own.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Answering a POST with 202, the assigned ID and its location, and storing the concern shortly after</li>
+ *  <li>Ignoring an ID sent by the client</li>
+ *  <li>Rejecting an invalid concern before it is logged</li>
+ *  <li>Rejecting a concern with a field longer than its column, and storing the next one</li>
+ *  <li>Moving a concern the database rejects to the dead-letter file without holding up the rest</li>
+ *  <li>Storing concerns posted concurrently exactly once</li>
+ *  <li>Refusing to start without a log path, or with one whose parent directory is missing</li>
+ * </ul>
+ *
+ */
+@SpringBootTest(properties = {
+    "safeguarding.concerns.ingest.mode=write-behind",
+    "safeguarding.concerns.ingest.log-path=${java.io.tmpdir}/safeguarding-ingest-test-${random.uuid}"
+})
+@AutoConfigureMockMvc
+class CONCERNWriteBehindIngestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CONCERNIngestService ingestService;
+
+    @MockitoSpyBean
+    private CONCERNService concernService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CONCERNProperties properties;
+
+    /**
+     * Tests that a POST is accepted with the ID the concern is later stored under, not the one the client sent.
+     */
+    @Test
+    void testPostIsAcceptedAndStored() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        String body = mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":\"" + clientId + "\",\"studentName\":\"Ingest student\",\"reportedBy\":\"Teacher A\","
+                                + "\"description\":\"Description\",\"status\":\"Open\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists(HttpHeaders.LOCATION))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode accepted = objectMapper.readTree(body);
+        UUID id = UUID.fromString(accepted.get("id").asText());
+        assertNotEquals(clientId, id);
+
+        CONCERN stored = awaitStored(id);
+        assertEquals("Ingest student", stored.getStudentName());
+        assertEquals(0L, stored.getVersion());
+        assertNotNull(stored.getDateTime());
+    }
+
+    /**
+     * Tests that a concern missing a required field is rejected and never logged.
+     */
+    @Test
+    void testInvalidConcernIsRejected() throws Exception {
+        long backlog = ingestService.getBacklogBytes();
+        mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON).content("{\"studentName\":\"No reporter\",\"reportedBy\":null}"))
+                .andExpect(status().isBadRequest());
+        assertTrue(ingestService.getBacklogBytes() <= backlog);
+    }
+
+    /**
+     * Tests that a concern with a field longer than its column is rejected rather than logged, so that it cannot
+     * hold up the concerns after it, and that a valid concern posted next is stored.
+     */
+    @Test
+    void testOversizedConcernIsRejected() throws Exception {
+        mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentName\":\"Oversized student\",\"reportedBy\":\"Teacher A\",\"description\":\""
+                                + "x".repeat(CONCERN.MAX_TEXT_LENGTH + 1) + "\",\"status\":\"Open\"}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals("After oversized", awaitStored(ingest("After oversized")).getStudentName());
+    }
+
+    /**
+     * Tests that the service does not start without a configured log path, or with one that would be created under
+     * a directory that does not exist, such as an unmounted volume.
+     */
+    @Test
+    void testLogPathIsRequired() {
+        Path missing = Path.of(properties.ingest().logPath()).resolveSibling("missing-" + UUID.randomUUID()).resolve("ingest-log");
+        for (String logPath : new String[] {null, " ", missing.toString()}) {
+            CONCERNProperties.Ingest ingest = properties.ingest();
+            CONCERNProperties configured = new CONCERNProperties(properties.page(), properties.batch(), properties.search(),
+                    properties.feed(), new CONCERNProperties.Ingest(ingest.mode(), logPath, ingest.segmentSize(), ingest.batchSize(),
+                            ingest.syncTimeout(), ingest.retryDelay()), properties.archive(), properties.typeahead());
+            assertThrows(IllegalStateException.class, () -> new CONCERNIngestService(concernService, objectMapper, configured, new SimpleMeterRegistry()));
+        }
+        assertFalse(Files.exists(missing.getParent()));
+    }
+
+    /**
+     * Tests that a concern the database rejects is moved to the dead-letter file, while the concerns logged with it
+     * are stored.
+     */
+    @Test
+    void testRejectedConcernIsDeadLettered() throws Exception {
+        doThrow(new DataIntegrityViolationException("Value too long", new SQLException("Value too long", "22001")))
+                .when(concernService).createIngestedCONCERNs(argThat(concerns ->
+                        concerns.stream().anyMatch(concern -> concern.getStudentName().equals("Rejected student"))));
+
+        UUID rejected = ingest("Rejected student");
+        UUID stored = ingest("After rejected");
+
+        assertEquals("After rejected", awaitStored(stored).getStudentName());
+        Path deadLetter = Path.of(properties.ingest().logPath()).resolve(CONCERNIngestService.DEAD_LETTER_FILE);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!Files.exists(deadLetter) || !Files.readString(deadLetter).contains(rejected.toString())) {
+            assertTrue(System.nanoTime() < deadline, "concern " + rejected + " was not moved to the dead-letter file");
+            Thread.sleep(10);
+        }
+        assertThrows(NoSuchElementException.class, () -> concernService.getCONCERN(rejected));
+    }
+
+    /**
+     * Tests that concerns posted from many threads at once are each stored once.
+     */
+    @Test
+    void testConcurrentPostsAreStoredOnce() throws Exception {
+        String studentName = "Concurrent ingest " + UUID.randomUUID();
+        List<Future<UUID>> accepted = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 200; i++) {
+                accepted.add(executor.submit(() -> {
+                    String body = mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"studentName\":\"" + studentName + "\",\"reportedBy\":\"Teacher A\","
+                                            + "\"description\":\"Description\",\"status\":\"Open\"}"))
+                            .andExpect(status().isAccepted())
+                            .andReturn().getResponse().getContentAsString();
+                    return UUID.fromString(objectMapper.readTree(body).get("id").asText());
+                }));
+            }
+        }
+        for (Future<UUID> id : accepted) {
+            awaitStored(id.get());
+        }
+        assertEquals(200, concernService.getCONCERNsByStudentName(studentName).size());
+    }
+
+    private UUID ingest(String studentName) throws Exception {
+        String body = mockMvc.perform(post("/api/concerns").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentName\":\"" + studentName + "\",\"reportedBy\":\"Teacher A\","
+                                + "\"description\":\"Description\",\"status\":\"Open\"}"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        return UUID.fromString(objectMapper.readTree(body).get("id").asText());
+    }
+
+    private CONCERN awaitStored(UUID id) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            try {
+                return concernService.getCONCERN(id);
+            } catch (NoSuchElementException e) {
+                assertTrue(System.nanoTime() < deadline, "concern " + id + " was not stored");
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import com.queenmmama.safeguarding.safeguarding_api.config.RequestQueryTally;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test helper asserting how many SQL statements a MockMvc request issued, as counted by
+ * {@link com.queenmmama.safeguarding.safeguarding_api.config.RequestMetricsFilter}.
+ *
+ * <p>A mismatch fails with the SQL the request actually ran, oldest first.</p>
+ */
+public final class QueryCounts {
+
+    private QueryCounts() {
+    }
+
+    /**
+     * @param expected the exact number of statements and batches the request should have executed
+     * @return a matcher for {@code andExpect}
+     */
+    public static ResultMatcher statements(int expected) {
+        return result -> {
+            RequestQueryTally tally = (RequestQueryTally)result.getRequest().getAttribute(RequestQueryTally.ATTRIBUTE);
+            assertNotNull(tally, "The request was not counted by RequestMetricsFilter");
+            assertEquals(expected, tally.getStatements(), () -> {
+                StringBuilder message = new StringBuilder(result.getRequest().getMethod()).append(' ')
+                        .append(result.getRequest().getRequestURI()).append(" ran:");
+                tally.getExecutions().forEach(execution -> message.append("\n  ").append(execution.sql()));
+                return message.toString();
+            });
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.queenmmama.safeguarding.safeguarding_api.concerns;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Test helper that records every SQL statement Hibernate prepares on the current thread.
+ *
+ * <p>Register it with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.</p>
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    /** Forgets every statement recorded so far on this thread. */
+    public static void clear() {
+        STATEMENTS.get().clear();
+    }
+
+    /** @return the statements recorded on this thread, oldest first */
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+}
@@ -0,0 +1,68 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERN;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNFeedEvent;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the native-image hints registered by {@link NativeHintsConfig}.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Reflection on CONCERN and the other JSON types, including their accessors</li>
+ *  <li>Constructing the ID generator and the session listener Hibernate loads by name</li>
+ *  <li>Including the Swagger UI files and Lucene's service files and codecs</li>
+ * </ul>
+ *
+ */
+class NativeHintsConfigTest {
+
+    private RuntimeHints hints;
+
+    /**
+     * Registers the hints into an empty set.
+     */
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeHintsConfig.Hints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    /**
+     * Tests that JSON types can be read and written reflectively.
+     */
+    @Test
+    void testRegistersJsonTypes() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CONCERN.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(CONCERN.class.getMethod("getStudentName")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CONCERNFeedEvent.class).test(hints));
+    }
+
+    /**
+     * Tests that the classes Hibernate instantiates by name can be constructed.
+     */
+    @Test
+    void testRegistersHibernateTypes() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CONCERNIdGenerator.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(QueryTimingSessionListener.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+
+    /**
+     * Tests that the Swagger UI and Lucene's service files are included, along with the codecs they name.
+     */
+    @Test
+    void testRegistersResourcesAndServices() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/resources/webjars/swagger-ui/5.0.0/index.html").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/org.apache.lucene.codecs.Codec").test(hints));
+        assertTrue(hints.reflection().typeHints().anyMatch(hint -> hint.getType().getName().startsWith("org.apache.lucene.codecs.lucene")));
+    }
+}
@@ -0,0 +1,159 @@
+package com.queenmmama.safeguarding.safeguarding_api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the query budget, slow-statement and repeated-statement checks of {@link RequestMetricsFilter}.
+ *
+ * <p>Statements are fed to the request's tally directly, as {@link QueryInspector} and
+ * {@link QueryTimingSessionListener} would.</p>
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Logging a request over the statement budget with its SQL</li>
+ *  <li>Logging a request with a statement over the slow threshold</li>
+ *  <li>Logging the same statement run repeatedly as a likely N+1, but not repeated batches</li>
+ *  <li>Staying quiet within every limit</li>
+ *  <li>Setting the debug headers before the body is written</li>
+ *  <li>Leaving the debug headers alone once the request has gone asynchronous</li>
+ * </ul>
+ *
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class RequestMetricsFilterTest {
+
+    private static final long MILLISECOND = 1_000_000;
+
+    /**
+     * Tests that a request issuing more statements than the budget is logged with each statement.
+     */
+    @Test
+    void testOverBudgetIsLogged(CapturedOutput output) throws Exception {
+        run(filter(3, Duration.ZERO, 0), "select a", "select b", "select c", "select d");
+
+        assertTrue(output.getOut().contains("issued 4 SQL statements, over the budget of 3"), output.getOut());
+        assertTrue(output.getOut().contains("1.00 ms select d"), output.getOut());
+    }
+
+    /**
+     * Tests that a request with one statement slower than the threshold is logged.
+     */
+    @Test
+    void testSlowStatementIsLogged(CapturedOutput output) throws Exception {
+        RequestMetricsFilter filter = filter(0, Duration.ofMillis(5), 0);
+        run(filter, "select fast");
+        assertFalse(output.getOut().contains("over the threshold"), output.getOut());
+
+        run(filter, 6 * MILLISECOND, false, "select slow");
+        assertTrue(output.getOut().contains("ran a statement for 6.00 ms, over the threshold of 5.00 ms"), output.getOut());
+    }
+
+    /**
+     * Tests that the same statement run as often as the repeat threshold is logged as a likely N+1, while batches
+     * of the same statement are not.
+     */
+    @Test
+    void testRepeatedStatementIsLoggedAsNPlusOne(CapturedOutput output) throws Exception {
+        RequestMetricsFilter filter = filter(0, Duration.ZERO, 3);
+        String insert = "insert into concerns values (?)";
+        run(filter, MILLISECOND, true, insert, insert, insert, insert, insert);
+        assertFalse(output.getOut().contains("likely N+1"), output.getOut());
+
+        run(filter, "select page", "select student where id = ?", "select student where id = ?", "select student where id = ?");
+        assertTrue(output.getOut().contains("ran the same statement 3 times, a likely N+1: select student where id = ?"), output.getOut());
+    }
+
+    /**
+     * Tests that a request within every limit is not logged.
+     */
+    @Test
+    void testWithinLimitsIsNotLogged(CapturedOutput output) throws Exception {
+        run(filter(5, Duration.ofSeconds(1), 3), "select a", "select b");
+
+        assertFalse(output.getOut().contains(RequestMetricsFilter.class.getSimpleName()), output.getOut());
+    }
+
+    /**
+     * Tests that the statement count and database time are set as headers when the body starts, counting only the
+     * statements run before it.
+     */
+    @Test
+    void testDebugHeadersAreSetBeforeTheBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new RequestMetricsFilter(new SimpleMeterRegistry(), 0, Duration.ZERO, 0, true)
+                .doFilter(new MockHttpServletRequest("GET", "/api/concerns"), response, (request, servletResponse) -> {
+                    RequestQueryTally.current().prepared("select a");
+                    RequestQueryTally.current().record(2 * MILLISECOND, false);
+                    servletResponse.getWriter().write("{}");
+                    servletResponse.flushBuffer();
+                    RequestQueryTally.current().record(MILLISECOND, false);
+                });
+
+        assertEquals("1", response.getHeader(RequestMetricsFilter.QUERY_COUNT_HEADER));
+        assertEquals("db;dur=2.00;desc=\"SQL\"", response.getHeader("Server-Timing"));
+    }
+
+    /**
+     * Tests that no debug headers are set by a request that has gone asynchronous, neither by the request thread
+     * nor by the thread that streams the body.
+     */
+    @Test
+    void testDebugHeadersAreNotSetOnAsyncRequests() throws Exception {
+        MockHttpServletRequest asyncRequest = new MockHttpServletRequest("GET", "/api/concerns/changes");
+        asyncRequest.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new RequestMetricsFilter(new SimpleMeterRegistry(), 0, Duration.ZERO, 0, true)
+                .doFilter(asyncRequest, response, (request, servletResponse) -> {
+                    request.startAsync();
+                    Thread streaming = Thread.ofVirtual().start(() -> {
+                        try {
+                            servletResponse.getWriter().write(":subscribed\n\n");
+                            servletResponse.flushBuffer();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    try {
+                        streaming.join();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+
+        assertTrue(asyncRequest.isAsyncStarted());
+        assertEquals(":subscribed\n\n", response.getContentAsString());
+        assertNull(response.getHeader(RequestMetricsFilter.QUERY_COUNT_HEADER));
+        assertNull(response.getHeader("Server-Timing"));
+    }
+
+    private static RequestMetricsFilter filter(int budget, Duration slowThreshold, int repeatThreshold) {
+        return new RequestMetricsFilter(new SimpleMeterRegistry(), budget, slowThreshold, repeatThreshold, false);
+    }
+
+    private static void run(RequestMetricsFilter filter, String... statements) throws Exception {
+        run(filter, MILLISECOND, false, statements);
+    }
+
+    /**
+     * Runs a request through the filter that executes the given statements or batches, each taking the same time.
+     */
+    private static void run(RequestMetricsFilter filter, long nanos, boolean batch, String... statements) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/concerns"), new MockHttpServletResponse(), (request, response) -> {
+            for (String sql : statements) {
+                RequestQueryTally.current().prepared(sql);
+                RequestQueryTally.current().record(nanos, batch);
+            }
+        });
+    }
+}
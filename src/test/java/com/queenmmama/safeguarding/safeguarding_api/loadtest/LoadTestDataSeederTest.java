@@ -0,0 +1,68 @@
+package com.queenmmama.safeguarding.safeguarding_api.loadtest;
+
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNAggregateService;
+import com.queenmmama.safeguarding.safeguarding_api.concerns.CONCERNAggregates;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the data generated by {@link LoadTestDataSeeder} under the {@code loadtest} profile.
+ *
+ * <p>Tested scenarios include:</p>
+ * <ul>
+ *  <li>Seeding the configured number of concerns into the embedded database at startup</li>
+ *  <li>Mostly resolved concerns, with some in every status</li>
+ *  <li>Skewing concerns towards a few students</li>
+ *  <li>Generating unique student names</li>
+ * </ul>
+ *
+ */
+@SpringBootTest(properties = {
+    "safeguarding.loadtest.concerns=2000",
+    "safeguarding.loadtest.students=200",
+    "safeguarding.loadtest.reporters=20"
+})
+@ActiveProfiles("loadtest")
+class LoadTestDataSeederTest {
+
+    @Autowired
+    private CONCERNAggregateService aggregateService;
+
+    /**
+     * Tests that the configured number of concerns is stored, in every status, with most resolved.
+     */
+    @Test
+    void testSeedsConcernsInEveryStatus() {
+        CONCERNAggregates all = aggregateService.getAggregates(null);
+        assertEquals(2000, all.total());
+        assertTrue(all.byStatus().get("Open") > 0);
+        assertTrue(all.byStatus().get("In Progress") > 0);
+        assertTrue(all.byStatus().get("Resolved") > 1000);
+    }
+
+    /**
+     * Tests that the first-ranked student has many times the average number of concerns.
+     */
+    @Test
+    void testSkewsConcernsTowardsFewStudents() {
+        Map<String, Long> totals = aggregateService.getStudentTotals();
+        assertTrue(totals.size() <= 200);
+        assertTrue(aggregateService.getAggregates(LoadTestDataSeeder.studentName(0)).total() > 10 * 2000 / 200);
+        assertTrue(Collections.min(totals.values()) >= 1);
+    }
+
+    /**
+     * Tests that student names stay unique beyond the combinations of first and last names.
+     */
+    @Test
+    void testStudentNamesAreUnique() {
+        assertEquals(100_000, IntStream.range(0, 100_000).mapToObj(LoadTestDataSeeder::studentName).distinct().count());
+    }
+}